@@ -0,0 +1,83 @@
+package iia.dsl.benchmarks;
+
+import org.w3c.dom.Document;
+
+import iia.dsl.framework.util.DocumentUtil;
+
+/**
+ * Documentos XML compartidos por los benchmarks.
+ * 
+ * <p>
+ * Las tareas que modifican el documento de entrada (Splitter, ContextSlimmer,
+ * ContextEnricher) deben recibir una copia en cada invocación: usar
+ * {@link #copy(Document)}.
+ */
+public final class BenchmarkDocuments {
+
+    /**
+     * Número de items de {@link #ORDER_XML}.
+     */
+    public static final int ORDER_ITEMS = 8;
+
+    public static final String ORDER_XML = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <order id="o-1">
+                <customer>ACME</customer>
+                <items>
+                    <item><sku>A-1</sku><type>cold</type><quantity>2</quantity></item>
+                    <item><sku>A-2</sku><type>hot</type><quantity>1</quantity></item>
+                    <item><sku>A-3</sku><type>cold</type><quantity>5</quantity></item>
+                    <item><sku>A-4</sku><type>hot</type><quantity>3</quantity></item>
+                    <item><sku>A-5</sku><type>cold</type><quantity>1</quantity></item>
+                    <item><sku>A-6</sku><type>hot</type><quantity>4</quantity></item>
+                    <item><sku>A-7</sku><type>cold</type><quantity>2</quantity></item>
+                    <item><sku>A-8</sku><type>hot</type><quantity>6</quantity></item>
+                </items>
+                <notes>fragile</notes>
+            </order>
+            """;
+
+    public static final String CAFE_ORDER_XML = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <cafe_order>
+                <order_id>1</order_id>
+                <drinks>
+                    <drink><name>cafe</name><type>hot</type></drink>
+                    <drink><name>agua</name><type>cold</type></drink>
+                    <drink><name>coca-cola</name><type>cold</type></drink>
+                    <drink><name>te</name><type>hot</type></drink>
+                </drinks>
+            </cafe_order>
+            """;
+
+    /**
+     * Número de bebidas de {@link #CAFE_ORDER_XML}.
+     */
+    public static final int CAFE_DRINKS = 4;
+
+    public static final String IDENTITY_XSLT = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <xsl:stylesheet version="1.0" xmlns:xsl="http://www.w3.org/1999/XSL/Transform">
+                <xsl:template match="@*|node()">
+                    <xsl:copy>
+                        <xsl:apply-templates select="@*|node()"/>
+                    </xsl:copy>
+                </xsl:template>
+            </xsl:stylesheet>
+            """;
+
+    public static Document order() {
+        return DocumentUtil.createXMLDocument(ORDER_XML);
+    }
+
+    public static Document cafeOrder() {
+        return DocumentUtil.createXMLDocument(CAFE_ORDER_XML);
+    }
+
+    public static Document copy(Document doc) {
+        return (Document) doc.cloneNode(true);
+    }
+
+    private BenchmarkDocuments() {
+    }
+}
@@ -0,0 +1,207 @@
+package iia.dsl.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+
+import iia.dsl.framework.connectors.MockConnector;
+import iia.dsl.framework.core.Flow;
+import iia.dsl.framework.core.Message;
+import iia.dsl.framework.core.QueueType;
+import iia.dsl.framework.core.Slot;
+import iia.dsl.framework.core.policy.FifoPolicy;
+import iia.dsl.framework.ports.RequestPort;
+import iia.dsl.framework.tasks.modifiers.ModifierFactory;
+import iia.dsl.framework.tasks.routers.RouterFactory;
+import iia.dsl.framework.tasks.transformers.TransformerFactory;
+import iia.dsl.framework.util.DocumentUtil;
+
+/**
+ * Flujo completo del ejemplo de la cafetería (ver {@code Main}) con
+ * {@link MockConnector} en lugar de la base de datos y el servicio HTTP, de
+ * modo que se mide solo el coste del framework.
+ * 
+ * <p>
+ * Cada invocación introduce un pedido de {@value BenchmarkDocuments#CAFE_DRINKS}
+ * bebidas y espera al pedido reconstruido a la salida.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CafeFlowBenchmark {
+
+    private static final String SELECT_XSLT = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <xsl:stylesheet version="1.0" xmlns:xsl="http://www.w3.org/1999/XSL/Transform">
+                <xsl:template match="/drink">
+                    <sql>
+                        <xsl:text>SELECT * FROM drinks WHERE name = '</xsl:text>
+                        <xsl:value-of select="name"/>
+                        <xsl:text>'</xsl:text>
+                    </sql>
+                </xsl:template>
+            </xsl:stylesheet>
+            """;
+
+    private static final String DB_RESULT_XSLT = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <xsl:stylesheet version="1.0" xmlns:xsl="http://www.w3.org/1999/XSL/Transform">
+                <xsl:template match="/resultset">
+                    <context>
+                        <xpath>/drink</xpath>
+                        <body>
+                            <state><xsl:value-of select="row/STATE"/></state>
+                        </body>
+                    </context>
+                </xsl:template>
+            </xsl:stylesheet>
+            """;
+
+    private static final String HTTP_REQUEST_XSLT = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <xsl:stylesheet version="1.0" xmlns:xsl="http://www.w3.org/1999/XSL/Transform">
+                <xsl:template match="/">
+                    <http-request>
+                        <url>https://httpbin.org/xml</url>
+                        <method>GET</method>
+                    </http-request>
+                </xsl:template>
+            </xsl:stylesheet>
+            """;
+
+    private static final String HTTP_RESULT_XSLT = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <xsl:stylesheet version="1.0" xmlns:xsl="http://www.w3.org/1999/XSL/Transform">
+                <xsl:template match="/">
+                    <context>
+                        <xpath>/drink</xpath>
+                        <body>
+                            <state>ready</state>
+                        </body>
+                    </context>
+                </xsl:template>
+            </xsl:stylesheet>
+            """;
+
+    private static final String DB_RESPONSE = "<resultset><row><NAME>agua</NAME><STATE>ready</STATE></row></resultset>";
+    private static final String HTTP_RESPONSE = "<slideshow title=\"Sample\"/>";
+
+    @Param({ "false", "true" })
+    public boolean concurrent;
+
+    private Document order;
+    private Slot input;
+    private Slot output;
+    private Flow flow;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        order = BenchmarkDocuments.cafeOrder();
+
+        var routerFactory = new RouterFactory();
+        var transformerFactory = new TransformerFactory();
+        var modifierFactory = new ModifierFactory();
+
+        input = new Slot("input");
+        output = new Slot("output");
+        var split = new Slot("split");
+        var tagged = new Slot("tagged");
+        var cold = new Slot("cold");
+        var hot = new Slot("hot");
+        var coldOriginal = new Slot("cold-original");
+        var coldCopy = new Slot("cold-copy");
+        var hotOriginal = new Slot("hot-original");
+        var hotCopy = new Slot("hot-copy");
+        var dbRequest = new Slot("db-request");
+        var dbResponse = new Slot("db-response");
+        var httpRequest = new Slot("http-request");
+        var httpResponse = new Slot("http-response");
+        var coldDrink = new Slot("cold-drink");
+        var coldContext = new Slot("cold-context");
+        var hotDrink = new Slot("hot-drink");
+        var hotContext = new Slot("hot-context");
+        var coldEnriched = new Slot("cold-enriched");
+        var hotEnriched = new Slot("hot-enriched");
+        var merged = new Slot("merged");
+
+        var builder = Flow.builder().id("CafeBenchmark");
+        if (concurrent) {
+            builder.concurrent(new FifoPolicy()).executor(4, QueueType.FIFO);
+        }
+        flow = builder.build();
+
+        flow.addElement(transformerFactory.createSplitterTask("splitter", input, split, "/cafe_order/drinks/drink"));
+        flow.addElement(modifierFactory.createCorrelationIdSetterTask("correlation-id-setter", split, tagged));
+        flow.addElement(routerFactory.createDistributorTask("distributor", tagged, List.of(cold, hot),
+                List.of("/drink/type='cold'", "/drink/type='hot'")));
+
+        // Rama fría: "base de datos" simulada
+        flow.addElement(routerFactory.createReplicatorTask("replicator-cold", cold, List.of(coldOriginal, coldCopy)));
+        flow.addElement(transformerFactory.createTranslatorTask("translator-cold", coldCopy, dbRequest, SELECT_XSLT));
+        flow.addElement(new MockConnector(new RequestPort("db-port", dbRequest, dbResponse, DB_RESULT_XSLT),
+                DocumentUtil.createXMLDocument(DB_RESPONSE)));
+        flow.addElement(routerFactory.createCorrelatorTask("correlator-cold", List.of(coldOriginal, dbResponse),
+                List.of(coldDrink, coldContext)));
+        flow.addElement(modifierFactory.createContextEnricherTask("enricher-cold", coldDrink, coldContext,
+                coldEnriched));
+
+        // Rama caliente: servicio HTTP simulado
+        flow.addElement(routerFactory.createReplicatorTask("replicator-hot", hot, List.of(hotOriginal, hotCopy)));
+        flow.addElement(transformerFactory.createTranslatorTask("translator-hot", hotCopy, httpRequest,
+                HTTP_REQUEST_XSLT));
+        flow.addElement(new MockConnector(new RequestPort("http-port", httpRequest, httpResponse, HTTP_RESULT_XSLT),
+                DocumentUtil.createXMLDocument(HTTP_RESPONSE)));
+        flow.addElement(routerFactory.createCorrelatorTask("correlator-hot", List.of(hotOriginal, httpResponse),
+                List.of(hotDrink, hotContext)));
+        flow.addElement(modifierFactory.createContextEnricherTask("enricher-hot", hotDrink, hotContext,
+                hotEnriched));
+
+        flow.addElement(routerFactory.createMergerTask("merger", List.of(coldEnriched, hotEnriched), merged));
+        flow.addElement(transformerFactory.createAggregatorTask("aggregator", merged, output, "/cafe_order/drinks"));
+
+        // Propaga el modo de ejecución y compila las hojas de estilo. No hay
+        // conectores de origen: los pedidos se depositan directamente en "input".
+        flow.execute();
+
+        // Verifica que el flujo reconstruye el pedido completo
+        var result = process();
+        int drinks = result.getDocument().getElementsByTagName("drink").getLength();
+        if (drinks != BenchmarkDocuments.CAFE_DRINKS) {
+            throw new IllegalStateException("El flujo devolvió " + drinks + " bebidas en lugar de "
+                    + BenchmarkDocuments.CAFE_DRINKS);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        flow.shutdown();
+    }
+
+    @Benchmark
+    public Message order() {
+        return process();
+    }
+
+    private Message process() {
+        // El Splitter vacía el documento original: cada pedido es una copia
+        input.setMessage(new Message(BenchmarkDocuments.copy(order)));
+        return concurrent ? Drain.await(output, 10_000) : Drain.one(output);
+    }
+}
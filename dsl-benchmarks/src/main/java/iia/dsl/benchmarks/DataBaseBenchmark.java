@@ -0,0 +1,118 @@
+package iia.dsl.benchmarks;
+
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.h2.tools.Server;
+
+import iia.dsl.framework.connectors.DataBaseConnector;
+import iia.dsl.framework.connectors.JdbcConnectionPool;
+import iia.dsl.framework.core.Message;
+import iia.dsl.framework.core.Slot;
+import iia.dsl.framework.ports.OutputPort;
+import iia.dsl.framework.util.TestUtils;
+
+/**
+ * Carga masiva de pedidos en H2 (memoria) a través de un
+ * {@link DataBaseConnector} con OutputPort: un {@code INSERT} autocommit por
+ * mensaje ({@code batchSize = 0}) frente al modo batch.
+ * 
+ * <p>
+ * {@code H2_TCP} sirve una base de datos H2 en memoria por TCP local, de modo
+ * que cada commit es una ida y vuelta de red (el cliente H2 envía las filas de
+ * un batch una a una, así que la ganancia viene de los commits).
+ * {@code SQLITE} usa un fichero en disco, donde cada commit implica un
+ * {@code fsync}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class DataBaseBenchmark {
+
+    private static final int ORDERS = 1000;
+
+    @Param({ "0", "100", "1000" })
+    public int batchSize;
+
+    @Param({ "H2_TCP", "SQLITE" })
+    public String database;
+
+    private Server server;
+    private JdbcConnectionPool pool;
+    private Slot in;
+    private DataBaseConnector connector;
+    private List<Message> orders;
+    private int nextId = 0;
+
+    @Setup
+    public void setup() throws Exception {
+        String url;
+        if (database.equals("H2_TCP")) {
+            server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+            url = "jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:bench-orders";
+        } else {
+            url = "jdbc:sqlite:" + Files.createTempDirectory("dsl-bench-db").resolve("orders.db");
+        }
+        pool = JdbcConnectionPool.builder(url).build();
+        pool.withConnection(c -> c.connection().createStatement()
+                .execute("CREATE TABLE orders (id INT PRIMARY KEY, customer VARCHAR(50), total DECIMAL(8,2))"));
+
+        in = new Slot("bench-db-in");
+        connector = new DataBaseConnector(new OutputPort("bench-db", in), pool);
+        if (batchSize > 0) {
+            connector.enableBatch(batchSize, Duration.ofMillis(50));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareOrders() {
+        orders = new ArrayList<>(ORDERS);
+        for (int i = 0; i < ORDERS; i++) {
+            int id = nextId++;
+            orders.add(new Message(TestUtils.createXMLDocument("""
+                    <sql>
+                        <statement>INSERT INTO orders (id, customer, total) VALUES (?, ?, ?)</statement>
+                        <param type="int">%d</param>
+                        <param>customer-%d</param>
+                        <param type="decimal">12.50</param>
+                    </sql>
+                    """.formatted(id, id % 100))));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS)
+    public void insertOrders() throws Exception {
+        in.setMessages(orders);
+        connector.flush();
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.close();
+        if (server != null) {
+            server.stop();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package iia.dsl.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import iia.dsl.framework.core.Message;
+import iia.dsl.framework.core.Slot;
+
+/**
+ * Utilidades para consumir la salida de las tareas dentro de un benchmark.
+ * 
+ * <p>
+ * Los errores de las tareas se registran y no se propagan, así que un Slot de
+ * salida vacío indica un benchmark mal configurado: se aborta en lugar de
+ * medir una tarea que no hace nada.
+ */
+final class Drain {
+
+    /**
+     * Extrae el siguiente mensaje de un Slot cuya tarea ya se ha ejecutado.
+     */
+    static Message one(Slot slot) {
+        var message = slot.getMessage();
+        if (message == null) {
+            throw new IllegalStateException("La tarea no produjo salida en el Slot '" + slot.getId() + "'");
+        }
+        return message;
+    }
+
+    /**
+     * Espera (en ejecución concurrente) a que el Slot tenga un mensaje.
+     */
+    static Message await(Slot slot, long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        Message message;
+        while ((message = slot.getMessage()) == null) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Timeout esperando salida en el Slot '" + slot.getId() + "'");
+            }
+            LockSupport.parkNanos(1_000);
+        }
+        return message;
+    }
+
+    private Drain() {
+    }
+}
@@ -0,0 +1,99 @@
+package iia.dsl.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+
+import iia.dsl.framework.core.Message;
+import iia.dsl.framework.core.Slot;
+import iia.dsl.framework.tasks.modifiers.ModifierFactory;
+import iia.dsl.framework.util.DocumentUtil;
+
+/**
+ * Throughput de una única tarea de modificación creada con
+ * {@link ModifierFactory}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ModifierBenchmark {
+
+    private Document order;
+    private Document slimContext;
+    private Document enrichContext;
+
+    private Slot slimmerIn, slimmerOut;
+    private Slot contextSlimmerIn, contextSlimmerContext, contextSlimmerOut;
+    private Slot contextEnricherIn, contextEnricherContext, contextEnricherOut;
+    private Slot correlationIdSetterIn, correlationIdSetterOut;
+
+    @Setup
+    public void setup() {
+        order = BenchmarkDocuments.order();
+        slimContext = DocumentUtil.createXMLDocument("<context><xpath>/order/notes</xpath></context>");
+        enrichContext = DocumentUtil.createXMLDocument(
+                "<context><xpath>/order</xpath><body><status>ready</status></body></context>");
+        var factory = new ModifierFactory();
+
+        slimmerIn = new Slot("slimmer-in");
+        slimmerOut = new Slot("slimmer-out");
+        factory.createSlimmerTask("slimmer", slimmerIn, slimmerOut, "/order/notes");
+
+        contextSlimmerIn = new Slot("context-slimmer-in");
+        contextSlimmerContext = new Slot("context-slimmer-context");
+        contextSlimmerOut = new Slot("context-slimmer-out");
+        factory.createContextSlimmerTask("context-slimmer", contextSlimmerIn, contextSlimmerContext,
+                contextSlimmerOut);
+
+        contextEnricherIn = new Slot("context-enricher-in");
+        contextEnricherContext = new Slot("context-enricher-context");
+        contextEnricherOut = new Slot("context-enricher-out");
+        factory.createContextEnricherTask("context-enricher", contextEnricherIn, contextEnricherContext,
+                contextEnricherOut);
+
+        correlationIdSetterIn = new Slot("correlation-id-setter-in");
+        correlationIdSetterOut = new Slot("correlation-id-setter-out");
+        factory.createCorrelationIdSetterTask("correlation-id-setter", correlationIdSetterIn,
+                correlationIdSetterOut);
+    }
+
+    @Benchmark
+    public Message slimmer() {
+        slimmerIn.setMessage(new Message("m", order));
+        return Drain.one(slimmerOut);
+    }
+
+    @Benchmark
+    public Message contextSlimmer() {
+        // Modifica el documento de entrada: cada invocación usa una copia
+        contextSlimmerIn.setMessage(new Message("m", BenchmarkDocuments.copy(order)));
+        contextSlimmerContext.setMessage(new Message("c", slimContext));
+        return Drain.one(contextSlimmerOut);
+    }
+
+    @Benchmark
+    public Message contextEnricher() {
+        contextEnricherIn.setMessage(new Message("m", BenchmarkDocuments.copy(order)));
+        contextEnricherContext.setMessage(new Message("c", enrichContext));
+        return Drain.one(contextEnricherOut);
+    }
+
+    @Benchmark
+    public Message correlationIdSetter() {
+        correlationIdSetterIn.setMessage(new Message("m", order));
+        return Drain.one(correlationIdSetterOut);
+    }
+}
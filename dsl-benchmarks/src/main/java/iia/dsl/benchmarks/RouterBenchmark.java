@@ -0,0 +1,122 @@
+package iia.dsl.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.w3c.dom.Document;
+
+import iia.dsl.framework.core.Message;
+import iia.dsl.framework.core.Slot;
+import iia.dsl.framework.tasks.routers.RouterFactory;
+
+/**
+ * Throughput de una única tarea de enrutamiento creada con
+ * {@link RouterFactory}.
+ * 
+ * <p>
+ * Las tareas se ejecutan en modo secuencial: depositar un mensaje en el Slot de
+ * entrada ejecuta la tarea en el mismo hilo, por lo que cada invocación mide el
+ * procesamiento completo de un mensaje.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouterBenchmark {
+
+    private Document order;
+    private long sequence;
+
+    private Slot filterIn, filterOut;
+    private Slot distributorIn, distributorOutA, distributorOutB;
+    private Slot replicatorIn, replicatorOutA, replicatorOutB;
+    private Slot mergerInA, mergerInB, mergerOut;
+    private Slot correlatorInA, correlatorInB, correlatorOutA, correlatorOutB;
+
+    @Setup
+    public void setup() {
+        order = BenchmarkDocuments.order();
+        var factory = new RouterFactory();
+
+        filterIn = new Slot("filter-in");
+        filterOut = new Slot("filter-out");
+        factory.createFilterTask("filter", filterIn, filterOut, "count(/order/customer)");
+
+        distributorIn = new Slot("distributor-in");
+        distributorOutA = new Slot("distributor-out-a");
+        distributorOutB = new Slot("distributor-out-b");
+        factory.createDistributorTask("distributor", distributorIn, List.of(distributorOutA, distributorOutB),
+                List.of("/order/customer='ACME'", "/order/customer='OTHER'"));
+
+        replicatorIn = new Slot("replicator-in");
+        replicatorOutA = new Slot("replicator-out-a");
+        replicatorOutB = new Slot("replicator-out-b");
+        factory.createReplicatorTask("replicator", replicatorIn, List.of(replicatorOutA, replicatorOutB));
+
+        mergerInA = new Slot("merger-in-a");
+        mergerInB = new Slot("merger-in-b");
+        mergerOut = new Slot("merger-out");
+        factory.createMergerTask("merger", List.of(mergerInA, mergerInB), mergerOut);
+
+        correlatorInA = new Slot("correlator-in-a");
+        correlatorInB = new Slot("correlator-in-b");
+        correlatorOutA = new Slot("correlator-out-a");
+        correlatorOutB = new Slot("correlator-out-b");
+        factory.createCorrelatorTask("correlator", List.of(correlatorInA, correlatorInB),
+                List.of(correlatorOutA, correlatorOutB));
+    }
+
+    @Benchmark
+    public Message filter() {
+        filterIn.setMessage(new Message("m", order));
+        return Drain.one(filterOut);
+    }
+
+    @Benchmark
+    public Message distributor() {
+        distributorIn.setMessage(new Message("m", order));
+        return Drain.one(distributorOutA);
+    }
+
+    @Benchmark
+    public void replicator(Blackhole bh) {
+        replicatorIn.setMessage(new Message("m", order));
+        bh.consume(Drain.one(replicatorOutA));
+        bh.consume(Drain.one(replicatorOutB));
+    }
+
+    @Benchmark
+    public void merger(Blackhole bh) {
+        mergerInA.setMessage(new Message("a", order));
+        mergerInB.setMessage(new Message("b", order));
+        bh.consume(Drain.one(mergerOut));
+        bh.consume(Drain.one(mergerOut));
+    }
+
+    @Benchmark
+    public void correlator(Blackhole bh) {
+        String correlationId = Long.toString(sequence++);
+        var a = new Message("a", order);
+        a.addHeader(Message.CORRELATION_ID, correlationId);
+        var b = new Message("b", order);
+        b.addHeader(Message.CORRELATION_ID, correlationId);
+
+        correlatorInA.setMessage(a);
+        correlatorInB.setMessage(b);
+        bh.consume(Drain.one(correlatorOutA));
+        bh.consume(Drain.one(correlatorOutB));
+    }
+}
@@ -0,0 +1,93 @@
+package iia.dsl.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import iia.dsl.framework.core.ExecutableElement;
+import iia.dsl.framework.core.ExecutionEnvironment;
+import iia.dsl.framework.core.QueueType;
+
+/**
+ * Coste de programar elementos en un {@link ExecutionEnvironment}: envolver la
+ * tarea, encolarla, despertar a un hilo y ejecutar un {@code execute()} vacío.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SchedulerBenchmark {
+
+    private static final int BATCH = 1000;
+
+    @Param({ "PRIORITY", "FIFO", "WORK_STEALING" })
+    public QueueType queueType;
+
+    @Param({ "4" })
+    public int threads;
+
+    private ExecutionEnvironment environment;
+    private final AtomicInteger pending = new AtomicInteger();
+    private NoopElement element;
+
+    /**
+     * Elemento sin trabajo: solo marca su ejecución.
+     */
+    private static final class NoopElement extends ExecutableElement {
+        private final AtomicInteger pending;
+
+        NoopElement(AtomicInteger pending) {
+            super("noop");
+            this.pending = pending;
+        }
+
+        @Override
+        public void execute() {
+            pending.decrementAndGet();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        environment = ExecutionEnvironment.builder()
+                .name("bench-" + queueType)
+                .threads(threads)
+                .queue(queueType)
+                .build();
+        element = new NoopElement(pending);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        environment.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void submit() {
+        pending.addAndGet(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            environment.submit(element);
+        }
+        while (pending.get() > 0) {
+            LockSupport.parkNanos(1_000);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package iia.dsl.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import iia.dsl.framework.core.Message;
+import iia.dsl.framework.core.OverflowStrategy;
+import iia.dsl.framework.core.Slot;
+import iia.dsl.framework.core.SlotQueueType;
+
+/**
+ * Encolado y desencolado en un {@link Slot} para cada {@link SlotQueueType}.
+ * 
+ * <p>
+ * Los Slots se acotan con DROP_NEWEST para que un productor más rápido que el
+ * consumidor no haga crecer la cola sin límite ni se quede bloqueado al final
+ * de la iteración. El resultado de los productores indica si el mensaje tuvo
+ * backpressure.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SlotBenchmark {
+
+    private static final int CAPACITY = 1024;
+    private static final Message MESSAGE = new Message("m", null);
+
+    /**
+     * Un productor y un consumidor: válido para todas las colas.
+     */
+    @State(Scope.Group)
+    public static class SingleProducer {
+        @Param({ "LINKED", "SPSC_RING", "MPSC_RING" })
+        public SlotQueueType queueType;
+
+        Slot slot;
+
+        @Setup
+        public void setup() {
+            slot = new Slot("bench", queueType, CAPACITY, OverflowStrategy.DROP_NEWEST);
+        }
+    }
+
+    /**
+     * Varios productores y un consumidor: SPSC_RING no admite este patrón.
+     */
+    @State(Scope.Group)
+    public static class MultiProducer {
+        @Param({ "LINKED", "MPSC_RING" })
+        public SlotQueueType queueType;
+
+        Slot slot;
+
+        @Setup
+        public void setup() {
+            slot = new Slot("bench", queueType, CAPACITY, OverflowStrategy.DROP_NEWEST);
+        }
+    }
+
+    /**
+     * Coste sin contención de un encolado seguido de un desencolado.
+     */
+    @State(Scope.Thread)
+    public static class Uncontended {
+        @Param({ "LINKED", "SPSC_RING", "MPSC_RING" })
+        public SlotQueueType queueType;
+
+        Slot slot;
+
+        @Setup
+        public void setup() {
+            slot = new Slot("bench", queueType, CAPACITY, OverflowStrategy.DROP_NEWEST);
+        }
+    }
+
+    @Benchmark
+    public Message roundTrip(Uncontended state) {
+        state.slot.setMessage(MESSAGE);
+        return state.slot.getMessage();
+    }
+
+    @Benchmark
+    @Group("spsc")
+    @GroupThreads(1)
+    public boolean spscProduce(SingleProducer state) {
+        return state.slot.setMessage(MESSAGE);
+    }
+
+    @Benchmark
+    @Group("spsc")
+    @GroupThreads(1)
+    public Message spscConsume(SingleProducer state) {
+        return state.slot.getMessage();
+    }
+
+    @Benchmark
+    @Group("mpsc")
+    @GroupThreads(3)
+    public boolean mpscProduce(MultiProducer state) {
+        return state.slot.setMessage(MESSAGE);
+    }
+
+    @Benchmark
+    @Group("mpsc")
+    @GroupThreads(1)
+    public Message mpscConsume(MultiProducer state) {
+        return state.slot.getMessage();
+    }
+}
@@ -0,0 +1,85 @@
+package iia.dsl.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.w3c.dom.Document;
+
+import iia.dsl.framework.core.Message;
+import iia.dsl.framework.core.Slot;
+import iia.dsl.framework.tasks.transformers.TransformerFactory;
+
+/**
+ * Throughput de una única tarea de transformación creada con
+ * {@link TransformerFactory}.
+ * 
+ * <p>
+ * El Aggregator necesita el esqueleto que guarda el Splitter, por lo que se
+ * mide junto a él ({@link #splitAndAggregate(Blackhole)}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransformerBenchmark {
+
+    private Document order;
+
+    private Slot translatorIn, translatorOut;
+    private Slot splitterIn, splitterOut;
+    private Slot pipelineIn, pipelineOut;
+
+    @Setup
+    public void setup() throws Exception {
+        order = BenchmarkDocuments.order();
+        var factory = new TransformerFactory();
+
+        translatorIn = new Slot("translator-in");
+        translatorOut = new Slot("translator-out");
+        factory.createTranslatorTask("translator", translatorIn, translatorOut, BenchmarkDocuments.IDENTITY_XSLT)
+                .prepare();
+
+        splitterIn = new Slot("splitter-in");
+        splitterOut = new Slot("splitter-out");
+        factory.createSplitterTask("splitter", splitterIn, splitterOut, "/order/items/item");
+
+        pipelineIn = new Slot("pipeline-in");
+        var fragments = new Slot("pipeline-fragments");
+        pipelineOut = new Slot("pipeline-out");
+        factory.createSplitterTask("pipeline-splitter", pipelineIn, fragments, "/order/items/item");
+        factory.createAggregatorTask("pipeline-aggregator", fragments, pipelineOut, "/order/items");
+    }
+
+    @Benchmark
+    public Message translator() {
+        translatorIn.setMessage(new Message("m", order));
+        return Drain.one(translatorOut);
+    }
+
+    @Benchmark
+    public void splitter(Blackhole bh) {
+        // El Splitter vacía el documento original: cada invocación usa una copia
+        splitterIn.setMessage(new Message(BenchmarkDocuments.copy(order)));
+        for (int i = 0; i < BenchmarkDocuments.ORDER_ITEMS; i++) {
+            bh.consume(Drain.one(splitterOut));
+        }
+    }
+
+    @Benchmark
+    public Message splitAndAggregate() {
+        pipelineIn.setMessage(new Message(BenchmarkDocuments.copy(order)));
+        return Drain.one(pipelineOut);
+    }
+}
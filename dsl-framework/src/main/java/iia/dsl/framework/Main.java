@@ -8,6 +8,7 @@ import iia.dsl.framework.connectors.DataBaseConnector;
 import iia.dsl.framework.connectors.FileConnector;
 import iia.dsl.framework.connectors.HttpConnector;
 import iia.dsl.framework.core.Flow;
+import iia.dsl.framework.core.QueueType;
 import iia.dsl.framework.core.Slot;
 import iia.dsl.framework.core.policy.FifoPolicy;
 import iia.dsl.framework.core.policy.MostWorkPolicy;
@@ -276,6 +277,10 @@ public class Main {
 
         private static void runCafeImplementationConcurrent() {
                 try {
+                        // Conectores bloqueantes (JDBC, HTTP) en hilos virtuales
+                        iia.dsl.framework.core.ExecutionEnvironment.configure(
+                                        iia.dsl.framework.core.ExecutionMode.VIRTUAL);
+
                         // === CONFIGURACIÓN INICIAL ===
                         // Setup DB H2
                         try (java.sql.Connection conn = java.sql.DriverManager
@@ -343,16 +348,19 @@ public class Main {
                                         .concurrent(new FifoPolicy())
                                         .build();
 
-                        // Cold Flow: FifoPolicy (Standard priority)
+                        // Cold Flow: FifoPolicy (Standard priority), own FIFO executor
                         Flow coldFlow = Flow.builder()
                                         .id("ColdFlow")
                                         .concurrent(new FifoPolicy())
+                                        .executor(2, QueueType.FIFO)
                                         .build();
 
-                        // Hot Flow: MostWorkPolicy (High Priority for complex tasks)
+                        // Hot Flow: MostWorkPolicy (High Priority for complex tasks), own executor
+                        // so a slow HTTP branch does not delay the cold branch
                         Flow hotFlow = Flow.builder()
                                         .id("HotFlow")
                                         .concurrent(new MostWorkPolicy())
+                                        .executor(2, QueueType.PRIORITY)
                                         .build();
 
                         // === PASO 5: Crear Tareas ===
@@ -450,9 +458,9 @@ public class Main {
 
                         // Wait for concurrent execution to finish
                         System.out.println("Waiting for flow quiescence...");
-                        iia.dsl.framework.core.ExecutionEnvironment.getInstance().waitForQuiescence(30000);
+                        mainFlow.waitForQuiescence(30000);
                         System.out.println("Flow quiescence reached.");
-                        iia.dsl.framework.core.ExecutionEnvironment.getInstance().shutdown();
+                        mainFlow.shutdown();
                 } catch (Exception ex) {
                         Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
                 } finally {
@@ -0,0 +1,85 @@
+package iia.dsl.framework.connectors;
+
+import java.time.Duration;
+
+/**
+ * Límite de llamadas simultáneas que se ajusta con la latencia observada
+ * (AIMD). Mientras las respuestas llegan por debajo de {@code latencyTarget}
+ * el límite crece en uno por cada "ventana" completa de respuestas; ante una
+ * respuesta lenta o fallida se reduce a la mitad, como mucho una vez por
+ * intervalo de latencia objetivo para no desplomarse con una ráfaga de
+ * respuestas lentas que ya estaban en curso.
+ *
+ * <p>
+ * Con {@code minLimit == maxLimit} se comporta como un semáforo fijo.
+ */
+class AdaptiveLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyTargetNanos;
+
+    private double limit;
+    private int inFlight = 0;
+    private long lastDecrease;
+
+    AdaptiveLimiter(int minLimit, int maxLimit, Duration latencyTarget) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTargetNanos = latencyTarget != null ? latencyTarget.toNanos() : 0;
+        // Se empieza por lo bajo y se sube según responde el servicio
+        this.limit = minLimit;
+        this.lastDecrease = System.nanoTime() - latencyTargetNanos;
+    }
+
+    static AdaptiveLimiter fixed(int limit) {
+        return new AdaptiveLimiter(limit, limit, null);
+    }
+
+    /**
+     * Espera hasta que haya hueco por debajo del límite actual.
+     *
+     * @throws InterruptedException Si se interrumpe la espera.
+     */
+    synchronized void acquire() throws InterruptedException {
+        while (inFlight >= (int) limit) {
+            wait();
+        }
+        inFlight++;
+    }
+
+    synchronized void release() {
+        inFlight--;
+        notifyAll();
+    }
+
+    /**
+     * Ajusta el límite con el resultado de una llamada.
+     *
+     * @param latencyNanos Duración de la llamada.
+     * @param failed       true si el servicio falló (error de red o 5xx).
+     */
+    synchronized void record(long latencyNanos, boolean failed) {
+        if (minLimit == maxLimit) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (failed || latencyNanos > latencyTargetNanos) {
+            if (now - lastDecrease >= latencyTargetNanos) {
+                limit = Math.max(minLimit, limit / 2);
+                lastDecrease = now;
+            }
+        } else {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+        notifyAll();
+    }
+
+    synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    synchronized int getInFlight() {
+        return inFlight;
+    }
+}
@@ -0,0 +1,81 @@
+package iia.dsl.framework.connectors;
+
+import java.time.Duration;
+
+/**
+ * Cortocircuito para un sistema externo (un endpoint HTTP).
+ *
+ * <ul>
+ * <li><b>CLOSED:</b> las llamadas pasan; tras {@code failureThreshold} fallos
+ * seguidos pasa a OPEN.</li>
+ * <li><b>OPEN:</b> las llamadas se rechazan sin intentarlas durante
+ * {@code openDuration}; después pasa a HALF_OPEN.</li>
+ * <li><b>HALF_OPEN:</b> se deja pasar una única llamada de prueba. Si va bien
+ * vuelve a CLOSED; si falla, otra vez a OPEN.</li>
+ * </ul>
+ */
+class CircuitBreaker {
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private long openedAt;
+    private boolean probing = false;
+
+    CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+    }
+
+    /**
+     * Indica si una llamada puede hacerse ahora. En HALF_OPEN solo la primera
+     * obtiene permiso; debe informar del resultado con {@link #onSuccess()} o
+     * {@link #onFailure()}.
+     *
+     * @return true si la llamada puede hacerse.
+     */
+    synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - openedAt < openNanos) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                probing = true;
+                return true;
+            default:
+                if (probing) {
+                    return false;
+                }
+                probing = true;
+                return true;
+        }
+    }
+
+    synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probing = false;
+    }
+
+    synchronized void onFailure() {
+        if (state == State.HALF_OPEN || ++consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+            consecutiveFailures = 0;
+            probing = false;
+        }
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+}
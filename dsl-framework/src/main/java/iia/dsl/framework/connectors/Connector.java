@@ -1,7 +1,16 @@
 package iia.dsl.framework.connectors;
 
+import java.util.concurrent.Callable;
+
+import org.w3c.dom.Document;
+
 import iia.dsl.framework.core.ExecutableElement;
+import iia.dsl.framework.metrics.Counter;
+import iia.dsl.framework.metrics.LatencyHistogram;
+import iia.dsl.framework.metrics.MetricsRegistry;
 import iia.dsl.framework.ports.Port;
+import iia.dsl.framework.ports.RequestPort;
+import iia.dsl.framework.util.DocumentUtil;
 
 /**
  * Clase base abstracta para todos los conectores.
@@ -12,6 +21,8 @@ import iia.dsl.framework.ports.Port;
  */
 public abstract class Connector extends ExecutableElement {
     protected Port port;
+    protected ResponseCache responseCache;
+    protected SingleFlight singleFlight;
 
     /**
      * Verifica si este conector actúa como una fuente de datos (Input).
@@ -61,6 +72,149 @@ public abstract class Connector extends ExecutableElement {
         }
     }
 
+    /**
+     * Los conectores interactúan con sistemas externos y se consideran
+     * bloqueantes.
+     * 
+     * @return true.
+     */
+    @Override
+    public boolean isBlocking() {
+        return true;
+    }
+
+    /**
+     * Obtiene el puerto asociado al conector.
+     * 
+     * @return El puerto de entrada, salida o petición-respuesta.
+     */
+    public Port getPort() {
+        return port;
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "connector." + (id != null ? id : getClass().getSimpleName());
+    }
+
+    /**
+     * Ejecuta una llamada al sistema externo registrando su latencia
+     * ({@code connector.<id>.call}) y, si falla, el error
+     * ({@code connector.<id>.call.errors}).
+     * 
+     * @param <T>       Tipo del resultado.
+     * @param operation La llamada (consulta SQL, petición HTTP, lectura...).
+     * @return El resultado de la llamada.
+     * @throws Exception La excepción lanzada por la llamada.
+     */
+    protected <T> T call(Callable<T> operation) throws Exception {
+        var metrics = MetricsRegistry.getInstance();
+        LatencyHistogram latency = metrics.histogram(getMetricsName() + ".call");
+        long start = System.nanoTime();
+        try {
+            return operation.call();
+        } catch (Exception e) {
+            Counter errors = metrics.counter(getMetricsName() + ".call.errors");
+            errors.increment();
+            throw e;
+        } finally {
+            latency.recordSince(start);
+        }
+    }
+
+    /**
+     * Pone una caché de respuestas delante del conector: las solicitudes
+     * repetidas se responden sin llamar al sistema externo. La caché puede
+     * compartirse entre conectores que hablen con el mismo sistema.
+     * 
+     * @param responseCache La caché, o null para desactivarla.
+     * @throws IllegalArgumentException Si el puerto no es un RequestPort.
+     */
+    public void setResponseCache(ResponseCache responseCache) {
+        if (responseCache != null && !(port instanceof RequestPort)) {
+            throw new IllegalArgumentException("La caché de respuestas solo admite RequestPort");
+        }
+        this.responseCache = responseCache;
+    }
+
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    /**
+     * Agrupa las solicitudes idénticas simultáneas en una sola llamada al
+     * sistema externo (ver {@link SingleFlight}); cada solicitud recibe la
+     * respuesta con sus propias cabeceras. Solo tiene efecto cuando el conector
+     * procesa varias solicitudes a la vez (modo concurrente, asíncrono o con
+     * paralelismo). La clave es la de la caché de respuestas si la hay, o la
+     * forma canónica de la solicitud.
+     * 
+     * @throws IllegalArgumentException Si el puerto no es un RequestPort.
+     */
+    public void enableSingleFlight() {
+        if (!(port instanceof RequestPort)) {
+            throw new IllegalArgumentException("La agrupación de solicitudes solo admite RequestPort");
+        }
+        if (singleFlight == null) {
+            singleFlight = new SingleFlight(getMetricsName());
+        }
+    }
+
+    /**
+     * Clave con la que la caché y la agrupación de solicitudes identifican una
+     * solicitud.
+     * 
+     * @return La clave, o null si no hay caché ni agrupación (o la solicitud no
+     *         se puede cachear).
+     */
+    protected String requestKey(Document request) throws Exception {
+        if (responseCache != null) {
+            return responseCache.key(request);
+        }
+        return singleFlight != null && request != null ? ResponseCache.canonical(request) : null;
+    }
+
+    /**
+     * Resuelve una solicitud pasando por la caché de respuestas y por la
+     * agrupación de solicitudes idénticas, si están activas. Las respuestas null
+     * (sentencias sin resultado) no se cachean.
+     * 
+     * @param request   El documento de la solicitud.
+     * @param operation La llamada al sistema externo si la respuesta no está en
+     *                  la caché.
+     * @return La respuesta (una copia si viene de la caché).
+     * @throws Exception La excepción lanzada por la llamada.
+     */
+    protected Document exchange(Document request, Callable<Document> operation) throws Exception {
+        String key = requestKey(request);
+        if (key == null) {
+            return operation.call();
+        }
+        Callable<Document> load = operation;
+        if (responseCache != null) {
+            Document cached = responseCache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            load = () -> {
+                Document response = operation.call();
+                responseCache.put(key, response);
+                return response;
+            };
+        }
+        return singleFlight != null ? singleFlight.call(key, load) : load.call();
+    }
+
+    /**
+     * Compila el XSLT del puerto (si lo tiene) al preparar el flujo.
+     */
+    @Override
+    public void prepare() throws Exception {
+        if (port.getXslt().isPresent()) {
+            DocumentUtil.compileXslt(port.getXslt().get());
+        }
+    }
+
     /**
      * Ejecuta la lógica específica del conector.
      * - Si es Input: Obtiene datos externos y los inyecta en el puerto.
@@ -33,8 +33,11 @@ public class ConsoleConnector extends Connector {
     public void execute() throws Exception {
         if (port instanceof OutputPort) {
             OutputPort outputPort = (OutputPort) port;
-            System.out.println("=== Output Document ===");
-            System.out.println(DocumentUtil.documentToString(outputPort.getDocument()));
+            // Drenar todo lo pendiente: los lotes llegan con una única notificación
+            while (outputPort.getInputSlot().hasMessage()) {
+                System.out.println("=== Output Document ===");
+                System.out.println(DocumentUtil.documentToString(outputPort.getDocument()));
+            }
         }
     }
 }
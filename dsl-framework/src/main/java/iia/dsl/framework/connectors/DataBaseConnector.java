@@ -1,21 +1,38 @@
 package iia.dsl.framework.connectors;
 
-import java.sql.Connection;
-import java.sql.DriverManager;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.Optional;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathFactory;
 
 import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
 
+import iia.dsl.framework.core.Message;
+import iia.dsl.framework.core.Slot;
+import iia.dsl.framework.metrics.MetricsRegistry;
 import iia.dsl.framework.ports.InputPort;
 import iia.dsl.framework.ports.OutputPort;
 import iia.dsl.framework.ports.Port;
 import iia.dsl.framework.ports.RequestPort;
+import iia.dsl.framework.util.Storage;
+import iia.dsl.framework.util.XPathCache;
 
 /**
  * Conector JDBC para interacción con bases de datos relacionales.
@@ -32,6 +49,21 @@ import iia.dsl.framework.ports.RequestPort;
  * </pre>
  * 
  * <p>
+ * o, con parámetros (se ejecuta con una sentencia preparada cacheada por
+ * conexión; {@code type} es opcional: string, int, long, double, decimal,
+ * boolean o null):
+ * 
+ * <pre>
+ * {@code
+ * <sql>
+ *   <statement>SELECT * FROM users WHERE id = ? AND name = ?</statement>
+ *   <param type="int">1</param>
+ *   <param>Ana</param>
+ * </sql>
+ * }
+ * </pre>
+ * 
+ * <p>
  * Estructura del mensaje de salida (Response):
  * 
  * <pre>
@@ -45,16 +77,74 @@ import iia.dsl.framework.ports.RequestPort;
  * </resultset>
  * }
  * </pre>
+ * 
+ * <p>
+ * Las conexiones salen de un {@link JdbcConnectionPool}, que puede compartirse
+ * entre varios conectores. Con {@link #setParallelism(int)} el conector ejecuta
+ * varias solicitudes a la vez (cada una con su conexión del pool).
+ * 
+ * <p>
+ * Detrás de un OutputPort, {@link #enableBatch(int, Duration)} agrupa los
+ * mensajes parametrizados con la misma sentencia y los ejecuta con
+ * {@code addBatch}/{@code executeBatch} en una única transacción por lote. Un
+ * lote que falla varias veces seguidas se ejecuta mensaje a mensaje, y los que
+ * fallan solos van al slot de {@link #setDeadLetterSlot(Slot)}.
+ * 
+ * <p>
+ * Detrás de un RequestPort, {@link #enableStreaming(int, int)} publica el
+ * resultado por bloques de filas mientras se lee el ResultSet, en lugar de un
+ * único {@code <resultset>} con todas las filas. Cada bloque es a su vez un
+ * {@code <resultset>} y lleva los headers {@code NUM_FRAG},
+ * {@code FRAG_STREAM} y {@code MERGE_CHILDREN} (el último también
+ * {@code TOTAL_FRAG}, y {@code FRAG_ERROR} si la lectura falló); el esqueleto
+ * {@code <resultset/>} queda en el {@link Storage}, de modo que un
+ * {@code Aggregator} sobre {@code /resultset} puede reconstruir la respuesta
+ * completa.
+ * 
+ * <p>
+ * Con {@link #setResponseCache(ResponseCache)} las consultas repetidas se
+ * responden desde la caché (no en modo streaming).
  */
 public class DataBaseConnector extends Connector {
 
-    private final Optional<String> username;
-    private final Optional<String> password;
+    // Header con el error de los mensajes enviados al slot de rechazados
+    public static final String ERROR_HEADER = "db-error";
+    // Intentos de un lote antes de ejecutar sus mensajes uno a uno
+    private static final int BATCH_ATTEMPTS = 3;
 
-    private final Connection connection;
+    private final JdbcConnectionPool pool;
+    // El pool creado por el propio conector se cierra con close()
+    private final boolean ownsPool;
+    private int parallelism = 1;
+
+    // Modo batch (solo OutputPort): batchSize 0 = desactivado
+    private int batchSize = 0;
+    private Duration batchMaxLatency;
+    private final Object batchLock = new Object();
+    // Un único lote en ejecución a la vez, para que se confirmen en orden
+    private final Object flushLock = new Object();
+    private final List<BatchEntry> batchEntries = new ArrayList<>();
+    private String batchSql;
+    private ScheduledFuture<?> batchTimer;
+    // Fallos seguidos del lote pendiente (con flushLock)
+    private int batchFailures = 0;
+    private Slot deadLetterSlot;
+
+    private record BatchEntry(Document doc, List<Element> params) {
+    }
+
+    // Modo streaming (solo RequestPort): rowsPerMessage 0 = desactivado
+    private int fetchSize = 0;
+    private int rowsPerMessage = 0;
+
+    // Temporizador compartido para vaciar lotes incompletos
+    private static class BatchTimer {
+        static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("db-batch-timer").daemon(true).factory());
+    }
 
     /**
-     * Constructor para DataBaseConnector.
+     * Constructor para DataBaseConnector. Crea un pool propio para la URL dada.
      * 
      * @param port             El puerto asociado (usualmente RequestPort).
      * @param connectionString URL de conexión JDBC.
@@ -68,19 +158,216 @@ public class DataBaseConnector extends Connector {
             throw new IllegalArgumentException("DataBaseConnector no soporta InputPort");
         }
 
-        this.username = Optional.ofNullable(username);
-        this.password = Optional.ofNullable(password);
-
         try {
-            if (this.username.isPresent() && this.password.isPresent()) {
-                connection = DriverManager.getConnection(connectionString, this.username.get(), this.password.get());
-            } else {
-                connection = DriverManager.getConnection(connectionString);
+            this.pool = JdbcConnectionPool.builder(connectionString)
+                    .credentials(username, password)
+                    .build();
+        } catch (RuntimeException e) {
+            log().error("Error connecting to database", e);
+            throw e;
+        }
+        this.ownsPool = true;
+    }
+
+    /**
+     * Constructor para DataBaseConnector con un pool compartido.
+     * 
+     * @param port El puerto asociado (RequestPort u OutputPort).
+     * @param pool El pool de conexiones.
+     */
+    public DataBaseConnector(Port port, JdbcConnectionPool pool) {
+        super(port);
+
+        if (port instanceof InputPort) {
+            throw new IllegalArgumentException("DataBaseConnector no soporta InputPort");
+        }
+        if (pool == null) {
+            throw new IllegalArgumentException("JdbcConnectionPool no puede ser null");
+        }
+        this.pool = pool;
+        this.ownsPool = false;
+    }
+
+    public JdbcConnectionPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Número máximo de solicitudes que el conector ejecuta a la vez. Cada una usa
+     * una conexión del pool, así que el límite efectivo es también el tamaño
+     * máximo del pool.
+     * 
+     * @param parallelism Solicitudes simultáneas (por defecto 1).
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism debe ser positivo");
+        }
+        this.parallelism = parallelism;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Activa el modo batch: los mensajes {@code <sql><statement>} con la misma
+     * sentencia se acumulan y se ejecutan juntos con {@code executeBatch} y un
+     * único commit. El lote se envía al llegar a {@code batchSize} mensajes o
+     * cuando el primero lleva {@code maxLatency} esperando. Los mensajes
+     * {@code <sql>} sin parámetros se ejecutan como siempre (tras vaciar el lote
+     * pendiente).
+     * 
+     * @param batchSize  Mensajes por lote.
+     * @param maxLatency Espera máxima de un mensaje antes de enviarse.
+     * @throws IllegalArgumentException Si el puerto no es un OutputPort.
+     */
+    public void enableBatch(int batchSize, Duration maxLatency) {
+        if (!(port instanceof OutputPort)) {
+            throw new IllegalArgumentException("El modo batch de DataBaseConnector solo admite OutputPort");
+        }
+        if (batchSize < 1 || maxLatency == null || maxLatency.isNegative()) {
+            throw new IllegalArgumentException("batchSize debe ser positivo y maxLatency no negativa");
+        }
+        this.batchSize = batchSize;
+        this.batchMaxLatency = maxLatency;
+    }
+
+    /**
+     * Activa el modo streaming: las consultas se leen con el fetch size indicado y
+     * cada bloque de {@code rowsPerMessage} filas se publica como un mensaje
+     * {@code <resultset>} en cuanto se lee, así que la memoria no depende del
+     * tamaño del resultado. La consulta se ejecuta con autoCommit desactivado
+     * porque algunos drivers (PostgreSQL) solo respetan el fetch size dentro de
+     * una transacción.
+     * 
+     * <p>
+     * Una consulta sin filas produce un único bloque vacío. Las sentencias sin
+     * ResultSet no publican nada, igual que en el modo normal.
+     * 
+     * @param fetchSize      Filas que el driver trae por viaje (0 = el valor del
+     *                       driver).
+     * @param rowsPerMessage Filas por mensaje publicado (1 = un mensaje por fila).
+     * @throws IllegalArgumentException Si el puerto no es un RequestPort.
+     */
+    public void enableStreaming(int fetchSize, int rowsPerMessage) {
+        if (!(port instanceof RequestPort)) {
+            throw new IllegalArgumentException("El modo streaming de DataBaseConnector solo admite RequestPort");
+        }
+        if (fetchSize < 0 || rowsPerMessage < 1) {
+            throw new IllegalArgumentException("fetchSize no puede ser negativo y rowsPerMessage debe ser positivo");
+        }
+        this.fetchSize = fetchSize;
+        this.rowsPerMessage = rowsPerMessage;
+    }
+
+    /**
+     * Indica dónde dejar los mensajes del modo batch que no se pueden ejecutar:
+     * cuando un lote falla {@value #BATCH_ATTEMPTS} veces seguidas se ejecuta
+     * mensaje a mensaje, y los que fallan solos se envían a este slot con el
+     * error en el header {@link #ERROR_HEADER}. Sin slot solo se registran en
+     * el log y en {@code connector.<id>.rejected}.
+     * 
+     * @param deadLetterSlot El slot de rechazados, o null.
+     */
+    public void setDeadLetterSlot(Slot deadLetterSlot) {
+        this.deadLetterSlot = deadLetterSlot;
+    }
+
+    /**
+     * Ejecuta el lote pendiente (modo batch). Los mensajes solo salen del lote
+     * cuando se confirma la transacción: si falla, siguen pendientes y se
+     * reintentan al cabo de {@code maxLatency} (o en el siguiente vaciado), por
+     * delante de los que lleguen después. Al {@value #BATCH_ATTEMPTS}º fallo
+     * seguido se ejecutan uno a uno para aislar los que no se pueden ejecutar.
+     * 
+     * @throws Exception Si falla la ejecución del lote y quedan reintentos.
+     */
+    public void flush() throws Exception {
+        flush(false);
+    }
+
+    /**
+     * @param mustEmpty Si el lote falla, aislar los mensajes en lugar de
+     *                  reintentarlo: a la vuelta el lote está vacío.
+     */
+    private void flush(boolean mustEmpty) throws Exception {
+        synchronized (flushLock) {
+            String sql;
+            List<BatchEntry> entries;
+            synchronized (batchLock) {
+                if (batchTimer != null) {
+                    batchTimer.cancel(false);
+                    batchTimer = null;
+                }
+                if (batchEntries.isEmpty()) {
+                    return;
+                }
+                sql = batchSql;
+                entries = new ArrayList<>(batchEntries);
+            }
+            try {
+                call(() -> executeBatch(sql, entries.stream().map(BatchEntry::params).toList()));
+            } catch (Exception e) {
+                if (!mustEmpty && ++batchFailures < BATCH_ATTEMPTS) {
+                    synchronized (batchLock) {
+                        if (batchTimer == null) {
+                            scheduleFlush();
+                        }
+                    }
+                    throw e;
+                }
+                log().warn("Lote de " + entries.size() + " mensajes fallido; se ejecutan uno a uno: "
+                        + e.getMessage());
+                executeOneByOne(sql, entries);
+            }
+            batchFailures = 0;
+            synchronized (batchLock) {
+                // Mientras se ejecutaba solo han podido añadirse detrás
+                batchEntries.subList(0, entries.size()).clear();
+                if (batchEntries.isEmpty()) {
+                    batchSql = null;
+                }
             }
+        }
+    }
+
+    /**
+     * Ejecuta cada mensaje del lote en su propia transacción y rechaza los que
+     * fallan.
+     */
+    private void executeOneByOne(String sql, List<BatchEntry> entries) {
+        for (BatchEntry entry : entries) {
+            try {
+                call(() -> executeBatch(sql, List.of(entry.params())));
+            } catch (Exception e) {
+                reject(entry.doc(), e);
+            }
+        }
+    }
+
+    private void reject(Document doc, Exception error) {
+        MetricsRegistry.getInstance().counter(getMetricsName() + ".rejected").increment();
+        if (deadLetterSlot == null) {
+            log().error("Mensaje descartado del lote: " + error.getMessage(), error);
+            return;
+        }
+        var message = new Message(doc);
+        message.addHeader(ERROR_HEADER, String.valueOf(error.getMessage()));
+        deadLetterSlot.setMessage(message);
+    }
 
-        } catch (SQLException e) {
-            Logger.getLogger(DataBaseConnector.class.getName()).log(Level.SEVERE, "Error connecting to database", e);
-            throw new RuntimeException("Error connecting to database", e);
+    /**
+     * Vacía el lote pendiente y cierra el pool si lo creó este conector.
+     */
+    public void close() {
+        try {
+            flush(true);
+        } catch (Exception e) {
+            log().error("Error vaciando el lote pendiente: " + e.getMessage(), e);
+        }
+        if (ownsPool) {
+            pool.close();
         }
     }
 
@@ -93,86 +380,420 @@ public class DataBaseConnector extends Connector {
      * @throws Exception Si ocurre error en XPath o SQL.
      */
     protected Document sqlQuery(Document input) throws Exception {
+        return query(input, 0, DataBaseConnector::toDocument);
+    }
+
+    @FunctionalInterface
+    private interface ResultSetHandler {
+        Document handle(ResultSet resultSet) throws Exception;
+    }
+
+    /**
+     * Ejecuta la solicitud y entrega el primer ResultSet al handler.
+     * 
+     * @param fetchSize Fetch size de la consulta; si es positivo se ejecuta en una
+     *                  transacción (el pool la deshace si algo falla).
+     */
+    private Document query(Document input, int fetchSize, ResultSetHandler handler) throws Exception {
+        if (fetchSize > 0) {
+            return pool.withConnection(connection -> {
+                var jdbc = connection.connection();
+                jdbc.setAutoCommit(false);
+                var result = execute(connection, input, fetchSize, handler);
+                jdbc.commit();
+                return result;
+            });
+        }
+        return pool.withConnection(connection -> execute(connection, input, 0, handler));
+    }
+
+    private Document execute(JdbcConnectionPool.PooledConnection connection, Document input, int fetchSize,
+            ResultSetHandler handler) throws Exception {
+        var request = parameterized(input);
+        if (request != null) {
+            PreparedStatement statement = connection.prepare(request.sql());
+            bind(statement, request.params());
+            statement.setFetchSize(fetchSize);
+            if (statement.execute()) {
+                try (var resultSet = statement.getResultSet()) {
+                    return handler.handle(resultSet);
+                }
+            }
+            return null;
+        }
+
         // Saca la consulta del input con el xpath /sql
         var xpath = "/sql";
-        var xpathFactory = XPathFactory.newInstance();
-        var xpathExpr = xpathFactory.newXPath().compile(xpath);
-        var sqlQuery = (String) xpathExpr.evaluate(input, XPathConstants.STRING);
+        var sqlQuery = (String) XPathCache.evaluate(xpath, input, XPathConstants.STRING);
 
-        var statement = connection.createStatement();
+        try (Statement statement = connection.connection().createStatement()) {
+            statement.setFetchSize(fetchSize);
+            // Split and execute statements sequentially
+            String[] queries = sqlQuery.split(";");
 
-        // Split and execute statements sequentially
-        String[] queries = sqlQuery.split(";");
+            for (String query : queries) {
+                String trimmedQuery = query.trim();
+                if (trimmedQuery.isEmpty()) {
+                    continue;
+                }
+
+                boolean hasResultSet = statement.execute(trimmedQuery);
 
-        for (String query : queries) {
-            String trimmedQuery = query.trim();
-            if (trimmedQuery.isEmpty()) {
-                continue;
+                if (hasResultSet) {
+                    // Found a ResultSet
+                    try (var resultSet = statement.getResultSet()) {
+                        return handler.handle(resultSet);
+                    }
+                }
             }
+            return null;
+        }
+    }
 
-            boolean hasResultSet = statement.execute(trimmedQuery);
+    /**
+     * Publica el ResultSet por bloques de {@code rowsPerMessage} filas con la
+     * cabecera de la solicitud. Se retiene un bloque para poder marcar el último
+     * con TOTAL_FRAG, y el esqueleto se guarda en el Storage antes de publicarlo
+     * para que el Aggregator lo encuentre al completar el grupo.
+     * 
+     * <p>
+     * Si la lectura falla a mitad, el bloque retenido se publica igualmente
+     * como último (TOTAL_FRAG y {@code FRAG_ERROR}) para que el grupo del
+     * Aggregator se cierre en lugar de esperar para siempre, y después se
+     * relanza el error.
+     */
+    private void streamRows(RequestPort requestPort, Message request, ResultSet resultSet) throws Exception {
+        var columns = columnNames(resultSet);
+        var docBuilder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
 
-            if (hasResultSet) {
-                // Found a ResultSet
-                var resultSet = statement.getResultSet();
-                var resultSetMetaData = resultSet.getMetaData();
-                var columnCount = resultSetMetaData.getColumnCount();
+        Message pending = null;
+        int count = 0;
+        try {
+            boolean more = resultSet.next();
+            do {
+                var chunk = docBuilder.newDocument();
+                var rootElement = chunk.createElement("resultset");
+                chunk.appendChild(rootElement);
+                for (int rows = 0; more && rows < rowsPerMessage; rows++) {
+                    appendRow(rootElement, resultSet, columns);
+                    more = resultSet.next();
+                }
 
-                // Crear el documento XML
-                var docBuilder = javax.xml.parsers.DocumentBuilderFactory.newInstance().newDocumentBuilder();
-                var resultDoc = docBuilder.newDocument();
-                var rootElement = resultDoc.createElement("resultset");
-                resultDoc.appendChild(rootElement);
+                if (pending != null) {
+                    requestPort.sendResponse(pending);
+                }
+                // Todos los bloques comparten el id del primero (clave del Storage)
+                pending = pending == null ? new Message(chunk, request.getHeaders())
+                        : new Message(pending.getId(), chunk, request.getHeaders());
+                pending.removeHeader(Message.TOTAL_FRAG);
+                pending.addHeader(Message.NUM_FRAG, "" + count++);
+                pending.addHeader(Message.FRAG_STREAM, "true");
+                pending.addHeader(Message.MERGE_CHILDREN, "true");
+            } while (more);
+        } catch (Exception e) {
+            if (pending != null) {
+                // Sin bloques publicados no hay grupo que cerrar
+                pending.addHeader(Message.FRAG_ERROR, String.valueOf(e.getMessage()));
+                try {
+                    finishStream(requestPort, pending, count, docBuilder.newDocument());
+                } catch (Exception terminal) {
+                    e.addSuppressed(terminal);
+                }
+            }
+            throw e;
+        }
+
+        finishStream(requestPort, pending, count, docBuilder.newDocument());
+    }
 
-                // Iterar sobre las filas del resultado
-                while (resultSet.next()) {
-                    var rowElement = resultDoc.createElement("row");
-                    rootElement.appendChild(rowElement);
+    private void finishStream(RequestPort requestPort, Message last, int count, Document skeleton)
+            throws Exception {
+        skeleton.appendChild(skeleton.createElement("resultset"));
+        Storage.getInstance().storeDocument(last.getId(), skeleton);
 
-                    // Iterar sobre las columnas
-                    for (int i = 1; i <= columnCount; i++) {
-                        var columnName = resultSetMetaData.getColumnName(i);
-                        var columnValue = resultSet.getString(i);
+        last.addHeader(Message.TOTAL_FRAG, "" + count);
+        requestPort.sendResponse(last);
+    }
 
-                        var columnElement = resultDoc.createElement(columnName);
-                        if (columnValue != null) {
-                            columnElement.setTextContent(columnValue);
-                        }
-                        rowElement.appendChild(columnElement);
+    /**
+     * Sentencia con parámetros extraída de {@code <sql><statement>}.
+     */
+    record ParameterizedSql(String sql, List<Element> params) {
+    }
+
+    /**
+     * Lee una solicitud {@code <sql><statement>...</statement><param>...} recorriendo
+     * el DOM directamente: el formato es fijo y evaluar XPath por mensaje cuesta
+     * más que la propia sentencia en los lotes.
+     * 
+     * @return La sentencia y sus parámetros, o null si el documento es un
+     *         {@code <sql>} de texto.
+     */
+    static ParameterizedSql parameterized(Document doc) {
+        var root = doc.getDocumentElement();
+        if (root == null || !"sql".equals(root.getNodeName())) {
+            return null;
+        }
+        String sql = null;
+        List<Element> params = new ArrayList<>();
+        for (Node child = root.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element element) {
+                switch (element.getNodeName()) {
+                    case "statement" -> sql = element.getTextContent().trim();
+                    case "param" -> params.add(element);
+                    default -> {
                     }
                 }
+            }
+        }
+        return sql != null ? new ParameterizedSql(sql, params) : null;
+    }
+
+    /**
+     * Asigna los parámetros {@code <param>} a la sentencia, en orden.
+     */
+    static void bind(PreparedStatement statement, List<Element> params) throws SQLException {
+        int index = 1;
+        for (Element param : params) {
+            String type = param.getAttribute("type");
+            String value = param.getTextContent();
+            switch (type.isEmpty() ? "string" : type.toLowerCase()) {
+                case "string" -> statement.setString(index, value);
+                case "int" -> statement.setInt(index, Integer.parseInt(value.trim()));
+                case "long" -> statement.setLong(index, Long.parseLong(value.trim()));
+                case "double" -> statement.setDouble(index, Double.parseDouble(value.trim()));
+                case "decimal" -> statement.setBigDecimal(index, new BigDecimal(value.trim()));
+                case "boolean" -> statement.setBoolean(index, Boolean.parseBoolean(value.trim()));
+                case "null" -> statement.setNull(index, Types.NULL);
+                default -> throw new SQLException("Tipo de parámetro no soportado: " + type);
+            }
+            index++;
+        }
+    }
+
+    /**
+     * Convierte un ResultSet en un documento {@code <resultset><row>...}.
+     */
+    static Document toDocument(ResultSet resultSet) throws SQLException, ParserConfigurationException {
+        var columns = columnNames(resultSet);
+
+        // Crear el documento XML
+        var docBuilder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+        var resultDoc = docBuilder.newDocument();
+        var rootElement = resultDoc.createElement("resultset");
+        resultDoc.appendChild(rootElement);
+
+        // Iterar sobre las filas del resultado
+        while (resultSet.next()) {
+            appendRow(rootElement, resultSet, columns);
+        }
+        return resultDoc;
+    }
+
+    private static String[] columnNames(ResultSet resultSet) throws SQLException {
+        var resultSetMetaData = resultSet.getMetaData();
+        var columns = new String[resultSetMetaData.getColumnCount()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = resultSetMetaData.getColumnName(i + 1);
+        }
+        return columns;
+    }
+
+    /**
+     * Añade la fila actual del ResultSet como {@code <row>} bajo el elemento dado.
+     */
+    private static void appendRow(Element rootElement, ResultSet resultSet, String[] columns) throws SQLException {
+        var resultDoc = rootElement.getOwnerDocument();
+        var rowElement = resultDoc.createElement("row");
+        rootElement.appendChild(rowElement);
+
+        // Iterar sobre las columnas
+        for (int i = 0; i < columns.length; i++) {
+            var columnValue = resultSet.getString(i + 1);
+
+            var columnElement = resultDoc.createElement(columns[i]);
+            if (columnValue != null) {
+                columnElement.setTextContent(columnValue);
+            }
+            rowElement.appendChild(columnElement);
+        }
+    }
+
+    /**
+     * Añade un mensaje al lote pendiente y lo envía si está lleno.
+     */
+    private void addToBatch(Document doc) throws Exception {
+        var request = parameterized(doc);
+        if (request == null) {
+            // Sin parámetros no se puede agrupar: respetar el orden y ejecutar aparte
+            flush(true);
+            call(() -> sqlQuery(doc));
+            return;
+        }
+        var sql = request.sql();
+        var params = request.params();
 
-                resultSet.close();
-                return resultDoc;
+        boolean added = false;
+        boolean full;
+        synchronized (batchLock) {
+            if (batchSql == null || batchSql.equals(sql)) {
+                batchSql = sql;
+                batchEntries.add(new BatchEntry(doc, params));
+                added = true;
+                full = batchEntries.size() >= batchSize;
+                if (!full && batchTimer == null) {
+                    scheduleFlush();
+                }
+            } else {
+                // Otra sentencia: enviar primero lo acumulado
+                full = true;
+            }
+        }
+        if (added) {
+            if (full) {
+                flush();
             }
+        } else {
+            // El lote anterior debe quedar vacío, aunque falle, para no perder este
+            flush(true);
+            addToBatch(doc);
         }
+    }
+
+    // Llamar con batchLock
+    private void scheduleFlush() {
+        batchTimer = BatchTimer.INSTANCE.schedule(this::flushOnTimer,
+                batchMaxLatency.toNanos(), TimeUnit.NANOSECONDS);
+    }
 
-        return null;
+    private void flushOnTimer() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log().error("Error ejecutando lote: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Ejecuta un lote de parámetros sobre una sentencia en una única transacción.
+     */
+    private Void executeBatch(String sql, List<List<Element>> params) throws Exception {
+        return pool.withConnection(connection -> {
+            var jdbc = connection.connection();
+            jdbc.setAutoCommit(false);
+            try {
+                PreparedStatement statement = connection.prepare(sql);
+                for (List<Element> values : params) {
+                    bind(statement, values);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                jdbc.commit();
+            } catch (SQLException e) {
+                jdbc.rollback();
+                throw e;
+            } finally {
+                jdbc.setAutoCommit(true);
+            }
+            log().debug(() -> "Lote de " + params.size() + " sentencias ejecutado");
+            return null;
+        });
     }
 
     @Override
     public void execute() throws Exception {
-        if (port instanceof OutputPort) {
+        // Drenar todo lo pendiente: los lotes llegan con una única notificación
+        if (port instanceof OutputPort && batchSize > 0) {
             OutputPort outputPort = (OutputPort) port;
-            Document doc = outputPort.getDocument();
-
-            if (doc == null) {
-                // If concurrent execution, just wait for the event.
-                return;
+            while (outputPort.getInputSlot().hasMessage()) {
+                Document doc = outputPort.getDocument();
+                if (doc != null) {
+                    addToBatch(doc);
+                }
             }
-
-            sqlQuery(doc);
+        } else if (port instanceof OutputPort) {
+            OutputPort outputPort = (OutputPort) port;
+            Source<Document> documents = () -> {
+                while (outputPort.getInputSlot().hasMessage()) {
+                    Document doc = outputPort.getDocument();
+                    if (doc != null) {
+                        return doc;
+                    }
+                }
+                return null;
+            };
+            runParallel(documents, doc -> call(() -> sqlQuery(doc)));
         } else if (port instanceof RequestPort) {
             RequestPort requestPort = (RequestPort) port;
-            Document request = requestPort.getRequestDocument();
+            runParallel(requestPort::takeRequest, request -> respond(requestPort, request));
+        }
+    }
 
-            if (request == null) {
-                // If concurrent execution, just wait for the event.
-                return;
-            }
+    private void respond(RequestPort requestPort, Message request) throws Exception {
+        if (rowsPerMessage > 0) {
+            call(() -> query(request.getDocument(), fetchSize, resultSet -> {
+                streamRows(requestPort, request, resultSet);
+                return null;
+            }));
+        } else {
+            var doc = request.getDocument();
+            requestPort.handleResponse(request, exchange(doc, () -> call(() -> sqlQuery(doc))));
+        }
+    }
 
-            Document response = sqlQuery(request);
-            requestPort.handleResponse(response);
+    @FunctionalInterface
+    private interface Source<T> {
+        /**
+         * @return El siguiente elemento o null si no quedan.
+         */
+        T next() throws Exception;
+    }
+
+    @FunctionalInterface
+    private interface Work<T> {
+        void run(T item) throws Exception;
+    }
+
+    /**
+     * Ejecuta los elementos a medida que se sacan de {@code source}, como mucho
+     * {@code parallelism} a la vez en hilos virtuales: cada uno empieza en
+     * cuanto termina cualquiera de los anteriores, y el siguiente no se saca
+     * del slot hasta que hay hueco. Con {@code parallelism == 1} se ejecutan en
+     * el hilo actual. Si alguno falla, se relanza la primera excepción tras
+     * esperar al resto.
+     */
+    private <T> void runParallel(Source<T> source, Work<T> work) throws Exception {
+        if (parallelism == 1) {
+            for (T item = source.next(); item != null; item = source.next()) {
+                work.run(item);
+            }
+            return;
+        }
+        var permits = new Semaphore(parallelism);
+        var failure = new AtomicReference<Exception>();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (true) {
+                permits.acquire();
+                T item = source.next();
+                if (item == null) {
+                    permits.release();
+                    break;
+                }
+                executor.submit(() -> {
+                    try {
+                        work.run(item);
+                    } catch (Exception e) {
+                        if (!failure.compareAndSet(null, e)) {
+                            log().error("Error en solicitud a la base de datos: " + e.getMessage(), e);
+                        }
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+        if (failure.get() != null) {
+            throw failure.get();
         }
     }
 }
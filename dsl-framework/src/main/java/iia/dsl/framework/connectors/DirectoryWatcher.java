@@ -0,0 +1,235 @@
+package iia.dsl.framework.connectors;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchService;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import iia.dsl.framework.core.Slot;
+import iia.dsl.framework.logging.Log;
+import iia.dsl.framework.metrics.Counter;
+import iia.dsl.framework.metrics.MetricsRegistry;
+import iia.dsl.framework.ports.InputPort;
+
+/**
+ * Ingesta continua de un directorio para el modo watch de
+ * {@link FileConnector}.
+ *
+ * <p>
+ * Un hilo vigila el directorio con un {@link WatchService} y reparte los
+ * ficheros {@code .xml} que aparecen entre un pool acotado de hilos que los
+ * parsean en paralelo. Cada fichero procesado se mueve a {@code done/} (o a
+ * {@code error/} si falla), así que el directorio actúa como bandeja de
+ * entrada. Si el Slot de salida supera la profundidad máxima, el hilo vigilante
+ * deja de repartir hasta que baje.
+ *
+ * <p>
+ * Los productores deberían escribir los ficheros con otro nombre y renombrarlos
+ * (movimiento atómico) al terminar; un fichero leído a medio escribir acaba en
+ * {@code error/}.
+ */
+class DirectoryWatcher {
+    private static final long BACKPRESSURE_PAUSE_MILLIS = 10;
+
+    private final FileConnector connector;
+    private final InputPort port;
+    private final Path directory;
+    private final Path doneDir;
+    private final Path errorDir;
+    private final int maxSlotDepth;
+    private final ExecutorService pool;
+    private final Semaphore inFlightPermits;
+    private final Set<Path> inFlight = ConcurrentHashMap.newKeySet();
+    private final ThreadLocal<DocumentBuilder> builders;
+    private final Counter done;
+    private final Counter failed;
+    private final Log log;
+
+    private volatile boolean running = false;
+    private WatchService watchService;
+    private Thread watcher;
+
+    DirectoryWatcher(FileConnector connector, InputPort port, Path directory, int parallelism, int maxSlotDepth) {
+        this.connector = connector;
+        this.port = port;
+        this.directory = directory;
+        this.doneDir = directory.resolve(FileConnector.DONE_DIR);
+        this.errorDir = directory.resolve(FileConnector.ERROR_DIR);
+        this.maxSlotDepth = maxSlotDepth;
+
+        String name = connector.getMetricsName();
+        this.pool = Executors.newFixedThreadPool(parallelism,
+                Thread.ofPlatform().name(name + "-parser-", 0).daemon(true).factory());
+        // Como mucho un fichero en cola por hilo además de los que se están parseando
+        this.inFlightPermits = new Semaphore(parallelism * 2);
+        this.builders = ThreadLocal.withInitial(() -> {
+            try {
+                return DocumentBuilderFactory.newInstance().newDocumentBuilder();
+            } catch (ParserConfigurationException e) {
+                throw new RuntimeException("Error creando el DocumentBuilder", e);
+            }
+        });
+        this.done = MetricsRegistry.getInstance().counter(name + ".files.done");
+        this.failed = MetricsRegistry.getInstance().counter(name + ".files.error");
+        this.log = Log.get(name);
+    }
+
+    synchronized void start() throws IOException {
+        if (running) {
+            return;
+        }
+        Files.createDirectories(doneDir);
+        Files.createDirectories(errorDir);
+
+        watchService = directory.getFileSystem().newWatchService();
+        // Registrar antes de escanear: un fichero que llegue entre medias se ve dos
+        // veces pero inFlight evita procesarlo dos veces.
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        running = true;
+
+        watcher = Thread.ofPlatform().name(connector.getMetricsName() + "-watcher").daemon(true)
+                .unstarted(this::watchLoop);
+        watcher.start();
+        log.info("Vigilando el directorio " + directory);
+    }
+
+    synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            log.warn("Error cerrando el WatchService", e);
+        }
+        watcher.interrupt();
+        pool.shutdown();
+        try {
+            if (!pool.awaitTermination(5, TimeUnit.SECONDS)) {
+                pool.shutdownNow();
+            }
+            watcher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    private void watchLoop() {
+        try {
+            scan();
+            while (running) {
+                var key = watchService.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        // Se han perdido eventos: volver a listar el directorio
+                        scan();
+                    } else if (event.context() instanceof Path name) {
+                        offer(directory.resolve(name));
+                    }
+                }
+                if (!key.reset()) {
+                    log.error("El directorio vigilado ya no es accesible: " + directory);
+                    running = false;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // stop()
+        } catch (IOException e) {
+            log.error("Error vigilando el directorio " + directory, e);
+        }
+    }
+
+    private void scan() throws IOException, InterruptedException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.{xml,XML}")) {
+            for (Path file : files) {
+                offer(file);
+            }
+        }
+    }
+
+    /**
+     * Reparte un fichero al pool, esperando si el Slot de salida está demasiado
+     * lleno o si ya hay demasiados ficheros pendientes.
+     */
+    private void offer(Path file) throws InterruptedException {
+        if (!file.getFileName().toString().toLowerCase().endsWith(".xml") || !Files.isRegularFile(file)) {
+            return;
+        }
+        if (!inFlight.add(file)) {
+            return;
+        }
+
+        Slot out = port.getOutputSlot();
+        while (running && out.getMessageCount() >= maxSlotDepth) {
+            Thread.sleep(BACKPRESSURE_PAUSE_MILLIS);
+        }
+        inFlightPermits.acquire();
+        if (!running) {
+            inFlightPermits.release();
+            inFlight.remove(file);
+            return;
+        }
+
+        pool.execute(() -> {
+            try {
+                process(file);
+            } finally {
+                inFlight.remove(file);
+                inFlightPermits.release();
+            }
+        });
+    }
+
+    private void process(Path file) {
+        if (!Files.exists(file)) {
+            // Ya procesado (evento MODIFY de un fichero movido)
+            return;
+        }
+        try {
+            if (connector.isStreaming()) {
+                // La referencia debe apuntar a la ubicación definitiva del fichero
+                Path moved = move(file, doneDir);
+                connector.ingest(port, moved.toFile(), builders.get());
+            } else {
+                connector.ingest(port, file.toFile(), builders.get());
+                move(file, doneDir);
+            }
+            done.increment();
+        } catch (Exception e) {
+            failed.increment();
+            log.warn("Error procesando " + file + ": " + e.getMessage(), e);
+            try {
+                if (Files.exists(file)) {
+                    move(file, errorDir);
+                }
+            } catch (IOException moveError) {
+                log.error("No se pudo mover " + file + " a " + errorDir, moveError);
+            }
+        }
+    }
+
+    private Path move(Path file, Path targetDir) throws IOException {
+        return Files.move(file, targetDir.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -2,6 +2,9 @@ package iia.dsl.framework.connectors;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -19,7 +22,9 @@ import iia.dsl.framework.ports.InputPort;
 import iia.dsl.framework.ports.OutputPort;
 import iia.dsl.framework.ports.Port;
 import iia.dsl.framework.ports.RequestPort;
+import iia.dsl.framework.core.Message;
 import iia.dsl.framework.core.Slot;
+import iia.dsl.framework.util.DocumentUtil;
 
 /**
  * Conector para lectura y escritura en el sistema de archivos local.
@@ -27,15 +32,43 @@ import iia.dsl.framework.core.Slot;
  * 
  * <ul>
  * <li><b>InputPort:</b> Lee un archivo XML (o todos los .xml de un directorio)
- * y genera mensajes.</li>
+ * y genera mensajes. En modo streaming no parsea los ficheros: genera un
+ * mensaje de referencia con el header {@link Message#SOURCE_PATH} para que un
+ * {@link iia.dsl.framework.tasks.transformers.StreamingSplitter} los lea con
+ * StAX. En modo watch ({@link #enableWatch(int, int)}) el directorio se vigila
+ * de forma continua. Con {@link #enableRawPayload()} los ficheros se publican
+ * como bytes (tras comprobar que son XML bien formado) y solo se construye el
+ * DOM si alguna tarea lo necesita.</li>
  * <li><b>OutputPort:</b> Escribe el contenido XML recibido en un archivo
- * destino.</li>
+ * destino. Con un {@link RollingFileSink} la escritura es diferida: los
+ * documentos se añaden a ficheros rotativos (o a un fichero por mensaje) desde
+ * un hilo escritor, sin bloquear a las tareas. Los mensajes que conservan su
+ * XML original ({@link Message#getRawBytes()}) se escriben sin serializar.</li>
  * </ul>
  */
 public class FileConnector extends Connector {
+    /**
+     * Subdirectorio (dentro del vigilado) al que se mueven los ficheros
+     * procesados en modo watch.
+     */
+    public static final String DONE_DIR = "done";
+    /**
+     * Subdirectorio al que se mueven los ficheros que no se pudieron procesar.
+     */
+    public static final String ERROR_DIR = "error";
 
     private final String filePath;
     private final File file;
+    private final boolean streaming;
+    // Publicar el contenido de los ficheros sin parsear
+    private boolean rawPayload = false;
+    // Modo watch (parallelism 0 = lectura única)
+    private int watchParallelism = 0;
+    private int watchMaxSlotDepth = Integer.MAX_VALUE;
+    private DirectoryWatcher watcher;
+    // Escritura diferida (null = sobrescribir filePath en cada mensaje)
+    private final RollingFileSink sink;
+    private Transformer transformer;
 
     @Override
     public void onMessageAvailable(Slot slot) {
@@ -49,14 +82,141 @@ public class FileConnector extends Connector {
      * @param filePath Ruta absoluta o relativa al archivo o directorio.
      */
     public FileConnector(Port port, String filePath) {
+        this(port, filePath, false);
+    }
+
+    /**
+     * Constructor para FileConnector con modo streaming opcional.
+     * 
+     * @param port      El puerto asociado (InputPort o OutputPort).
+     * @param filePath  Ruta absoluta o relativa al archivo o directorio.
+     * @param streaming Si es true (solo InputPort), no se parsean los ficheros y
+     *                  se publica una referencia a cada uno.
+     */
+    public FileConnector(Port port, String filePath, boolean streaming) {
         super(port);
 
         if (port instanceof RequestPort) {
             throw new IllegalArgumentException("FileConnector no soporta RequestPort");
         }
+        if (streaming && !(port instanceof InputPort)) {
+            throw new IllegalArgumentException("El modo streaming de FileConnector solo admite InputPort");
+        }
 
         this.filePath = filePath;
         this.file = new File(filePath);
+        this.streaming = streaming;
+        this.sink = null;
+    }
+
+    /**
+     * Constructor para un FileConnector de salida con escritura diferida.
+     * 
+     * @param port El puerto de salida.
+     * @param sink El sink que escribe los documentos en disco.
+     */
+    public FileConnector(OutputPort port, RollingFileSink sink) {
+        super(port);
+
+        if (sink == null) {
+            throw new IllegalArgumentException("RollingFileSink no puede ser null");
+        }
+        this.sink = sink;
+        this.filePath = sink.getDirectory().toString();
+        this.file = sink.getDirectory().toFile();
+        this.streaming = false;
+    }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * Publica cada fichero como bytes ({@link Message#ofBytes(byte[], java.util.Map)})
+     * en lugar de parsearlo. Los mensajes que solo atraviesan tareas de
+     * cabeceras hasta un FileConnector de salida no llegan a construir el DOM.
+     * Cada fichero se valida con una pasada SAX (sin DOM) antes de publicarlo:
+     * uno mal formado falla al leerlo, como sin el modo raw, y en modo watch se
+     * mueve a {@value #ERROR_DIR}/.
+     * 
+     * @throws IllegalArgumentException Si el puerto no es un InputPort o el
+     *                                  conector está en modo streaming.
+     */
+    public void enableRawPayload() {
+        if (!(port instanceof InputPort)) {
+            throw new IllegalArgumentException("El modo raw de FileConnector solo admite InputPort");
+        }
+        if (streaming) {
+            throw new IllegalArgumentException("El modo raw no es compatible con el modo streaming");
+        }
+        this.rawPayload = true;
+    }
+
+    public boolean isRawPayload() {
+        return rawPayload;
+    }
+
+    /**
+     * Activa la ingesta continua: al ejecutarse, el conector procesa los ficheros
+     * presentes y sigue vigilando el directorio (con {@code WatchService}) hasta
+     * {@link #stopWatch()}. Los ficheros se parsean en paralelo y se mueven a
+     * {@value #DONE_DIR}/ o {@value #ERROR_DIR}/.
+     * 
+     * @param parallelism  Número de hilos que parsean ficheros.
+     * @param maxSlotDepth Profundidad del Slot de salida a partir de la cual se
+     *                     deja de leer hasta que baje (backpressure).
+     * @throws IllegalArgumentException Si el puerto no es un InputPort, la ruta
+     *                                  no es un directorio o los parámetros no
+     *                                  son positivos.
+     */
+    public void enableWatch(int parallelism, int maxSlotDepth) {
+        if (!(port instanceof InputPort)) {
+            throw new IllegalArgumentException("El modo watch de FileConnector solo admite InputPort");
+        }
+        if (!file.isDirectory()) {
+            throw new IllegalArgumentException("El modo watch necesita un directorio: " + filePath);
+        }
+        if (parallelism < 1 || maxSlotDepth < 1) {
+            throw new IllegalArgumentException("parallelism y maxSlotDepth deben ser positivos");
+        }
+        this.watchParallelism = parallelism;
+        this.watchMaxSlotDepth = maxSlotDepth;
+    }
+
+    /**
+     * Detiene la vigilancia del directorio y espera a que terminen los ficheros
+     * en curso.
+     */
+    public synchronized void stopWatch() {
+        if (watcher != null) {
+            watcher.stop();
+            watcher = null;
+        }
+    }
+
+    public synchronized boolean isWatching() {
+        return watcher != null && watcher.isRunning();
+    }
+
+    /**
+     * Espera a que el {@link RollingFileSink} (si lo hay) haya escrito todos los
+     * documentos recibidos.
+     */
+    public void flush() {
+        if (sink != null) {
+            sink.flush();
+        }
+    }
+
+    /**
+     * Detiene la vigilancia del directorio y cierra el {@link RollingFileSink}
+     * tras volcar lo pendiente.
+     */
+    public void close() {
+        stopWatch();
+        if (sink != null) {
+            sink.close();
+        }
     }
 
     /**
@@ -69,6 +229,10 @@ public class FileConnector extends Connector {
     @Override
     public void execute() throws Exception {
         if (port instanceof InputPort inputPort) {
+            if (watchParallelism > 0) {
+                startWatch(inputPort);
+                return;
+            }
             try {
                 if (file.isDirectory()) {
                     File[] xmlFiles = file.listFiles((dir, name) -> name.toLowerCase().endsWith(".xml"));
@@ -76,43 +240,115 @@ public class FileConnector extends Connector {
                         DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
                         DocumentBuilder dBuilder = dbFactory.newDocumentBuilder();
                         for (File xmlFile : xmlFiles) {
-                            Document doc = dBuilder.parse(xmlFile);
-                            doc.getDocumentElement().normalize();
-                            inputPort.handleDocument(doc);
+                            ingest(inputPort, xmlFile, dBuilder);
                         }
                     }
                 } else {
                     DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
                     DocumentBuilder dBuilder = dbFactory.newDocumentBuilder();
-                    Document doc = dBuilder.parse(file);
-                    doc.getDocumentElement().normalize();
-                    inputPort.handleDocument(doc);
+                    ingest(inputPort, file, dBuilder);
                 }
             } catch (ParserConfigurationException | SAXException | IOException e) {
                 throw new RuntimeException("Error reading file(s) from: " + filePath, e);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException("Error reading file(s) from: " + filePath, e);
             }
         } else if (port instanceof OutputPort outputPort) {
-            try {
-                Document doc = outputPort.getDocument();
-                if (doc == null)
-                    return;
-
-                System.err.println("DEBUG: FileConnector ready to write.");
-                System.err.println("DEBUG: Doc child nodes: " + doc.getChildNodes().getLength());
-                if (doc.getDocumentElement() != null) {
-                    System.err.println("DEBUG: Root Name: " + doc.getDocumentElement().getNodeName());
-                } else {
-                    System.err.println("DEBUG: Root is NULL!");
+            if (sink != null) {
+                sink.start(getMetricsName());
+                while (outputPort.getInputSlot().hasMessage()) {
+                    var message = outputPort.getMessage();
+                    if (message != null) {
+                        sink.write(message);
+                    }
                 }
+                return;
+            }
+            try {
+                // Drenar todo lo pendiente: los lotes llegan con una única notificación
+                while (outputPort.getInputSlot().hasMessage()) {
+                    var message = outputPort.getMessage();
+                    if (message == null)
+                        continue;
 
-                TransformerFactory transformerFactory = TransformerFactory.newInstance();
-                Transformer transformer = transformerFactory.newTransformer();
-                DOMSource source = new DOMSource(doc);
-                StreamResult result = new StreamResult(file);
-                transformer.transform(source, result);
+                    // XML sin modificar desde que se leyó: se escribe tal cual
+                    byte[] raw = message.getRawBytes();
+                    if (raw != null) {
+                        log().debug(() -> "Writing " + raw.length + " raw bytes to " + filePath);
+                        call(() -> Files.write(file.toPath(), raw));
+                        continue;
+                    }
+
+                    Document doc = message.getDocument();
+                    log().debug(() -> "Writing document with root "
+                            + (doc.getDocumentElement() != null ? doc.getDocumentElement().getNodeName() : "NULL")
+                            + " to " + filePath);
+
+                    if (transformer == null) {
+                        transformer = TransformerFactory.newInstance().newTransformer();
+                    }
+                    DOMSource source = new DOMSource(doc);
+                    StreamResult result = new StreamResult(file);
+                    call(() -> {
+                        transformer.transform(source, result);
+                        return null;
+                    });
+                }
             } catch (TransformerException e) {
                 throw new RuntimeException("Error writing to file: " + filePath, e);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException("Error writing to file: " + filePath, e);
             }
         }
     }
+
+    private synchronized void startWatch(InputPort inputPort) throws IOException {
+        if (watcher == null) {
+            watcher = new DirectoryWatcher(this, inputPort, Path.of(filePath), watchParallelism, watchMaxSlotDepth);
+        }
+        watcher.start();
+    }
+
+    /**
+     * Lee un fichero y publica su documento (o, en modo streaming, una referencia
+     * al fichero) en el puerto.
+     * 
+     * @param inputPort El puerto de entrada.
+     * @param source    El fichero XML.
+     * @param dBuilder  Builder a usar (no es thread-safe: uno por hilo).
+     * @throws Exception Si falla la lectura o el parseo.
+     */
+    void ingest(InputPort inputPort, File source, DocumentBuilder dBuilder) throws Exception {
+        if (streaming) {
+            publishReference(inputPort, source, dBuilder);
+            return;
+        }
+        if (rawPayload) {
+            byte[] xml = call(() -> Files.readAllBytes(source.toPath()));
+            DocumentUtil.checkWellFormed(xml);
+            inputPort.handleBytes(xml);
+            return;
+        }
+        Document doc = call(() -> dBuilder.parse(source));
+        doc.getDocumentElement().normalize();
+        inputPort.handleDocument(doc);
+    }
+
+    /**
+     * Publica un mensaje que solo referencia al fichero:
+     * {@code <stream-source path="..."/>} con el header
+     * {@link Message#SOURCE_PATH}.
+     */
+    private void publishReference(InputPort inputPort, File source, DocumentBuilder dBuilder) {
+        String path = source.getAbsolutePath();
+        Document ref = dBuilder.newDocument();
+        var root = ref.createElement("stream-source");
+        root.setAttribute("path", path);
+        ref.appendChild(root);
+        inputPort.handleDocument(ref, Map.of(Message.SOURCE_PATH, path));
+    }
 }
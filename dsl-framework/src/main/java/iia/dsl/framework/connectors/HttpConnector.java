@@ -4,20 +4,31 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathFactory;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
+import iia.dsl.framework.core.ExecutionEnvironment;
+import iia.dsl.framework.core.Message;
+import iia.dsl.framework.metrics.MetricsRegistry;
 import iia.dsl.framework.ports.InputPort;
 import iia.dsl.framework.ports.OutputPort;
 import iia.dsl.framework.ports.Port;
 import iia.dsl.framework.ports.RequestPort;
 import iia.dsl.framework.util.Method;
+import iia.dsl.framework.util.XPathCache;
 
 /**
  * Connector que implementa la funcionalidad de un cliente HTTP.
@@ -33,11 +44,95 @@ import iia.dsl.framework.util.Method;
  * <element>value</element>
  * </body>
  * </http-request>
+ * 
+ * <p>
+ * Por defecto cada petición bloquea al conector hasta recibir la respuesta.
+ * Con {@link #enableAsync(int)} las peticiones se envían con
+ * {@code sendAsync} y el conector sigue drenando el Slot mientras haya hueco
+ * (como mucho {@code maxInFlight} en curso); cada respuesta se publica con las
+ * cabeceras de su solicitud. Los reintentos esperan con backoff exponencial en
+ * un temporizador, sin ocupar hilos. Las peticiones en curso cuentan como
+ * trabajo del {@link ExecutionEnvironment}, de modo que
+ * {@code waitForQuiescence} las espera.
+ * 
+ * <p>
+ * Con {@link #setResponseCache(ResponseCache)} las peticiones repetidas se
+ * responden desde la caché; las respuestas de error no se cachean. Con
+ * {@link #enableSingleFlight()} las peticiones idénticas en curso a la vez se
+ * resuelven con una sola llamada.
+ * 
+ * <p>
+ * Protección frente a servicios caídos o lentos:
+ * <ul>
+ * <li>{@link #setCircuitBreaker(int, Duration)}: un cortocircuito por endpoint
+ * (esquema, host y puerto). Abierto, las peticiones a ese endpoint reciben el
+ * documento de error al instante, sin intentos ni esperas.</li>
+ * <li>{@link #enableAdaptiveLimit(int, int, Duration)}: modo asíncrono con un
+ * límite de peticiones en curso que sube mientras la latencia está por debajo
+ * del objetivo y se reduce a la mitad ante respuestas lentas o fallidas
+ * (AIMD).</li>
+ * </ul>
  */
 public class HttpConnector extends Connector {
 
     private final HttpClient httpClient;
 
+    private int maxRetries = 3;
+    private Duration retryBackoff = Duration.ofSeconds(1);
+
+    // Modo asíncrono: null = peticiones bloqueantes
+    private AdaptiveLimiter limiter;
+
+    // Cortocircuitos por endpoint: failureThreshold 0 = desactivados
+    private int failureThreshold = 0;
+    private Duration openDuration;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    // Temporizador compartido para los reintentos asíncronos
+    private static class RetryTimer {
+        static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("http-retry-timer").daemon(true).factory());
+    }
+
+    /**
+     * Error HTTP con código de estado; solo los 5xx se reintentan.
+     */
+    private static class HttpStatusException extends RuntimeException {
+        private final int status;
+
+        HttpStatusException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /**
+     * El cortocircuito del endpoint está abierto.
+     */
+    private static class CircuitOpenException extends RuntimeException {
+        CircuitOpenException(String endpoint) {
+            super("Circuito abierto para " + endpoint);
+        }
+    }
+
+    /**
+     * Se han agotado los intentos de una petición.
+     */
+    private static class RetriesExhaustedException extends Exception {
+        private final String url;
+
+        RetriesExhaustedException(String url, Throwable cause) {
+            super(cause.getMessage(), cause);
+            this.url = url;
+        }
+    }
+
+    /**
+     * Petición ya construida a partir del documento de entrada.
+     */
+    private record PreparedRequest(HttpRequest request, Method method, String url, String endpoint) {
+    }
+
     public HttpConnector(Port port) {
         super(port);
         this.httpClient = HttpClient.newBuilder()
@@ -49,63 +144,397 @@ public class HttpConnector extends Connector {
         }
     }
 
+    /**
+     * Configura los reintentos ante errores de red o respuestas 5xx. La espera
+     * se duplica en cada intento.
+     * 
+     * @param maxRetries     Intentos totales por petición (por defecto 3).
+     * @param initialBackoff Espera antes del segundo intento (por defecto 1s).
+     */
+    public void setRetry(int maxRetries, Duration initialBackoff) {
+        if (maxRetries < 1 || initialBackoff == null || initialBackoff.isNegative()) {
+            throw new IllegalArgumentException("maxRetries debe ser positivo y initialBackoff no negativo");
+        }
+        this.maxRetries = maxRetries;
+        this.retryBackoff = initialBackoff;
+    }
+
+    /**
+     * Activa el modo asíncrono con un máximo de peticiones en curso. Al
+     * alcanzarlo, el conector espera a que termine alguna antes de enviar la
+     * siguiente. Publica el gauge {@code connector.<id>.inflight}.
+     * 
+     * @param maxInFlight Peticiones simultáneas.
+     */
+    public void enableAsync(int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight debe ser positivo");
+        }
+        useLimiter(AdaptiveLimiter.fixed(maxInFlight));
+    }
+
+    /**
+     * Activa el modo asíncrono con un límite de peticiones en curso adaptativo.
+     * Empieza en {@code minInFlight}, crece mientras las respuestas llegan en
+     * menos de {@code latencyTarget} y se reduce a la mitad cuando una tarda más
+     * o falla, de modo que un servicio que se degrada recibe menos carga.
+     * Publica además el gauge {@code connector.<id>.limit}.
+     * 
+     * @param minInFlight   Límite mínimo (y inicial).
+     * @param maxInFlight   Límite máximo.
+     * @param latencyTarget Latencia por encima de la cual se reduce el límite.
+     */
+    public void enableAdaptiveLimit(int minInFlight, int maxInFlight, Duration latencyTarget) {
+        if (minInFlight < 1 || maxInFlight < minInFlight) {
+            throw new IllegalArgumentException("Se requiere 1 <= minInFlight <= maxInFlight");
+        }
+        if (latencyTarget == null || latencyTarget.isNegative() || latencyTarget.isZero()) {
+            throw new IllegalArgumentException("latencyTarget debe ser positivo");
+        }
+        var adaptive = new AdaptiveLimiter(minInFlight, maxInFlight, latencyTarget);
+        useLimiter(adaptive);
+        MetricsRegistry.getInstance().gauge(getMetricsName() + ".limit", adaptive::getLimit);
+    }
+
+    private void useLimiter(AdaptiveLimiter limiter) {
+        this.limiter = limiter;
+        MetricsRegistry.getInstance().gauge(getMetricsName() + ".inflight", limiter::getInFlight);
+    }
+
+    public boolean isAsync() {
+        return limiter != null;
+    }
+
+    /**
+     * Activa un cortocircuito por endpoint: tras {@code failureThreshold}
+     * intentos fallidos seguidos (error de red o 5xx) se deja de llamar al
+     * endpoint durante {@code openDuration} y se responde con el documento de
+     * error. Pasado ese tiempo una única petición de prueba decide si se cierra
+     * o vuelve a abrirse. Las peticiones rechazadas se cuentan en
+     * {@code connector.<id>.circuit.rejected}.
+     * 
+     * @param failureThreshold Fallos seguidos que abren el circuito.
+     * @param openDuration     Tiempo que el circuito permanece abierto.
+     */
+    public void setCircuitBreaker(int failureThreshold, Duration openDuration) {
+        if (failureThreshold < 1 || openDuration == null || openDuration.isNegative()) {
+            throw new IllegalArgumentException("failureThreshold debe ser positivo y openDuration no negativa");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        breakers.clear();
+    }
+
+    /**
+     * Estado del cortocircuito de un endpoint, p. ej. {@code "CLOSED"}.
+     * 
+     * @param endpoint Esquema, host y puerto (p. ej.
+     *                 {@code http://localhost:8080}).
+     * @return El estado, o null si no hay cortocircuito para ese endpoint.
+     */
+    public String getCircuitState(String endpoint) {
+        var breaker = breakers.get(endpoint);
+        return breaker != null ? breaker.getState().name() : null;
+    }
+
+    private CircuitBreaker breakerFor(PreparedRequest request) {
+        if (failureThreshold == 0) {
+            return null;
+        }
+        return breakers.computeIfAbsent(request.endpoint(),
+                endpoint -> new CircuitBreaker(failureThreshold, openDuration));
+    }
+
     @Override
     public void execute() {
+        if (limiter != null) {
+            executeAsync();
+            return;
+        }
         try {
+            // Drenar todo lo pendiente: los lotes llegan con una única notificación
             if (port instanceof OutputPort) {
                 OutputPort outputPort = (OutputPort) port;
-                Document doc = outputPort.getDocument();
+                while (outputPort.getInputSlot().hasMessage()) {
+                    Document doc = outputPort.getDocument();
 
-                if (doc == null) {
-                    // If concurrent execution, just wait for the event.
-                    return;
+                    if (doc == null) {
+                        // If concurrent execution, just wait for the event.
+                        continue;
+                    }
+                    sendOrFallback(doc);
                 }
-                sendRequest(doc);
             } else if (port instanceof RequestPort) {
                 RequestPort requestPort = (RequestPort) port;
-                Document request = requestPort.getRequestDocument();
-
-                if (request == null) {
-                    return;
+                for (Message request = requestPort.takeRequest(); request != null; request = requestPort
+                        .takeRequest()) {
+                    Message current = request;
+                    requestPort.handleResponse(current, sendOrFallback(current.getDocument()));
                 }
+            }
+        } catch (Exception ex) {
+            log().error("Unexpected error in HttpConnector: " + ex.getMessage(), ex);
+        }
+    }
 
-                Document response = sendRequest(request);
-                requestPort.handleResponse(response);
+    private void executeAsync() {
+        try {
+            if (port instanceof OutputPort) {
+                OutputPort outputPort = (OutputPort) port;
+                while (outputPort.getInputSlot().hasMessage()) {
+                    Document doc = outputPort.getDocument();
+                    if (doc != null) {
+                        sendAsync(doc, null, null);
+                    }
+                }
+            } else if (port instanceof RequestPort) {
+                RequestPort requestPort = (RequestPort) port;
+                for (Message request = requestPort.takeRequest(); request != null; request = requestPort
+                        .takeRequest()) {
+                    Message current = request;
+                    Document doc = current.getDocument();
+                    String key = requestKey(doc);
+                    Document cached = key != null && responseCache != null ? responseCache.get(key) : null;
+                    if (cached != null) {
+                        requestPort.handleResponse(current, cached);
+                    } else {
+                        sendAsync(doc, key, response -> requestPort.handleResponse(current, response));
+                    }
+                }
             }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
         } catch (Exception ex) {
-            System.err.println("[ERROR] Unexpected error in HttpConnector: " + ex.getMessage());
+            log().error("Unexpected error in HttpConnector: " + ex.getMessage(), ex);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ResponseHandler {
+        void handle(Document response) throws Exception;
+    }
+
+    /**
+     * Envía la petición sin bloquear y entrega la respuesta (o el documento de
+     * error si fallan todos los intentos) al handler desde el hilo del cliente
+     * HTTP. Si hay clave, la petición se agrupa con las idénticas en curso
+     * (single-flight) y la respuesta correcta se guarda en la caché.
+     */
+    private void sendAsync(Document input, String cacheKey, ResponseHandler handler) throws Exception {
+        PreparedRequest request;
+        try {
+            request = prepareRequest(input);
+        } catch (Exception e) {
+            MetricsRegistry.getInstance().counter(getMetricsName() + ".call.errors").increment();
+            throw e;
+        }
+
+        limiter.acquire();
+        ExecutionEnvironment environment = getEnvironment();
+        environment.beginExternalWork();
+        var metrics = MetricsRegistry.getInstance();
+        long start = System.nanoTime();
+
+        CompletableFuture<Document> pending = singleFlight != null && cacheKey != null
+                ? singleFlight.callAsync(cacheKey, () -> sendWithRetry(request, 1))
+                : sendWithRetry(request, 1);
+        pending.whenComplete((response, error) -> {
+            try {
+                metrics.histogram(getMetricsName() + ".call").recordSince(start);
+                if (error != null) {
+                    metrics.counter(getMetricsName() + ".call.errors").increment();
+                    response = fallback(request.url(), unwrap(error));
+                } else if (cacheKey != null && responseCache != null) {
+                    responseCache.put(cacheKey, response);
+                }
+                if (handler != null) {
+                    handler.handle(response);
+                }
+            } catch (Exception e) {
+                log().error("Error publicando la respuesta de " + request.url() + ": " + e.getMessage(), e);
+            } finally {
+                limiter.release();
+                environment.endExternalWork();
+            }
+        });
+    }
+
+    private CompletableFuture<Document> sendWithRetry(PreparedRequest request, int attempt) {
+        CircuitBreaker breaker = breakerFor(request);
+        if (breaker != null && !breaker.tryAcquire()) {
+            return CompletableFuture.failedFuture(rejected(request));
+        }
+        long start = System.nanoTime();
+        return httpClient.sendAsync(request.request(), HttpResponse.BodyHandlers.ofString())
+                .thenApply(this::toDocument)
+                .whenComplete((doc, error) -> onAttempt(breaker, start, error == null ? null : unwrap(error)))
+                .exceptionallyCompose(error -> {
+                    Throwable cause = unwrap(error);
+                    if (!shouldRetry(request, attempt, cause)) {
+                        return CompletableFuture.failedFuture(cause);
+                    }
+                    var next = new CompletableFuture<Document>();
+                    RetryTimer.INSTANCE.schedule(() -> sendWithRetry(request, attempt + 1).whenComplete((doc, e) -> {
+                        if (e != null) {
+                            next.completeExceptionally(e);
+                        } else {
+                            next.complete(doc);
+                        }
+                    }), backoffMillis(attempt), TimeUnit.MILLISECONDS);
+                    return next;
+                });
+    }
+
+    private CircuitOpenException rejected(PreparedRequest request) {
+        MetricsRegistry.getInstance().counter(getMetricsName() + ".circuit.rejected").increment();
+        return new CircuitOpenException(request.endpoint());
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * Un error 4xx es un fallo de la petición, no del servicio.
+     */
+    private static boolean isServiceFailure(Throwable error) {
+        return error != null && !(error instanceof HttpStatusException status && status.status < 500);
+    }
+
+    /**
+     * Informa del resultado de un intento al cortocircuito y al límite
+     * adaptativo.
+     */
+    private void onAttempt(CircuitBreaker breaker, long start, Throwable error) {
+        boolean failed = isServiceFailure(error);
+        if (breaker != null) {
+            if (failed) {
+                breaker.onFailure();
+            } else {
+                breaker.onSuccess();
+            }
+        }
+        if (limiter != null) {
+            limiter.record(System.nanoTime() - start, failed);
+        }
+    }
+
+    /**
+     * Registra el intento fallido y decide si se reintenta.
+     */
+    private boolean shouldRetry(PreparedRequest request, int attempt, Throwable error) {
+        if (error instanceof CircuitOpenException) {
+            return false;
+        }
+        log().warn("HTTP " + request.method() + " to " + request.url() + " failed (Attempt " + attempt + "/"
+                + maxRetries + "): " + error.getMessage());
+        if (!isServiceFailure(error)) {
+            // CLIENT ERROR, do not retry
+            return false;
+        }
+        var breaker = breakerFor(request);
+        if (breaker != null && breaker.getState() == CircuitBreaker.State.OPEN) {
+            // El intento acaba de abrir el circuito: no insistir
+            return false;
+        }
+        return attempt < maxRetries;
+    }
+
+    private long backoffMillis(int attempt) {
+        return retryBackoff.toMillis() << Math.min(attempt - 1, 20);
+    }
+
+    private Document toDocument(HttpResponse<String> response) {
+        if (response.statusCode() >= 200 && response.statusCode() < 300) {
+            log().debug(() -> "Response received: " + response.statusCode());
+            return stringToDocument(response.body());
+        } else if (response.statusCode() >= 500) {
+            // SERVER ERROR, retry
+            throw new HttpStatusException(response.statusCode(), "Server Error " + response.statusCode());
+        } else {
+            throw new HttpStatusException(response.statusCode(),
+                    "Client Error HTTP: " + response.statusCode() + " " + response.body());
+        }
+    }
+
+    private Document fallback(String url, Throwable cause) {
+        if (cause instanceof CircuitOpenException) {
+            log().debug(() -> "Circuit open for " + url + ". Return Fallback.");
+        } else {
+            log().error("All " + maxRetries + " retries failed for " + url + ". Return Fallback.");
+        }
+        // Fallback: return an error document so the flow does not hang.
+        return stringToDocument("<error>Service Unavailable</error>");
+    }
+
+    /**
+     * Envía la petición pasando por la caché de respuestas (si la hay). Si fallan
+     * todos los intentos devuelve el documento de error, que no se cachea.
+     */
+    private Document sendOrFallback(Document input) throws Exception {
+        try {
+            return exchange(input, () -> call(() -> sendRequest(input)));
+        } catch (RetriesExhaustedException e) {
+            return fallback(e.url, e.getCause());
         }
     }
 
     private Document sendRequest(Document input) throws Exception {
-        // Extract details from XML
-        var xpathFactory = XPathFactory.newInstance();
-        var xpath = xpathFactory.newXPath();
+        PreparedRequest request = prepareRequest(input);
+
+        CircuitBreaker breaker = breakerFor(request);
+        for (int attempt = 1;; attempt++) {
+            long start = System.nanoTime();
+            try {
+                if (breaker != null && !breaker.tryAcquire()) {
+                    throw rejected(request);
+                }
+                try {
+                    var response = toDocument(httpClient.send(request.request(), HttpResponse.BodyHandlers.ofString()));
+                    onAttempt(breaker, start, null);
+                    return response;
+                } catch (Exception e) {
+                    onAttempt(breaker, start, e);
+                    throw e;
+                }
+            } catch (Exception e) {
+                if (!shouldRetry(request, attempt, e)) {
+                    throw new RetriesExhaustedException(request.url(), e);
+                }
+                try {
+                    Thread.sleep(backoffMillis(attempt));
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new RetriesExhaustedException(request.url(), ie);
+                }
+            }
+        }
+    }
 
+    private PreparedRequest prepareRequest(Document input) throws Exception {
+        // Extract details from XML (compiled expressions are cached)
         // 1. URL
-        String urlString = (String) xpath.evaluate("/http-request/url", input, XPathConstants.STRING);
+        String urlString = (String) XPathCache.evaluate("/http-request/url", input, XPathConstants.STRING);
         if (urlString == null || urlString.isBlank()) {
             throw new IllegalArgumentException("Missing /http-request/url in input document");
         }
 
-        System.err.println("[HTTP] Sending " + xpath.evaluate("/http-request/method", input, XPathConstants.STRING)
-                + " request to: " + urlString);
-
         // 2. Method
-        String methodString = (String) xpath.evaluate("/http-request/method", input, XPathConstants.STRING);
+        String methodString = (String) XPathCache.evaluate("/http-request/method", input, XPathConstants.STRING);
         Method method;
         if (methodString == null || methodString.isBlank()) {
             method = Method.GET;
         } else {
             method = Method.valueOf(methodString.toUpperCase());
         }
+        log().debug(() -> "Sending " + method + " request to: " + urlString);
 
         HttpRequest.Builder requestBuilder = HttpRequest.newBuilder()
                 .uri(URI.create(urlString))
                 .timeout(java.time.Duration.ofSeconds(5)); // Request timeout
 
         // 3. Headers
-        NodeList headerNodes = (NodeList) xpath.evaluate("/http-request/headers/header", input, XPathConstants.NODESET);
+        NodeList headerNodes = (NodeList) XPathCache.evaluate("/http-request/headers/header", input, XPathConstants.NODESET);
         for (int i = 0; i < headerNodes.getLength(); i++) {
             Node node = headerNodes.item(i);
             if (node.getNodeType() == Node.ELEMENT_NODE) {
@@ -125,7 +554,7 @@ public class HttpConnector extends Connector {
         }
 
         // 4. Body
-        Node bodyNode = (Node) xpath.evaluate("/http-request/body", input, XPathConstants.NODE);
+        Node bodyNode = (Node) XPathCache.evaluate("/http-request/body", input, XPathConstants.NODE);
 
         switch (method) {
             case GET -> requestBuilder.GET();
@@ -143,49 +572,9 @@ public class HttpConnector extends Connector {
             default -> throw new UnsupportedOperationException("Metodo no soportado: " + method);
         }
 
-        int maxRetries = 3;
-        int attempt = 0;
-
-        while (attempt < maxRetries) {
-            try {
-                HttpResponse<String> response = httpClient.send(requestBuilder.build(),
-                        HttpResponse.BodyHandlers.ofString());
-                if (response.statusCode() >= 200 && response.statusCode() < 300) {
-                    System.err.println("[HTTP] Response received: " + response.statusCode());
-                    return stringToDocument(response.body());
-                } else if (response.statusCode() >= 500) {
-                    // SERVER ERROR, retry
-                    throw new RuntimeException("Server Error " + response.statusCode());
-                } else {
-                    // CLIENT ERROR, do not retry
-                    throw new RuntimeException("Client Error HTTP: " + response.statusCode() + " " + response.body());
-                }
-            } catch (Exception e) {
-                attempt++;
-                System.err.println("[WARNING] HTTP " + method + " to " + urlString + " failed (Attempt " + attempt + "/"
-                        + maxRetries + "): " + e.getMessage());
-
-                // Only sleep if we are going to retry
-                if (attempt < maxRetries) {
-                    try {
-                        Thread.sleep(1000);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        break;
-                    }
-                }
-            }
-        }
-        // If we get here, all retries failed.
-        // We log and return null or throw?
-        // Returning null might cause NPE downstream if not handled, but catching in
-        // execute() handles generic exceptions.
-        // Let's rethrow properly or allow execute() catch to handle it.
-        System.err.println("[ERROR] All " + maxRetries + " retries failed for " + urlString + ". Return Fallback.");
-        // Fallback: return an error document so the flow does not hang.
-        return stringToDocument("<error>Service Unavailable</error>");
-        // throw new RuntimeException("HTTP Request failed after retries",
-        // lastException);
+        var httpRequest = requestBuilder.build();
+        var uri = httpRequest.uri();
+        return new PreparedRequest(httpRequest, method, urlString, uri.getScheme() + "://" + uri.getAuthority());
     }
 
     private String nodeContentToString(Node node) {
@@ -0,0 +1,462 @@
+package iia.dsl.framework.connectors;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import iia.dsl.framework.logging.Log;
+import iia.dsl.framework.metrics.MetricsRegistry;
+
+/**
+ * Pool ligero de conexiones JDBC, compartible entre varios
+ * {@link DataBaseConnector}.
+ *
+ * <p>
+ * Mantiene entre {@code minSize} y {@code maxSize} conexiones físicas. Las
+ * conexiones libres se reutilizan en orden LIFO (la más reciente primero), se
+ * validan con {@link Connection#isValid(int)} si llevan tiempo sin usarse y un
+ * hilo de mantenimiento cierra las que superan {@code idleTimeout} sin bajar
+ * de {@code minSize}. Cada conexión guarda una caché LRU de
+ * {@link PreparedStatement} por texto SQL.
+ *
+ * <p>
+ * Uso:
+ *
+ * <pre>
+ * {@code
+ * var pool = JdbcConnectionPool.builder("jdbc:h2:mem:orders").maxSize(8).build();
+ * var db1 = new DataBaseConnector(requestPort1, pool);
+ * var db2 = new DataBaseConnector(requestPort2, pool);
+ * }
+ * </pre>
+ */
+public class JdbcConnectionPool implements AutoCloseable {
+    private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final int statementCacheSize;
+    private final Duration acquireTimeout;
+    private final Duration idleTimeout;
+    private final Duration validationInterval;
+    private final String name;
+
+    // Conexiones libres: se toman y devuelven por la cabeza (LIFO)
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+    private final AtomicInteger total = new AtomicInteger();
+    private final Thread evictor;
+    private final Log log;
+    private volatile boolean closed = false;
+
+    /**
+     * Operación que usa una conexión del pool.
+     *
+     * @param <T> Tipo del resultado.
+     */
+    @FunctionalInterface
+    public interface SqlFunction<T> {
+        T apply(PooledConnection connection) throws Exception;
+    }
+
+    private JdbcConnectionPool(Builder builder) {
+        this.url = builder.url;
+        this.username = builder.username;
+        this.password = builder.password;
+        this.minSize = builder.minSize;
+        this.maxSize = builder.maxSize;
+        this.statementCacheSize = builder.statementCacheSize;
+        this.acquireTimeout = builder.acquireTimeout;
+        this.idleTimeout = builder.idleTimeout;
+        this.validationInterval = builder.validationInterval;
+        this.name = builder.name != null ? builder.name : "jdbc-" + POOL_COUNTER.incrementAndGet();
+        this.permits = new Semaphore(maxSize, true);
+        this.log = Log.get("pool." + name);
+
+        try {
+            for (int i = 0; i < minSize; i++) {
+                idle.offerFirst(open());
+            }
+        } catch (SQLException e) {
+            close();
+            throw new RuntimeException("Error connecting to database", e);
+        }
+
+        var metrics = MetricsRegistry.getInstance();
+        metrics.gauge("pool." + name + ".size", total::get);
+        metrics.gauge("pool." + name + ".idle", idle::size);
+        metrics.gauge("pool." + name + ".active", () -> maxSize - permits.availablePermits());
+
+        this.evictor = Thread.ofPlatform().name("pool-" + name + "-evictor").daemon(true)
+                .unstarted(this::evictLoop);
+        this.evictor.start();
+    }
+
+    public static Builder builder(String url) {
+        return new Builder(url);
+    }
+
+    public static class Builder {
+        private final String url;
+        private String username;
+        private String password;
+        private String name;
+        private int minSize = 1;
+        private int maxSize = 8;
+        private int statementCacheSize = 64;
+        private Duration acquireTimeout = Duration.ofSeconds(30);
+        private Duration idleTimeout = Duration.ofMinutes(5);
+        private Duration validationInterval = Duration.ofSeconds(30);
+
+        private Builder(String url) {
+            if (url == null || url.isBlank()) {
+                throw new IllegalArgumentException("La URL JDBC no puede estar vacía");
+            }
+            this.url = url;
+        }
+
+        public Builder credentials(String username, String password) {
+            this.username = username;
+            this.password = password;
+            return this;
+        }
+
+        /**
+         * Nombre del pool en métricas y log (por defecto {@code jdbc-<n>}).
+         *
+         * @param name El nombre.
+         * @return El Builder actual.
+         */
+        public Builder name(String name) {
+            this.name = name;
+            return this;
+        }
+
+        /**
+         * Conexiones que se abren al crear el pool y que nunca se cierran por
+         * inactividad.
+         *
+         * @param minSize Mínimo de conexiones (por defecto 1).
+         * @return El Builder actual.
+         */
+        public Builder minSize(int minSize) {
+            if (minSize < 0) {
+                throw new IllegalArgumentException("minSize no puede ser negativo");
+            }
+            this.minSize = minSize;
+            return this;
+        }
+
+        /**
+         * Máximo de conexiones físicas simultáneas.
+         *
+         * @param maxSize Máximo de conexiones (por defecto 8).
+         * @return El Builder actual.
+         */
+        public Builder maxSize(int maxSize) {
+            if (maxSize < 1) {
+                throw new IllegalArgumentException("maxSize debe ser positivo");
+            }
+            this.maxSize = maxSize;
+            return this;
+        }
+
+        /**
+         * Sentencias preparadas que se guardan por conexión.
+         *
+         * @param statementCacheSize Tamaño de la caché (por defecto 64).
+         * @return El Builder actual.
+         */
+        public Builder statementCacheSize(int statementCacheSize) {
+            if (statementCacheSize < 1) {
+                throw new IllegalArgumentException("statementCacheSize debe ser positivo");
+            }
+            this.statementCacheSize = statementCacheSize;
+            return this;
+        }
+
+        public Builder acquireTimeout(Duration acquireTimeout) {
+            this.acquireTimeout = acquireTimeout;
+            return this;
+        }
+
+        public Builder idleTimeout(Duration idleTimeout) {
+            this.idleTimeout = idleTimeout;
+            return this;
+        }
+
+        /**
+         * Una conexión libre durante más de este tiempo se valida antes de
+         * entregarla.
+         *
+         * @param validationInterval Intervalo (por defecto 30 segundos).
+         * @return El Builder actual.
+         */
+        public Builder validationInterval(Duration validationInterval) {
+            this.validationInterval = validationInterval;
+            return this;
+        }
+
+        public JdbcConnectionPool build() {
+            if (minSize > maxSize) {
+                throw new IllegalArgumentException("minSize no puede ser mayor que maxSize");
+            }
+            return new JdbcConnectionPool(this);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Número de conexiones físicas abiertas.
+     *
+     * @return Conexiones abiertas (libres y en uso).
+     */
+    public int getSize() {
+        return total.get();
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    /**
+     * Ejecuta una operación con una conexión del pool y la devuelve al terminar.
+     * Si la operación falla con una {@link SQLException} y la conexión ya no es
+     * válida, se descarta.
+     *
+     * @param <T>       Tipo del resultado.
+     * @param operation La operación.
+     * @return El resultado de la operación.
+     * @throws Exception La excepción de la operación, o SQLException si no se
+     *                   obtiene una conexión a tiempo.
+     */
+    public <T> T withConnection(SqlFunction<T> operation) throws Exception {
+        PooledConnection connection = acquire();
+        boolean broken = false;
+        try {
+            return operation.apply(connection);
+        } catch (SQLException e) {
+            broken = !connection.isUsable();
+            throw e;
+        } finally {
+            release(connection, broken);
+        }
+    }
+
+    private PooledConnection acquire() throws SQLException, InterruptedException {
+        if (closed) {
+            throw new SQLException("JdbcConnectionPool '" + name + "' cerrado");
+        }
+        if (!permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            throw new SQLException("Timeout esperando una conexión del pool '" + name + "'");
+        }
+        try {
+            PooledConnection candidate;
+            while ((candidate = idle.pollFirst()) != null) {
+                if (candidate.idleNanos() < validationInterval.toNanos() || candidate.isUsable()) {
+                    return candidate;
+                }
+                discard(candidate);
+            }
+            return open();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void release(PooledConnection connection, boolean broken) {
+        try {
+            if (broken || closed) {
+                discard(connection);
+            } else {
+                connection.reset();
+                connection.lastUsed = System.nanoTime();
+                idle.offerFirst(connection);
+            }
+        } catch (SQLException e) {
+            discard(connection);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private PooledConnection open() throws SQLException {
+        Connection connection = username != null && password != null
+                ? DriverManager.getConnection(url, username, password)
+                : DriverManager.getConnection(url);
+        total.incrementAndGet();
+        return new PooledConnection(connection, statementCacheSize);
+    }
+
+    private void discard(PooledConnection connection) {
+        total.decrementAndGet();
+        connection.closeQuietly();
+    }
+
+    private void evictLoop() {
+        long period = Math.max(100, Math.min(idleTimeout.toMillis() / 2, 30_000));
+        while (!closed) {
+            try {
+                Thread.sleep(period);
+            } catch (InterruptedException e) {
+                return;
+            }
+            evictIdle();
+        }
+    }
+
+    /**
+     * Cierra las conexiones libres que superan {@code idleTimeout}, manteniendo
+     * {@code minSize} conexiones abiertas.
+     */
+    void evictIdle() {
+        List<PooledConnection> expired = new ArrayList<>();
+        // Las más antiguas están al final de la cola
+        PooledConnection oldest;
+        while (total.get() - expired.size() > minSize && (oldest = idle.pollLast()) != null) {
+            if (oldest.idleNanos() < idleTimeout.toNanos()) {
+                idle.offerLast(oldest);
+                break;
+            }
+            expired.add(oldest);
+        }
+        for (PooledConnection connection : expired) {
+            discard(connection);
+        }
+        if (!expired.isEmpty()) {
+            log.debug(() -> expired.size() + " conexiones inactivas cerradas");
+        }
+    }
+
+    /**
+     * Cierra las conexiones libres y detiene el mantenimiento. Las conexiones en
+     * uso se cierran al devolverse.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (evictor != null) {
+            evictor.interrupt();
+        }
+        PooledConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            discard(connection);
+        }
+        MetricsRegistry.getInstance().remove("pool." + name + ".");
+    }
+
+    /**
+     * Conexión del pool con su caché de sentencias preparadas.
+     */
+    public static class PooledConnection {
+        private final Connection connection;
+        private final Map<String, PreparedStatement> statements;
+        private volatile long lastUsed = System.nanoTime();
+
+        PooledConnection(Connection connection, int cacheSize) {
+            this.connection = connection;
+            // LRU: la sentencia menos usada se cierra al superar el tamaño
+            this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                    if (size() > cacheSize) {
+                        closeStatement(eldest.getValue());
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        /**
+         * La conexión JDBC subyacente. No debe cerrarse: pertenece al pool.
+         *
+         * @return La conexión.
+         */
+        public Connection connection() {
+            return connection;
+        }
+
+        /**
+         * Devuelve la sentencia preparada para ese SQL, reutilizando la de la caché
+         * si existe. No debe cerrarse.
+         *
+         * @param sql El SQL con parámetros {@code ?}.
+         * @return La sentencia preparada (con los parámetros limpios).
+         * @throws SQLException Si el SQL no es válido.
+         */
+        public PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement statement = statements.get(sql);
+            if (statement == null || statement.isClosed()) {
+                statement = connection.prepareStatement(sql);
+                statements.put(sql, statement);
+            } else {
+                statement.clearParameters();
+            }
+            return statement;
+        }
+
+        int cachedStatements() {
+            return statements.size();
+        }
+
+        private long idleNanos() {
+            return System.nanoTime() - lastUsed;
+        }
+
+        private boolean isUsable() {
+            try {
+                return !connection.isClosed() && connection.isValid(2);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        // Deja la conexión como la espera el siguiente usuario
+        private void reset() throws SQLException {
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+        }
+
+        private void closeQuietly() {
+            statements.values().forEach(PooledConnection::closeStatement);
+            statements.clear();
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                // ignorar
+            }
+        }
+
+        private static void closeStatement(PreparedStatement statement) {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                // ignorar
+            }
+        }
+    }
+}
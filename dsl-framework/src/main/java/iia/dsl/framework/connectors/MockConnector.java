@@ -33,6 +33,16 @@ public class MockConnector extends Connector {
         this.mockDocument = mockDocument;
     }
 
+    /**
+     * El mock responde en memoria, sin E/S.
+     * 
+     * @return false.
+     */
+    @Override
+    public boolean isBlocking() {
+        return false;
+    }
+
     @Override
     public void execute() throws Exception {
         if (port == null) {
@@ -42,11 +52,15 @@ public class MockConnector extends Connector {
         if (port instanceof InputPort inputPort) {
             inputPort.handleDocument(mockDocument);
         } else if (port instanceof OutputPort outputPort) {
-            outputPort.getDocument();
+            while (outputPort.getInputSlot().hasMessage()) {
+                outputPort.getDocument();
+            }
         } else if (port instanceof RequestPort requestPort) {
-            Document request = requestPort.getRequestDocument();
-            if (request != null) {
-                requestPort.handleResponse(mockDocument);
+            while (requestPort.getInputSlot().hasMessage()) {
+                Document request = requestPort.getRequestDocument();
+                if (request != null) {
+                    requestPort.handleResponse(exchange(request, () -> mockDocument));
+                }
             }
         }
     }
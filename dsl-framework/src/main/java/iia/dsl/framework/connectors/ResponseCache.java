@@ -0,0 +1,384 @@
+package iia.dsl.framework.connectors;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+import iia.dsl.framework.metrics.Counter;
+import iia.dsl.framework.metrics.MetricsRegistry;
+import iia.dsl.framework.util.XPathCache;
+
+/**
+ * Caché de respuestas para conectores detrás de un RequestPort
+ * ({@link HttpConnector}, {@link DataBaseConnector}, {@link MockConnector}).
+ *
+ * <p>
+ * La clave de cada solicitud es su forma canónica (elementos, atributos
+ * ordenados y texto sin espacios de los extremos, sin comentarios) o, si se
+ * configura {@code keyXPath}, el valor de esa expresión sobre la solicitud. Las
+ * entradas caducan tras el {@code ttl} y, al superar {@code maxEntries}, se
+ * descarta la menos usada recientemente (LRU) o la menos usada en total (LFU).
+ * Los documentos se copian al guardarlos y al devolverlos, así que las tareas
+ * posteriores pueden modificarlos sin afectar a la caché.
+ *
+ * <p>
+ * Publica los contadores {@code cache.<nombre>.hits}, {@code .misses} y
+ * {@code .evictions} y el gauge {@code cache.<nombre>.size}.
+ *
+ * <p>
+ * Uso:
+ *
+ * <pre>
+ * {@code
+ * var cache = ResponseCache.builder().name("drinks").ttl(Duration.ofMinutes(5)).build();
+ * httpConnector.setResponseCache(cache);
+ * }
+ * </pre>
+ */
+public class ResponseCache {
+    private static final AtomicInteger CACHE_COUNTER = new AtomicInteger();
+
+    /**
+     * Política de expulsión al llenarse la caché.
+     */
+    public enum Eviction {
+        LRU, LFU
+    }
+
+    private final String name;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Eviction eviction;
+    private final String keyXPath;
+
+    // En LRU el mapa va en orden de acceso; en LFU en orden de inserción y el
+    // orden de expulsión lo dan los cubos por frecuencia
+    private final LinkedHashMap<String, Entry> entries;
+    private final TreeMap<Long, LinkedHashSet<String>> byFrequency = new TreeMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    private static class Entry {
+        final Document response;
+        final long expiresAt;
+        long frequency = 1;
+
+        Entry(Document response, long expiresAt) {
+            this.response = response;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private ResponseCache(Builder builder) {
+        this.name = builder.name != null ? builder.name : "response-" + CACHE_COUNTER.incrementAndGet();
+        this.maxEntries = builder.maxEntries;
+        this.ttlNanos = builder.ttl.toNanos();
+        this.eviction = builder.eviction;
+        this.keyXPath = builder.keyXPath;
+        this.entries = new LinkedHashMap<>(16, 0.75f, eviction == Eviction.LRU);
+
+        var metrics = MetricsRegistry.getInstance();
+        String prefix = "cache." + name;
+        this.hits = metrics.counter(prefix + ".hits");
+        this.misses = metrics.counter(prefix + ".misses");
+        this.evictions = metrics.counter(prefix + ".evictions");
+        metrics.gauge(prefix + ".size", this::size);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private String name;
+        private int maxEntries = 1000;
+        private Duration ttl = Duration.ofMinutes(1);
+        private Eviction eviction = Eviction.LRU;
+        private String keyXPath;
+
+        private Builder() {
+        }
+
+        /**
+         * Nombre de la caché en métricas (por defecto {@code response-<n>}).
+         *
+         * @param name El nombre.
+         * @return El Builder actual.
+         */
+        public Builder name(String name) {
+            this.name = name;
+            return this;
+        }
+
+        /**
+         * Número máximo de respuestas guardadas.
+         *
+         * @param maxEntries Máximo de entradas (por defecto 1000).
+         * @return El Builder actual.
+         */
+        public Builder maxEntries(int maxEntries) {
+            if (maxEntries < 1) {
+                throw new IllegalArgumentException("maxEntries debe ser positivo");
+            }
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        /**
+         * Tiempo que una respuesta se considera válida.
+         *
+         * @param ttl Duración (por defecto 1 minuto).
+         * @return El Builder actual.
+         */
+        public Builder ttl(Duration ttl) {
+            if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+                throw new IllegalArgumentException("ttl debe ser positivo");
+            }
+            this.ttl = ttl;
+            return this;
+        }
+
+        /**
+         * Política de expulsión al llenarse la caché.
+         *
+         * @param eviction LRU (por defecto) o LFU.
+         * @return El Builder actual.
+         */
+        public Builder eviction(Eviction eviction) {
+            if (eviction == null) {
+                throw new IllegalArgumentException("eviction no puede ser null");
+            }
+            this.eviction = eviction;
+            return this;
+        }
+
+        /**
+         * Usa como clave el valor de una expresión XPath sobre la solicitud en
+         * lugar de su forma canónica completa (p. ej. {@code /sql/param} cuando
+         * la sentencia es siempre la misma). Las solicitudes en las que la
+         * expresión da una cadena vacía no se cachean.
+         *
+         * @param keyXPath La expresión XPath.
+         * @return El Builder actual.
+         * @throws IllegalArgumentException Si la expresión no es válida.
+         */
+        public Builder keyXPath(String keyXPath) {
+            try {
+                XPathCache.compile(keyXPath);
+            } catch (XPathExpressionException e) {
+                throw new IllegalArgumentException("XPath de clave no válido: " + keyXPath, e);
+            }
+            this.keyXPath = keyXPath;
+            return this;
+        }
+
+        public ResponseCache build() {
+            return new ResponseCache(this);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Calcula la clave de una solicitud.
+     *
+     * @param request El documento de la solicitud.
+     * @return La clave, o null si la solicitud no se puede cachear.
+     * @throws XPathExpressionException Si falla la evaluación de
+     *                                  {@code keyXPath}.
+     */
+    public String key(Document request) throws XPathExpressionException {
+        if (request == null) {
+            return null;
+        }
+        if (keyXPath != null) {
+            var value = (String) XPathCache.evaluate(keyXPath, request, XPathConstants.STRING);
+            return value == null || value.isEmpty() ? null : value;
+        }
+        return canonical(request);
+    }
+
+    /**
+     * Busca una respuesta vigente.
+     *
+     * @param key La clave de la solicitud.
+     * @return Una copia de la respuesta, o null si no está o ha caducado.
+     */
+    public Document get(String key) {
+        Document response = null;
+        synchronized (this) {
+            var entry = entries.get(key);
+            if (entry != null && entry.expiresAt - System.nanoTime() <= 0) {
+                remove(key, entry);
+                entry = null;
+            }
+            if (entry != null) {
+                if (eviction == Eviction.LFU) {
+                    touch(key, entry);
+                }
+                response = entry.response;
+            }
+        }
+        if (response == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return copy(response);
+    }
+
+    /**
+     * Guarda (una copia de) la respuesta a una solicitud.
+     *
+     * @param key      La clave de la solicitud.
+     * @param response El documento de respuesta.
+     */
+    public void put(String key, Document response) {
+        if (key == null || response == null) {
+            return;
+        }
+        var entry = new Entry(copy(response), System.nanoTime() + ttlNanos);
+        synchronized (this) {
+            var previous = entries.remove(key);
+            if (previous != null) {
+                forget(key, previous);
+            }
+            while (entries.size() >= maxEntries) {
+                evictOne();
+            }
+            entries.put(key, entry);
+            if (eviction == Eviction.LFU) {
+                byFrequency.computeIfAbsent(entry.frequency, f -> new LinkedHashSet<>()).add(key);
+            }
+        }
+    }
+
+    public synchronized void invalidate(String key) {
+        var entry = entries.get(key);
+        if (entry != null) {
+            remove(key, entry);
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        byFrequency.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // Las entradas caducadas se retiran al consultarlas o cuando les toca salir
+    private void evictOne() {
+        String victim;
+        if (eviction == Eviction.LRU) {
+            victim = entries.keySet().iterator().next();
+        } else {
+            Iterator<String> leastUsed = byFrequency.firstEntry().getValue().iterator();
+            victim = leastUsed.next();
+        }
+        remove(victim, entries.get(victim));
+        evictions.increment();
+    }
+
+    private void remove(String key, Entry entry) {
+        entries.remove(key);
+        forget(key, entry);
+    }
+
+    private void forget(String key, Entry entry) {
+        if (eviction != Eviction.LFU) {
+            return;
+        }
+        var bucket = byFrequency.get(entry.frequency);
+        if (bucket != null) {
+            bucket.remove(key);
+            if (bucket.isEmpty()) {
+                byFrequency.remove(entry.frequency);
+            }
+        }
+    }
+
+    private void touch(String key, Entry entry) {
+        forget(key, entry);
+        entry.frequency++;
+        byFrequency.computeIfAbsent(entry.frequency, f -> new LinkedHashSet<>()).add(key);
+    }
+
+    private static Document copy(Document doc) {
+        return (Document) doc.cloneNode(true);
+    }
+
+    /**
+     * Forma canónica de un documento: dos solicitudes que solo difieren en
+     * espacios, comentarios u orden de atributos dan la misma cadena.
+     */
+    static String canonical(Document doc) {
+        var sb = new StringBuilder(256);
+        appendCanonical(sb, doc);
+        return sb.toString();
+    }
+
+    private static void appendCanonical(StringBuilder sb, Node node) {
+        switch (node.getNodeType()) {
+            case Node.DOCUMENT_NODE -> {
+                for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+                    appendCanonical(sb, child);
+                }
+            }
+            case Node.ELEMENT_NODE -> {
+                sb.append('<').append(node.getNodeName());
+                NamedNodeMap attributes = node.getAttributes();
+                if (attributes.getLength() > 0) {
+                    var sorted = new TreeMap<String, String>();
+                    for (int i = 0; i < attributes.getLength(); i++) {
+                        var attr = (Attr) attributes.item(i);
+                        sorted.put(attr.getName(), attr.getValue());
+                    }
+                    sorted.forEach((attrName, value) -> {
+                        sb.append(' ').append(attrName).append("=\"");
+                        escape(sb, value);
+                        sb.append('"');
+                    });
+                }
+                sb.append('>');
+                for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+                    appendCanonical(sb, child);
+                }
+                sb.append("</").append(node.getNodeName()).append('>');
+            }
+            case Node.TEXT_NODE, Node.CDATA_SECTION_NODE -> escape(sb, node.getNodeValue().strip());
+            default -> {
+                // Comentarios e instrucciones de procesamiento no forman parte de la clave
+            }
+        }
+    }
+
+    private static void escape(StringBuilder sb, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> sb.append("&amp;");
+                case '<' -> sb.append("&lt;");
+                case '"' -> sb.append("&quot;");
+                default -> sb.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,565 @@
+package iia.dsl.framework.connectors;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import iia.dsl.framework.core.Message;
+import iia.dsl.framework.logging.Log;
+import iia.dsl.framework.metrics.Counter;
+import iia.dsl.framework.metrics.LatencyHistogram;
+import iia.dsl.framework.metrics.MetricsRegistry;
+
+/**
+ * Sink de ficheros con escritura diferida (write-behind) para
+ * {@link FileConnector} con OutputPort.
+ *
+ * <p>
+ * El hilo de la tarea solo serializa el documento y lo encola; un hilo escritor
+ * vuelca los mensajes por lotes con {@link FileChannel} y hace un único
+ * {@code fsync} por lote (como mucho uno cada {@code fsyncInterval}). Hay dos
+ * modos:
+ * <ul>
+ * <li><b>Rolling</b> (por defecto): los documentos se añaden, uno por línea, a
+ * {@code <prefix>-<fecha>-<n>.xml}, rotando al superar {@code maxBytes} o
+ * {@code maxAge}.</li>
+ * <li><b>Un fichero por mensaje</b> ({@link Builder#fileNamePattern(String)}):
+ * el nombre se construye con los headers del mensaje, p. ej.
+ * {@code order-{correlation-id}.xml}; {@code {id}} es el ID del mensaje.</li>
+ * </ul>
+ *
+ * <p>
+ * Si la cola está llena, {@link #write(Message)} espera (backpressure) en lugar
+ * de perder mensajes.
+ */
+public class RollingFileSink {
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{([^}]+)\\}");
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final byte[] NEWLINE = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+    private static final int MAX_BATCH = 256;
+
+    private final Path directory;
+    private final String prefix;
+    private final long maxBytes;
+    private final Duration maxAge;
+    private final Duration fsyncInterval;
+    private final String fileNamePattern;
+    private final BlockingQueue<Entry> queue;
+
+    // Solo se usan desde el hilo escritor
+    private FileChannel current;
+    private Path currentPath;
+    private long currentBytes;
+    private long currentOpenedAt;
+    private long lastSync;
+    private int sequence = 0;
+    private boolean dirty = false;
+
+    // Los Transformers no son thread-safe; se reutilizan bajo este lock
+    private final Object serializerLock = new Object();
+    private Transformer appendSerializer;
+    private Transformer fileSerializer;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private volatile boolean closed = false;
+    private Thread writer;
+    private Counter writtenCounter;
+    private Counter errorCounter;
+    private LatencyHistogram batchLatency;
+    private Log log;
+
+    private record Entry(String fileName, byte[] data) {
+    }
+
+    // Marca de fin para el escritor: se encola al cerrar, detrás de lo pendiente.
+    // No se usa interrupt() porque cerraría el FileChannel en mitad de una escritura
+    private static final Entry STOP = new Entry(null, new byte[0]);
+    // Ordena write() frente a close(): nada se encola detrás de STOP
+    private final Object lifecycleLock = new Object();
+
+    private RollingFileSink(Builder builder) {
+        this.directory = builder.directory;
+        this.prefix = builder.prefix;
+        this.maxBytes = builder.maxBytes;
+        this.maxAge = builder.maxAge;
+        this.fsyncInterval = builder.fsyncInterval;
+        this.fileNamePattern = builder.fileNamePattern;
+        this.queue = new ArrayBlockingQueue<>(builder.queueCapacity);
+    }
+
+    public static Builder builder(String directory) {
+        return new Builder(Path.of(directory));
+    }
+
+    public static class Builder {
+        private final Path directory;
+        private String prefix = "output";
+        private long maxBytes = 64L * 1024 * 1024;
+        private Duration maxAge = Duration.ofHours(1);
+        private Duration fsyncInterval = Duration.ofSeconds(1);
+        private String fileNamePattern;
+        private int queueCapacity = 1024;
+
+        private Builder(Path directory) {
+            this.directory = directory;
+        }
+
+        /**
+         * Prefijo de los ficheros rotativos (por defecto {@code output}).
+         *
+         * @param prefix El prefijo.
+         * @return El Builder actual.
+         */
+        public Builder prefix(String prefix) {
+            this.prefix = prefix;
+            return this;
+        }
+
+        /**
+         * Rota el fichero al superar este tamaño.
+         *
+         * @param maxBytes Tamaño máximo en bytes (por defecto 64 MB).
+         * @return El Builder actual.
+         */
+        public Builder maxBytes(long maxBytes) {
+            if (maxBytes < 1) {
+                throw new IllegalArgumentException("maxBytes debe ser positivo");
+            }
+            this.maxBytes = maxBytes;
+            return this;
+        }
+
+        /**
+         * Rota el fichero cuando tiene esta antigüedad.
+         *
+         * @param maxAge Antigüedad máxima (por defecto 1 hora).
+         * @return El Builder actual.
+         */
+        public Builder maxAge(Duration maxAge) {
+            this.maxAge = maxAge;
+            return this;
+        }
+
+        /**
+         * Intervalo mínimo entre {@code fsync}. {@link Duration#ZERO} sincroniza tras
+         * cada lote.
+         *
+         * @param fsyncInterval Intervalo (por defecto 1 segundo).
+         * @return El Builder actual.
+         */
+        public Builder fsyncInterval(Duration fsyncInterval) {
+            this.fsyncInterval = fsyncInterval;
+            return this;
+        }
+
+        /**
+         * Escribe cada mensaje en su propio fichero en lugar de rotar. Los
+         * marcadores {@code {header}} se sustituyen por el header del mensaje y
+         * {@code {id}} por su ID.
+         *
+         * @param pattern Patrón del nombre, p. ej. {@code order-{correlation-id}.xml}.
+         * @return El Builder actual.
+         */
+        public Builder fileNamePattern(String pattern) {
+            this.fileNamePattern = pattern;
+            return this;
+        }
+
+        /**
+         * Número de mensajes que pueden esperar al escritor.
+         *
+         * @param queueCapacity Capacidad de la cola (por defecto 1024).
+         * @return El Builder actual.
+         */
+        public Builder queueCapacity(int queueCapacity) {
+            if (queueCapacity < 1) {
+                throw new IllegalArgumentException("queueCapacity debe ser positivo");
+            }
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        public RollingFileSink build() {
+            return new RollingFileSink(this);
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Arranca el hilo escritor. Lo invoca el {@link FileConnector} al asociarse.
+     *
+     * @param name Nombre de métricas del conector.
+     */
+    synchronized void start(String name) {
+        if (writer != null) {
+            return;
+        }
+        var metrics = MetricsRegistry.getInstance();
+        writtenCounter = metrics.counter(name + ".written");
+        errorCounter = metrics.counter(name + ".write.errors");
+        batchLatency = metrics.histogram(name + ".write.batch");
+        log = Log.get(name);
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new RuntimeException("No se pudo crear el directorio de salida: " + directory, e);
+        }
+        writer = Thread.ofPlatform().name(name + "-writer").daemon(true).unstarted(this::writeLoop);
+        writer.start();
+    }
+
+    /**
+     * Serializa el documento y lo encola para el escritor. Si el mensaje conserva
+     * su XML original ({@link Message#getRawBytes()}) se escriben esos bytes sin
+     * pasar por el DOM.
+     *
+     * @param message El mensaje a escribir.
+     * @throws TransformerException Si el documento no se puede serializar.
+     * @throws InterruptedException Si se interrumpe la espera por cola llena.
+     */
+    public void write(Message message) throws TransformerException, InterruptedException {
+        if (closed) {
+            throw new IllegalStateException("RollingFileSink cerrado: " + directory);
+        }
+        String fileName = fileNamePattern != null ? resolveFileName(message) : null;
+        var entry = new Entry(fileName, serialize(message, fileName == null));
+        synchronized (lifecycleLock) {
+            if (closed) {
+                throw new IllegalStateException("RollingFileSink cerrado: " + directory);
+            }
+            queue.put(entry);
+            accepted.incrementAndGet();
+        }
+    }
+
+    /**
+     * Espera a que el escritor haya escrito todo lo encolado. El {@code fsync} de
+     * los ficheros rotativos sigue el intervalo configurado.
+     */
+    public void flush() {
+        long target = accepted.get();
+        while (written.get() < target && writer != null && writer.isAlive()) {
+            LockSupport.parkNanos(200_000);
+        }
+    }
+
+    /**
+     * Vuelca lo pendiente, detiene el escritor y cierra el fichero actual.
+     */
+    public synchronized void close() {
+        synchronized (lifecycleLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (writer == null) {
+                return;
+            }
+            try {
+                queue.put(STOP);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String resolveFileName(Message message) {
+        Matcher matcher = PLACEHOLDER.matcher(fileNamePattern);
+        var sb = new StringBuilder();
+        while (matcher.find()) {
+            String key = matcher.group(1);
+            String value = key.equals("id") ? message.getId() : message.getHeader(key);
+            if (value == null) {
+                value = "unknown";
+            }
+            // Evitar rutas fuera del directorio
+            matcher.appendReplacement(sb, Matcher.quoteReplacement(value.replaceAll("[/\\\\:]", "_")));
+        }
+        matcher.appendTail(sb);
+        return sb.toString();
+    }
+
+    private byte[] serialize(Message message, boolean appended) throws TransformerException {
+        byte[] raw = message.getRawBytes();
+        if (raw != null) {
+            if (!appended) {
+                return raw;
+            }
+            byte[] body = withoutDeclaration(raw);
+            if (body != null) {
+                return body;
+            }
+        }
+        var out = new ByteArrayOutputStream(4096);
+        synchronized (serializerLock) {
+            Transformer transformer;
+            if (appended) {
+                if (appendSerializer == null) {
+                    appendSerializer = TransformerFactory.newInstance().newTransformer();
+                    // Varios documentos por fichero: sin declaración XML
+                    appendSerializer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+                }
+                transformer = appendSerializer;
+            } else {
+                if (fileSerializer == null) {
+                    fileSerializer = TransformerFactory.newInstance().newTransformer();
+                }
+                transformer = fileSerializer;
+            }
+            transformer.transform(new DOMSource(message.getDocument()), new StreamResult(out));
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Prepara unos bytes en crudo para añadirlos a un fichero con varios
+     * documentos: sin BOM, sin declaración XML y sin espacios alrededor.
+     *
+     * @return Los bytes o null si no están en UTF-8 (hay que serializar el
+     *         documento para no mezclar codificaciones).
+     */
+    static byte[] withoutDeclaration(byte[] raw) {
+        // UTF-16/32 (con o sin BOM)
+        if (raw.length >= 2 && (raw[0] == 0 || raw[1] == 0 || (raw[0] & 0xFF) >= 0xFE)) {
+            return null;
+        }
+        int start = 0;
+        if (raw.length >= 3 && (raw[0] & 0xFF) == 0xEF && (raw[1] & 0xFF) == 0xBB && (raw[2] & 0xFF) == 0xBF) {
+            start = 3;
+        }
+        if (startsWith(raw, start, "<?xml")) {
+            int end = indexOf(raw, start, "?>");
+            if (end < 0) {
+                return null;
+            }
+            var declaration = new String(raw, start, end - start, StandardCharsets.US_ASCII).toLowerCase();
+            if (declaration.contains("encoding")
+                    && !declaration.matches("(?s).*encoding\\s*=\\s*[\"']utf-8[\"'].*")) {
+                return null;
+            }
+            start = end + 2;
+        }
+        int end = raw.length;
+        while (start < end && Character.isWhitespace(raw[start])) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(raw[end - 1])) {
+            end--;
+        }
+        return start == 0 && end == raw.length ? raw : Arrays.copyOfRange(raw, start, end);
+    }
+
+    private static boolean startsWith(byte[] data, int from, String prefix) {
+        if (data.length - from < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (data[from + i] != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(byte[] data, int from, String target) {
+        for (int i = from; i <= data.length - target.length(); i++) {
+            if (startsWith(data, i, target)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void writeLoop() {
+        List<Entry> batch = new ArrayList<>(MAX_BATCH);
+        boolean stop = false;
+        while (!stop) {
+            try {
+                Entry first = queue.poll(rotationPollMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    rotateIfExpired();
+                    syncIfDue(false);
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                int end = batch.indexOf(STOP);
+                if (end >= 0) {
+                    // STOP es lo último que se encola
+                    batch.remove(end);
+                    stop = true;
+                }
+                writeBatch(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                // Solo se para con STOP
+            }
+        }
+        closeCurrent();
+    }
+
+    private void writeBatch(List<Entry> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        List<FileChannel> perMessage = new ArrayList<>();
+        try {
+            for (Entry entry : batch) {
+                try {
+                    if (entry.fileName() != null) {
+                        var channel = FileChannel.open(directory.resolve(entry.fileName()), StandardOpenOption.CREATE,
+                                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                        perMessage.add(channel);
+                        writeFully(channel, ByteBuffer.wrap(entry.data()));
+                    } else {
+                        rotateIfNeeded(entry.data().length);
+                        writeFully(current, ByteBuffer.wrap(entry.data()), ByteBuffer.wrap(NEWLINE));
+                        currentBytes += entry.data().length + NEWLINE.length;
+                        dirty = true;
+                    }
+                    writtenCounter.increment();
+                } catch (IOException e) {
+                    errorCounter.increment();
+                    log.error("Error escribiendo en " + directory + ": " + e.getMessage(), e);
+                }
+            }
+
+            // Un único fsync por lote (o por intervalo en modo rolling)
+            for (FileChannel channel : perMessage) {
+                try {
+                    channel.force(false);
+                } catch (IOException e) {
+                    errorCounter.increment();
+                    log.error("Error sincronizando fichero en " + directory, e);
+                }
+            }
+            syncIfDue(true);
+        } finally {
+            for (FileChannel channel : perMessage) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    // ignorar
+                }
+            }
+            written.addAndGet(batch.size());
+            batchLatency.recordSince(start);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer... buffers) throws IOException {
+        long remaining = 0;
+        for (ByteBuffer buffer : buffers) {
+            remaining += buffer.remaining();
+        }
+        while (remaining > 0) {
+            remaining -= channel.write(buffers);
+        }
+    }
+
+    private void rotateIfNeeded(int nextLength) throws IOException {
+        if (current != null && currentBytes > 0
+                && (currentBytes + nextLength > maxBytes || isExpired())) {
+            closeCurrent();
+        }
+        if (current == null) {
+            currentPath = directory.resolve(prefix + "-" + LocalDateTime.now().format(FILE_TIME) + "-"
+                    + (sequence++) + ".xml");
+            current = FileChannel.open(currentPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            currentBytes = current.size();
+            currentOpenedAt = System.nanoTime();
+            log.debug(() -> "Abierto fichero " + currentPath);
+        }
+    }
+
+    private boolean isExpired() {
+        return maxAge != null && System.nanoTime() - currentOpenedAt >= maxAge.toNanos();
+    }
+
+    private void rotateIfExpired() {
+        if (current != null && isExpired()) {
+            closeCurrent();
+        }
+    }
+
+    private long rotationPollMillis() {
+        long millis = 100;
+        if (fsyncInterval != null && !fsyncInterval.isZero()) {
+            millis = Math.min(millis, fsyncInterval.toMillis());
+        }
+        return Math.max(1, millis);
+    }
+
+    private void syncIfDue(boolean afterBatch) {
+        if (current == null || !dirty) {
+            return;
+        }
+        long now = System.nanoTime();
+        boolean due = fsyncInterval == null || fsyncInterval.isZero()
+                ? afterBatch
+                : now - lastSync >= fsyncInterval.toNanos();
+        if (due) {
+            try {
+                current.force(false);
+                lastSync = now;
+                dirty = false;
+            } catch (IOException e) {
+                errorCounter.increment();
+                log.error("Error sincronizando " + currentPath, e);
+            }
+        }
+    }
+
+    private void closeCurrent() {
+        if (current == null) {
+            return;
+        }
+        try {
+            current.force(false);
+            current.close();
+        } catch (IOException e) {
+            errorCounter.increment();
+            log.error("Error cerrando " + currentPath, e);
+        }
+        current = null;
+        currentBytes = 0;
+        dirty = false;
+    }
+}
@@ -0,0 +1,143 @@
+package iia.dsl.framework.connectors;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+import org.w3c.dom.Document;
+
+import iia.dsl.framework.metrics.Counter;
+import iia.dsl.framework.metrics.MetricsRegistry;
+
+/**
+ * Agrupa las solicitudes idénticas que coinciden en el tiempo: la primera
+ * (líder) hace la llamada y las que llegan mientras está en curso esperan su
+ * resultado en lugar de repetirla. Cada una recibe su propia copia del
+ * documento, así que las respuestas pueden seguir caminos distintos y
+ * modificarse sin interferir; si la llamada falla, todas reciben el error.
+ *
+ * <p>
+ * Solo agrupa llamadas simultáneas: en cuanto la del líder termina, la
+ * siguiente solicitud con la misma clave vuelve a llamar (para reutilizar
+ * respuestas ya recibidas está {@link ResponseCache}). Publica el contador
+ * {@code <conector>.coalesced} con las llamadas ahorradas.
+ */
+class SingleFlight {
+
+    private final ConcurrentHashMap<String, Flight> flights = new ConcurrentHashMap<>();
+    private final Counter coalesced;
+
+    /**
+     * Llamada en curso. El documento original no se entrega a nadie si hubo
+     * seguidores: todos (líder incluido) reciben copias hechas bajo el lock,
+     * porque el DOM no admite lecturas concurrentes.
+     */
+    private static class Flight {
+        final CompletableFuture<Document> result = new CompletableFuture<>();
+        private int followers = 0;
+        private boolean closed = false;
+
+        synchronized boolean follow() {
+            if (closed) {
+                return false;
+            }
+            followers++;
+            return true;
+        }
+
+        synchronized boolean close() {
+            closed = true;
+            return followers > 0;
+        }
+
+        synchronized Document copy(Document doc) {
+            return doc == null ? null : (Document) doc.cloneNode(true);
+        }
+    }
+
+    SingleFlight(String metricsName) {
+        this.coalesced = MetricsRegistry.getInstance().counter(metricsName + ".coalesced");
+    }
+
+    /**
+     * Ejecuta la llamada o espera a la que ya esté en curso con la misma clave.
+     *
+     * @param key       Clave de la solicitud.
+     * @param operation La llamada.
+     * @return La respuesta.
+     * @throws Exception La excepción de la llamada (la del líder para los
+     *                   seguidores).
+     */
+    Document call(String key, Callable<Document> operation) throws Exception {
+        while (true) {
+            var flight = new Flight();
+            var existing = flights.putIfAbsent(key, flight);
+            if (existing == null) {
+                return lead(key, flight, operation);
+            }
+            if (existing.follow()) {
+                coalesced.increment();
+                try {
+                    return existing.copy(existing.result.get());
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception cause ? cause : e;
+                }
+            }
+            // El líder está terminando: esperar a que libere la clave
+            Thread.onSpinWait();
+        }
+    }
+
+    private Document lead(String key, Flight flight, Callable<Document> operation) throws Exception {
+        Document response;
+        try {
+            response = operation.call();
+        } catch (Exception e) {
+            flights.remove(key, flight);
+            flight.close();
+            flight.result.completeExceptionally(e);
+            throw e;
+        }
+        flights.remove(key, flight);
+        boolean shared = flight.close();
+        flight.result.complete(response);
+        return shared ? flight.copy(response) : response;
+    }
+
+    /**
+     * Versión asíncrona de {@link #call(String, Callable)}: los seguidores se
+     * enganchan al futuro de la llamada en curso.
+     *
+     * @param key       Clave de la solicitud.
+     * @param operation Inicia la llamada.
+     * @return El futuro con la respuesta.
+     */
+    CompletableFuture<Document> callAsync(String key, Supplier<CompletableFuture<Document>> operation) {
+        while (true) {
+            var flight = new Flight();
+            var existing = flights.putIfAbsent(key, flight);
+            if (existing == null) {
+                var mine = new CompletableFuture<Document>();
+                operation.get().whenComplete((response, error) -> {
+                    flights.remove(key, flight);
+                    boolean shared = flight.close();
+                    if (error != null) {
+                        flight.result.completeExceptionally(error);
+                        mine.completeExceptionally(error);
+                    } else {
+                        flight.result.complete(response);
+                        mine.complete(shared ? flight.copy(response) : response);
+                    }
+                });
+                return mine;
+            }
+            if (existing.follow()) {
+                coalesced.increment();
+                return existing.result.thenApply(existing::copy);
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -1,12 +1,14 @@
 package iia.dsl.framework.core;
 
-import java.util.UUID;
-
 /**
  * Clase base abstracta para todos los elementos del framework DSL.
- * Proporciona una identificación única (UUID) para cada componente.
+ * Proporciona una identificación única para cada componente. Los elementos
+ * creados sin id reciben uno del {@link IdGenerator} configurado (por defecto
+ * {@link IdGenerator#counter()}).
  */
 public abstract class Element {
+    private static volatile IdGenerator idGenerator = IdGenerator.counter();
+
     protected final String id;
 
     public Element(String id) {
@@ -14,7 +16,28 @@ public abstract class Element {
     }
 
     public Element() {
-        this.id = UUID.randomUUID().toString();
+        this.id = nextId();
+    }
+
+    /**
+     * Cambia el generador de ids para los elementos que se creen a partir de
+     * ahora.
+     * 
+     * @param generator El nuevo generador.
+     */
+    public static void setIdGenerator(IdGenerator generator) {
+        if (generator == null) {
+            throw new IllegalArgumentException("El generador de ids no puede ser null");
+        }
+        idGenerator = generator;
+    }
+
+    public static IdGenerator getIdGenerator() {
+        return idGenerator;
+    }
+
+    protected static String nextId() {
+        return idGenerator.nextId();
     }
 
     /**
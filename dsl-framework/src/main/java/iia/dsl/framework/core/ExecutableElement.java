@@ -2,10 +2,12 @@ package iia.dsl.framework.core;
 
 import iia.dsl.framework.core.policy.FifoPolicy;
 import iia.dsl.framework.core.policy.ExecutionPolicy;
+import iia.dsl.framework.logging.Log;
+import iia.dsl.framework.metrics.Counter;
+import iia.dsl.framework.metrics.LatencyHistogram;
+import iia.dsl.framework.metrics.MetricsRegistry;
 
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 
 /**
  * Base para elementos que pueden ser ejecutados (Tasks, Connectors, Flows).
@@ -18,6 +20,12 @@ public abstract class ExecutableElement extends Element implements Runnable, Slo
     protected final AtomicInteger workCount = new AtomicInteger(0);
     protected boolean concurrent = false;
     protected ExecutionPolicy policy = new FifoPolicy();
+    // Entorno de ejecución asignado (null = entorno global)
+    protected ExecutionEnvironment environment;
+    // Métricas (se crean en la primera ejecución)
+    private volatile LatencyHistogram executeLatency;
+    private volatile Counter executeErrors;
+    private volatile Log log;
 
     public ExecutableElement() {
         super();
@@ -34,6 +42,15 @@ public abstract class ExecutableElement extends Element implements Runnable, Slo
      */
     public abstract void execute() throws Exception;
 
+    /**
+     * Prepara el elemento antes de que el flujo empiece a procesar mensajes
+     * (p. ej. compilar hojas de estilo XSLT). Por defecto no hace nada.
+     * 
+     * @throws Exception Si la configuración del elemento no es válida.
+     */
+    public void prepare() throws Exception {
+    }
+
     /**
      * Define si el elemento debe ejecutarse de forma concurrente,
      * utilizando el ExecutionEnvironment.
@@ -67,10 +84,82 @@ public abstract class ExecutableElement extends Element implements Runnable, Slo
         return policy;
     }
 
+    /**
+     * Asigna el entorno de ejecución en el que se programará este elemento.
+     * 
+     * @param environment El entorno, o null para usar el global.
+     */
+    public void setEnvironment(ExecutionEnvironment environment) {
+        this.environment = environment;
+    }
+
+    /**
+     * Obtiene el entorno de ejecución del elemento.
+     * 
+     * @return El entorno asignado o, si no tiene, el entorno global.
+     */
+    public ExecutionEnvironment getEnvironment() {
+        return environment != null ? environment : ExecutionEnvironment.getInstance();
+    }
+
     public int getWorkCount() {
         return workCount.get();
     }
 
+    /**
+     * Prefijo de las métricas de este elemento en el {@link MetricsRegistry}.
+     * 
+     * @return {@code <tipo>.<id>}, p. ej. {@code task.splitter}.
+     */
+    public String getMetricsName() {
+        return "element." + (id != null ? id : getClass().getSimpleName());
+    }
+
+    private LatencyHistogram executeLatency() {
+        var histogram = executeLatency;
+        if (histogram == null) {
+            histogram = MetricsRegistry.getInstance().histogram(getMetricsName() + ".execute");
+            executeLatency = histogram;
+        }
+        return histogram;
+    }
+
+    /**
+     * Log del elemento. Usa como origen el mismo nombre que las métricas, de modo
+     * que el nivel y el muestreo pueden configurarse por elemento o por tipo
+     * (p. ej. {@code Log.setSampling("task.", 100)}).
+     * 
+     * @return El log asociado a {@link #getMetricsName()}.
+     */
+    protected Log log() {
+        var current = log;
+        if (current == null) {
+            current = Log.get(getMetricsName());
+            log = current;
+        }
+        return current;
+    }
+
+    private Counter executeErrors() {
+        var counter = executeErrors;
+        if (counter == null) {
+            counter = MetricsRegistry.getInstance().counter(getMetricsName() + ".errors");
+            executeErrors = counter;
+        }
+        return counter;
+    }
+
+    /**
+     * Indica si la ejecución del elemento realiza E/S bloqueante (red, disco,
+     * JDBC). En {@link ExecutionMode#VIRTUAL} estos elementos se ejecutan en
+     * hilos virtuales.
+     * 
+     * @return false por defecto (elemento CPU-bound).
+     */
+    public boolean isBlocking() {
+        return false;
+    }
+
     /**
      * Método invocado cuando un Slot observado recibe un nuevo mensaje.
      * Desencadena la ejecución del elemento según su modo (secuencial o
@@ -98,7 +187,7 @@ public abstract class ExecutableElement extends Element implements Runnable, Slo
         // If we were > 0, the running thread will pick it up on its next
         // loop/resubmission.
         if (workCount.getAndIncrement() == 0) {
-            ExecutionEnvironment.getInstance().submit(this);
+            getEnvironment().submit(this);
         }
     }
 
@@ -111,14 +200,15 @@ public abstract class ExecutableElement extends Element implements Runnable, Slo
     public void run() {
         try {
             // Execute ONE unit of work (or drain queue depending on impl)
+            long start = System.nanoTime();
             try {
                 execute();
             } catch (Exception ex) {
-                System.err.println("[ERROR] Error executing element " + (id != null ? id : "unnamed") + ": "
-                        + ex.getMessage());
-                ex.printStackTrace();
-                Logger.getLogger(ExecutableElement.class.getName()).log(Level.SEVERE,
-                        "Error executing element " + id, ex);
+                executeErrors().increment();
+                log().error("Error executing element " + (id != null ? id : "unnamed") + ": " + ex.getMessage(),
+                        ex);
+            } finally {
+                executeLatency().recordSince(start);
             }
 
             // Decrement work count. If there is still work pending, RESUBMIT to the queue.
@@ -126,12 +216,11 @@ public abstract class ExecutableElement extends Element implements Runnable, Slo
             // decide again.
             // ONLY in concurrent mode.
             if (concurrent && workCount.decrementAndGet() > 0) {
-                ExecutionEnvironment.getInstance().submit(this);
+                getEnvironment().submit(this);
             }
 
         } catch (Exception e) {
-            System.err.println("[CRITICAL] Catastrophic failure in element " + (id != null ? id : "unnamed"));
-            e.printStackTrace();
+            log().error("Catastrophic failure in element " + (id != null ? id : "unnamed"), e);
             // Reset in case of catastrophic failure to avoid stuck state
             workCount.set(0);
         }
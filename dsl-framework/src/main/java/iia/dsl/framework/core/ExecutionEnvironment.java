@@ -1,39 +1,287 @@
 package iia.dsl.framework.core;
 
+import java.util.Collection;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import iia.dsl.framework.metrics.MetricsRegistry;
+
 /**
- * Singleton que gestiona el entorno de ejecución global (ThreadPool) para el
- * framework.
+ * Gestiona un entorno de ejecución (ThreadPool) para el framework.
  * Soporta la ejecución de tareas priorizadas y la gestión del ciclo de vida de
  * los hilos.
+ * 
+ * <p>
+ * Existe una instancia global ({@link #getInstance()}) usada por defecto, y se
+ * pueden crear entornos independientes con {@link #builder()} para asignarlos
+ * a un Flow ({@link Flow.Builder#executor(ExecutionEnvironment)}) y aislar así
+ * su carga de la del resto de flujos de la JVM.
+ * 
+ * <p>
+ * En modo {@link ExecutionMode#VIRTUAL} los elementos bloqueantes se ejecutan en
+ * hilos virtuales para que las esperas de E/S (JDBC, HTTP) no acaparen los
+ * hilos del pool de tareas CPU-bound.
+ * 
+ * <p>
+ * Cada entorno publica en el {@link MetricsRegistry} los gauges
+ * {@code executor.<nombre>.queue}, {@code executor.<nombre>.active} y
+ * {@code executor.<nombre>.pending}.
  */
 public class ExecutionEnvironment {
+    private static final int DEFAULT_PLATFORM_THREADS = 4;
+
     private static ExecutionEnvironment instance;
-    private final ThreadPoolExecutor executor;
+    private static ExecutionMode configuredMode = ExecutionMode.PLATFORM;
+    private static int configuredThreads = DEFAULT_PLATFORM_THREADS;
+    // Numera los entornos sin nombre: el nombre es el prefijo de sus métricas
+    private static final AtomicInteger UNNAMED = new AtomicInteger(0);
+
+    private final String name;
+    private final ExecutorService executor; // ThreadPoolExecutor o ForkJoinPool (WORK_STEALING)
+    private final ExecutorService virtualExecutor; // null en modo PLATFORM
+    private final ExecutionMode mode;
+    private final QueueType queueType;
     private final AtomicInteger activeCount = new AtomicInteger(0);
 
-    private ExecutionEnvironment() {
-        // Usamos un PriorityBlockingQueue para ordenar las tareas según su política.
-        // Core pool size: 4 (ajustable), Max pool size: Integer.MAX_VALUE (crece si es
-        // necesario)
-        // Keep alive: 60s
-        this.executor = new ThreadPoolExecutor(
-                4, Integer.MAX_VALUE,
-                60L, TimeUnit.SECONDS,
-                new PriorityBlockingQueue<>());
+    private ExecutionEnvironment(String name, ExecutionMode mode, int platformThreads, QueueType queueType) {
+        this.name = name;
+        this.mode = mode;
+        this.queueType = queueType;
+        if (queueType == QueueType.WORK_STEALING) {
+            // asyncMode = true: deques locales en orden FIFO (adecuado para event-style
+            // tasks que nunca hacen join)
+            this.executor = new ForkJoinPool(platformThreads, forkJoinThreadFactory(name), null, true);
+        } else {
+            // Usamos un PriorityBlockingQueue para ordenar las tareas según su política
+            // (o una cola FIFO simple si se pide).
+            // Al ser una cola sin límite el pool nunca crece por encima del core size,
+            // por lo que core == max.
+            // Keep alive: 60s
+            BlockingQueue<Runnable> queue = queueType == QueueType.PRIORITY
+                    ? new PriorityBlockingQueue<>()
+                    : new LinkedBlockingQueue<>();
+            this.executor = new ThreadPoolExecutor(
+                    platformThreads, platformThreads,
+                    60L, TimeUnit.SECONDS,
+                    queue, threadFactory(name));
+        }
+        this.virtualExecutor = mode == ExecutionMode.VIRTUAL
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : null;
+
+        var metrics = MetricsRegistry.getInstance();
+        metrics.gauge(metricsPrefix() + "queue", this::getQueueLength);
+        metrics.gauge(metricsPrefix() + "active", this::getActiveThreads);
+        metrics.gauge(metricsPrefix() + "pending", activeCount::get);
+    }
+
+    private String metricsPrefix() {
+        return "executor." + name + ".";
+    }
+
+    private static ThreadFactory threadFactory(String name) {
+        AtomicInteger counter = new AtomicInteger(0);
+        return runnable -> {
+            return new Thread(runnable, "dsl-" + name + "-" + counter.incrementAndGet());
+        };
+    }
+
+    private static ForkJoinPool.ForkJoinWorkerThreadFactory forkJoinThreadFactory(String name) {
+        AtomicInteger counter = new AtomicInteger(0);
+        return pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("dsl-" + name + "-" + counter.incrementAndGet());
+            return thread;
+        };
     }
 
     public static synchronized ExecutionEnvironment getInstance() {
         if (instance == null) {
-            instance = new ExecutionEnvironment();
+            instance = new ExecutionEnvironment("global", configuredMode, configuredThreads, QueueType.PRIORITY);
         }
         return instance;
     }
 
+    /**
+     * Crea un nuevo Builder para construir entornos de ejecución independientes
+     * del global.
+     * 
+     * @return Una nueva instancia de ExecutionEnvironment.Builder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private String name;
+        private int threads = DEFAULT_PLATFORM_THREADS;
+        private QueueType queueType = QueueType.PRIORITY;
+        private ExecutionMode mode = ExecutionMode.PLATFORM;
+
+        /**
+         * Asigna un nombre al entorno (se usa como prefijo de los hilos y de
+         * las métricas {@code executor.<name>.*}, así que debe ser único). Sin
+         * nombre se usa {@code flow-<n>}.
+         * 
+         * @param name El nombre del entorno.
+         * @return El Builder actual.
+         */
+        public Builder name(String name) {
+            this.name = name;
+            return this;
+        }
+
+        /**
+         * Número de hilos de plataforma del pool.
+         * 
+         * @param threads Número de hilos (mayor que 0).
+         * @return El Builder actual.
+         */
+        public Builder threads(int threads) {
+            if (threads <= 0) {
+                throw new IllegalArgumentException("El número de hilos debe ser mayor que 0");
+            }
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Tipo de cola de trabajo del pool.
+         * 
+         * @param queueType PRIORITY (respeta las políticas), FIFO o WORK_STEALING.
+         * @return El Builder actual.
+         */
+        public Builder queue(QueueType queueType) {
+            this.queueType = queueType;
+            return this;
+        }
+
+        /**
+         * Modo de ejecución (hilos de plataforma o virtuales para elementos
+         * bloqueantes).
+         * 
+         * @param mode El modo de ejecución.
+         * @return El Builder actual.
+         */
+        public Builder mode(ExecutionMode mode) {
+            this.mode = mode;
+            return this;
+        }
+
+        public ExecutionEnvironment build() {
+            String envName = name != null ? name : "flow-" + UNNAMED.incrementAndGet();
+            return new ExecutionEnvironment(envName, mode, threads, queueType);
+        }
+    }
+
+    /**
+     * Configura el modo de ejecución del entorno global. Debe invocarse antes de
+     * que se cree la instancia (antes de ejecutar cualquier Flow concurrente).
+     * 
+     * @param mode            Modo de ejecución.
+     * @param platformThreads Número de hilos de plataforma para las tareas
+     *                        CPU-bound.
+     * @throws IllegalStateException Si el entorno ya se ha inicializado.
+     */
+    public static synchronized void configure(ExecutionMode mode, int platformThreads) {
+        if (instance != null) {
+            throw new IllegalStateException("ExecutionEnvironment ya inicializado; configure antes de usarlo");
+        }
+        if (platformThreads <= 0) {
+            throw new IllegalArgumentException("El número de hilos debe ser mayor que 0");
+        }
+        configuredMode = mode;
+        configuredThreads = platformThreads;
+    }
+
+    /**
+     * Configura el modo de ejecución del entorno global. En modo VIRTUAL el pool
+     * de plataforma se dimensiona al número de procesadores disponibles.
+     * 
+     * @param mode Modo de ejecución.
+     */
+    public static void configure(ExecutionMode mode) {
+        configure(mode, mode == ExecutionMode.VIRTUAL
+                ? Runtime.getRuntime().availableProcessors()
+                : DEFAULT_PLATFORM_THREADS);
+    }
+
+    public ExecutionMode getMode() {
+        return mode;
+    }
+
+    public QueueType getQueueType() {
+        return queueType;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Número de tareas esperando en la cola del pool de plataforma.
+     * 
+     * @return Longitud actual de la cola.
+     */
+    public int getQueueLength() {
+        if (executor instanceof ForkJoinPool pool) {
+            return (int) Math.min(Integer.MAX_VALUE, pool.getQueuedSubmissionCount() + pool.getQueuedTaskCount());
+        }
+        return ((ThreadPoolExecutor) executor).getQueue().size();
+    }
+
+    /**
+     * Número aproximado de hilos de plataforma ejecutando tareas.
+     * 
+     * @return Hilos activos.
+     */
+    public int getActiveThreads() {
+        if (executor instanceof ForkJoinPool pool) {
+            return pool.getActiveThreadCount();
+        }
+        return ((ThreadPoolExecutor) executor).getActiveCount();
+    }
+
+    /**
+     * Indica si el entorno no tiene tareas pendientes ni en ejecución.
+     * 
+     * @return true si no hay actividad.
+     */
+    public boolean isIdle() {
+        return activeCount.get() == 0;
+    }
+
+    /**
+     * Registra trabajo que continúa fuera del pool (p. ej. una petición HTTP
+     * asíncrona) para que {@link #waitForQuiescence(long)} lo espere. Cada
+     * llamada debe emparejarse con {@link #endExternalWork()}.
+     */
+    public void beginExternalWork() {
+        activeCount.incrementAndGet();
+    }
+
+    /**
+     * Marca como terminado un trabajo registrado con
+     * {@link #beginExternalWork()}.
+     */
+    public void endExternalWork() {
+        if (activeCount.decrementAndGet() == 0) {
+            synchronized (activeCount) {
+                activeCount.notifyAll();
+            }
+        }
+    }
+
     /**
      * Common interface for items in the priority queue.
      */
@@ -50,6 +298,30 @@ public class ExecutionEnvironment {
     public void submit(Runnable task) {
         activeCount.incrementAndGet();
 
+        // Los elementos bloqueantes no ocupan hilos de plataforma en modo VIRTUAL
+        if (virtualExecutor != null && task instanceof ExecutableElement element && element.isBlocking()) {
+            virtualExecutor.execute(new PrioritizedRunnableWrapper(task, activeCount));
+            return;
+        }
+
+        // Work-stealing: sin prioridad ni timestamps. Desde un hilo del propio pool
+        // se encola en la deque local del trabajador, evitando la cola compartida.
+        if (queueType == QueueType.WORK_STEALING) {
+            Runnable wrapper = new PrioritizedRunnableWrapper(task, activeCount);
+            if (Thread.currentThread() instanceof ForkJoinWorkerThread worker && worker.getPool() == executor) {
+                ForkJoinTask.adapt(wrapper).fork();
+            } else {
+                executor.execute(wrapper);
+            }
+            return;
+        }
+
+        // En una cola FIFO no hace falta calcular prioridad ni tomar timestamps
+        if (queueType == QueueType.FIFO) {
+            executor.execute(new PrioritizedRunnableWrapper(task, activeCount));
+            return;
+        }
+
         QueueItem prioritizedRunnable;
         if (task instanceof ExecutableElement element) {
             prioritizedRunnable = new PrioritizedTask(element, System.nanoTime(), activeCount);
@@ -119,10 +391,35 @@ public class ExecutionEnvironment {
     }
 
     /**
-     * Cierra el ThreadPoolExecutor, rechazando nuevas tareas.
+     * Espera a que varios entornos alcancen la quietud simultáneamente. Útil
+     * cuando los flujos de un mismo proceso usan ejecutores distintos y el
+     * trabajo pasa de unos a otros.
+     * 
+     * @param inactivityWindowMillis Ventana de inactividad exigida a cada
+     *                               entorno.
+     * @param environments           Los entornos a esperar.
+     */
+    public static void waitForQuiescence(long inactivityWindowMillis, Collection<ExecutionEnvironment> environments) {
+        while (!Thread.currentThread().isInterrupted()) {
+            for (ExecutionEnvironment environment : environments) {
+                environment.waitForQuiescence(inactivityWindowMillis);
+            }
+            if (environments.stream().allMatch(ExecutionEnvironment::isIdle)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Cierra el ThreadPoolExecutor (y el ejecutor de hilos virtuales, si existe),
+     * rechazando nuevas tareas.
      */
     public void shutdown() {
+        MetricsRegistry.getInstance().remove(metricsPrefix());
         executor.shutdown();
+        if (virtualExecutor != null) {
+            virtualExecutor.shutdown();
+        }
     }
 
     /**
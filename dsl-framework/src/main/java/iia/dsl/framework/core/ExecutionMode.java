@@ -0,0 +1,15 @@
+package iia.dsl.framework.core;
+
+/**
+ * Modo de ejecución del {@link ExecutionEnvironment}.
+ * - PLATFORM: Todos los elementos se ejecutan en el ThreadPool de hilos de
+ * plataforma.
+ * - VIRTUAL: Los elementos bloqueantes (ver
+ * {@link ExecutableElement#isBlocking()}, p. ej. conectores JDBC o HTTP) se
+ * ejecutan en hilos virtuales, mientras que las tareas CPU-bound permanecen en
+ * un pool de hilos de plataforma dimensionado al número de procesadores.
+ */
+public enum ExecutionMode {
+    PLATFORM,
+    VIRTUAL
+}
@@ -1,10 +1,17 @@
 package iia.dsl.framework.core;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import iia.dsl.framework.connectors.Connector;
 import iia.dsl.framework.core.policy.ExecutionPolicy;
+import iia.dsl.framework.metrics.MetricsRegistry;
+import iia.dsl.framework.ports.InputPort;
+import iia.dsl.framework.ports.OutputPort;
+import iia.dsl.framework.ports.Port;
+import iia.dsl.framework.ports.RequestPort;
 import iia.dsl.framework.tasks.Task;
 
 /**
@@ -18,6 +25,11 @@ public class Flow extends ExecutableElement {
     private final List<ExecutableElement> elements;
     private boolean concurrent;
     private ExecutionPolicy executionPolicy;
+    // Capacidad por defecto para los Slots de los elementos (UNBOUNDED = sin límite)
+    private int slotCapacity = Slot.UNBOUNDED;
+    private OverflowStrategy overflowStrategy = OverflowStrategy.BLOCK;
+    // Ejecutor creado por el Builder para este Flow: shutdown() lo cierra
+    private ExecutionEnvironment ownEnvironment;
 
     private Flow(String id, boolean concurrent) {
         super(id);
@@ -60,6 +72,11 @@ public class Flow extends ExecutableElement {
         private String id;
         private boolean concurrent = false;
         private ExecutionPolicy policy;
+        private int slotCapacity = Slot.UNBOUNDED;
+        private OverflowStrategy overflowStrategy = OverflowStrategy.BLOCK;
+        private ExecutionEnvironment environment;
+        private int executorThreads = 0;
+        private QueueType executorQueue = QueueType.PRIORITY;
 
         /**
          * Asigna un identificador al Flow.
@@ -88,11 +105,75 @@ public class Flow extends ExecutableElement {
                 policy = new iia.dsl.framework.core.policy.FifoPolicy();
             }
 
+            Flow flow;
             if (id != null) {
-                return new Flow(id, concurrent, policy);
+                flow = new Flow(id, concurrent, policy);
             } else {
-                return new Flow(concurrent, policy);
+                flow = new Flow(concurrent, policy);
             }
+            if (slotCapacity != Slot.UNBOUNDED) {
+                flow.setSlotCapacity(slotCapacity, overflowStrategy);
+            }
+            if (environment == null && executorThreads > 0) {
+                var environmentBuilder = ExecutionEnvironment.builder()
+                        .threads(executorThreads)
+                        .queue(executorQueue);
+                if (id != null) {
+                    environmentBuilder.name(id);
+                }
+                flow.ownEnvironment = environmentBuilder.build();
+                flow.setEnvironment(flow.ownEnvironment);
+            } else {
+                flow.setEnvironment(environment);
+            }
+            return flow;
+        }
+
+        /**
+         * Asigna un ejecutor propio al Flow. Sus elementos se programarán en él y
+         * los Flows anidados lo heredarán salvo que definan el suyo.
+         * 
+         * @param environment El entorno de ejecución del Flow.
+         * @return El Builder actual.
+         */
+        public Builder executor(ExecutionEnvironment environment) {
+            this.environment = environment;
+            this.executorThreads = 0;
+            return this;
+        }
+
+        /**
+         * Crea y asigna un ejecutor propio al Flow.
+         * 
+         * @param threads   Número de hilos del pool.
+         * @param queueType Tipo de cola de trabajo.
+         * @return El Builder actual.
+         */
+        public Builder executor(int threads, QueueType queueType) {
+            if (threads <= 0) {
+                throw new IllegalArgumentException("El número de hilos debe ser mayor que 0");
+            }
+            this.environment = null;
+            this.executorThreads = threads;
+            this.executorQueue = queueType;
+            return this;
+        }
+
+        /**
+         * Acota todos los Slots de los elementos del Flow que no tengan una
+         * capacidad configurada explícitamente.
+         * 
+         * @param capacity Número máximo de mensajes en memoria por Slot.
+         * @param strategy Estrategia a aplicar cuando un Slot está lleno.
+         * @return El Builder actual.
+         */
+        public Builder slotCapacity(int capacity, OverflowStrategy strategy) {
+            if (capacity <= 0) {
+                throw new IllegalArgumentException("La capacidad del Slot debe ser mayor que 0");
+            }
+            this.slotCapacity = capacity;
+            this.overflowStrategy = strategy;
+            return this;
         }
 
         /**
@@ -120,6 +201,19 @@ public class Flow extends ExecutableElement {
         this.executionPolicy = executionPolicy;
     }
 
+    /**
+     * Establece la capacidad por defecto de los Slots de este flujo.
+     * Se aplica al ejecutar el Flow sobre los Slots aún no configurados y se
+     * hereda por los Flows anidados que no definan la suya.
+     * 
+     * @param capacity Número máximo de mensajes en memoria por Slot.
+     * @param strategy Estrategia a aplicar cuando un Slot está lleno.
+     */
+    public void setSlotCapacity(int capacity, OverflowStrategy strategy) {
+        this.slotCapacity = capacity;
+        this.overflowStrategy = strategy;
+    }
+
     /**
      * Añade un elemento ejecutable (Task, Connector o Flow) a este flujo.
      * 
@@ -134,6 +228,31 @@ public class Flow extends ExecutableElement {
         }
     }
 
+    @Override
+    public String getMetricsName() {
+        return "flow." + (id != null ? id : "unnamed");
+    }
+
+    /**
+     * Prepara todos los elementos del flujo (incluidos los Flows anidados) antes
+     * de arrancar, de forma que los errores de configuración (p. ej. XSLT mal
+     * formados) se detecten al inicio y no con el primer mensaje.
+     * 
+     * @throws Exception Si algún elemento no puede prepararse.
+     */
+    @Override
+    public void prepare() throws Exception {
+        for (ExecutableElement element : elements) {
+            try {
+                element.prepare();
+            } catch (Exception e) {
+                throw new Exception("Error preparando el elemento '"
+                        + (element.getId() != null ? element.getId() : element.getClass().getSimpleName()) + "': "
+                        + e.getMessage(), e);
+            }
+        }
+    }
+
     /**
      * Inicia la ejecución del flujo.
      * En modo concurrente, programa los conectores de origen.
@@ -143,21 +262,31 @@ public class Flow extends ExecutableElement {
      */
     @Override
     public void execute() throws Exception {
+        prepare();
+
         boolean shouldLog = concurrent || hasActiveElements();
 
         if (shouldLog) {
-            System.out.println(
-                    "Iniciando Flow: " + (id != null ? id : "unnamed") + " [Concurrent: " + concurrent + "]");
+            log().info("Iniciando Flow: " + (id != null ? id : "unnamed") + " [Concurrent: " + concurrent + "]");
         }
 
-        // Propagate concurrency and policy to elements
+        // Propagate concurrency, policy and executor to elements
         for (ExecutableElement element : elements) {
             element.setConcurrent(concurrent);
             if (executionPolicy != null) {
                 element.setPolicy(executionPolicy);
             }
+            // Nested flows keep their own executor if they define one
+            if (!(element instanceof Flow) || element.environment == null) {
+                element.setEnvironment(environment);
+            }
+            if (slotCapacity != Slot.UNBOUNDED) {
+                applySlotCapacity(element);
+            }
         }
 
+        registerSlotMetrics();
+
         if (concurrent) {
             // CONCURRENT MODE: Kickstart execution via ThreadPool
             // BUG FIX: Must call scheduleExecution to correctly increment workCount.
@@ -169,19 +298,19 @@ public class Flow extends ExecutableElement {
             // via SlotListener.
             for (ExecutableElement element : elements) {
                 if (element instanceof Connector connector && connector.isSource()) {
-                    System.out.println("DEBUG: Scheduling Source Connector: "
+                    log().debug(() -> "Scheduling Source Connector: "
                             + (element.getId() != null ? element.getId() : element.getClass().getSimpleName()));
                     element.scheduleExecution();
                 } else if (element instanceof Flow) {
-                    System.out.println(
-                            "DEBUG: Executing Nested Flow: " + (element.getId() != null ? element.getId() : "unnamed"));
+                    log().debug(() -> "Executing Nested Flow: "
+                            + (element.getId() != null ? element.getId() : "unnamed"));
                     element.execute();
                 } else {
                     // Do nothing. Tasks are triggered by onMessageAvailable.
                 }
             }
             if (shouldLog) {
-                System.out.println("Flow iniciado en modo CONCURRENTE (ejecución asíncrona en progreso)");
+                log().info("Flow iniciado en modo CONCURRENTE (ejecución asíncrona en progreso)");
             }
         } else {
             // SEQUENTIAL MODE: Execute elements in order in the current thread
@@ -194,16 +323,151 @@ public class Flow extends ExecutableElement {
                     }
                     // Tasks and other connectors are triggered via listeners (DFS)
                 } catch (Exception e) {
-                    System.err.println("[WARNING] Error executing sequential element "
+                    log().warn("Error executing sequential element "
                             + (element.getId() != null ? element.getId() : element.getClass().getSimpleName()) + ": "
                             + e.getMessage());
                     // Continue with next element
                 }
             }
             if (shouldLog) {
-                System.out.println("\nFlow completado exitosamente en modo SECUENCIAL\n");
+                log().info("Flow completado exitosamente en modo SECUENCIAL");
+            }
+        }
+    }
+
+    /**
+     * Aplica la capacidad por defecto del flujo a los Slots de un elemento que no
+     * tengan una configurada. Los Flows anidados heredan la capacidad si no
+     * definen la suya.
+     */
+    private void applySlotCapacity(ExecutableElement element) {
+        if (element instanceof Flow flow) {
+            if (flow.slotCapacity == Slot.UNBOUNDED) {
+                flow.setSlotCapacity(slotCapacity, overflowStrategy);
+            }
+        } else {
+            slotsOf(element).forEach(this::applySlotCapacity);
+        }
+    }
+
+    /**
+     * Slots de entrada y salida de una tarea o conector.
+     */
+    private static List<Slot> slotsOf(ExecutableElement element) {
+        List<Slot> slots = new ArrayList<>();
+        if (element instanceof Task task) {
+            slots.addAll(task.getInputSlots());
+            slots.addAll(task.getOutputSlots());
+        } else if (element instanceof Connector connector) {
+            Port port = connector.getPort();
+            if (port instanceof InputPort inputPort) {
+                slots.add(inputPort.getOutputSlot());
+            } else if (port instanceof OutputPort outputPort) {
+                slots.add(outputPort.getInputSlot());
+            } else if (port instanceof RequestPort requestPort) {
+                slots.add(requestPort.getInputSlot());
+                slots.add(requestPort.getOutputSlot());
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Obtiene todos los Slots que conectan los elementos del flujo, incluidos
+     * los de los Flows anidados.
+     * 
+     * @return Conjunto de Slots (sin duplicados, en orden de aparición).
+     */
+    public Set<Slot> getSlots() {
+        Set<Slot> slots = new LinkedHashSet<>();
+        for (ExecutableElement element : elements) {
+            if (element instanceof Flow flow) {
+                slots.addAll(flow.getSlots());
+            } else {
+                slots.addAll(slotsOf(element));
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Publica los gauges de profundidad de los Slots del flujo en el
+     * {@link MetricsRegistry}: {@code slot.<id>.depth}, {@code .peak},
+     * {@code .dropped} y {@code .spilled}.
+     */
+    private void registerSlotMetrics() {
+        var metrics = MetricsRegistry.getInstance();
+        for (Slot slot : getSlots()) {
+            if (slot == null) {
+                continue;
+            }
+            String prefix = "slot." + slot.getId() + ".";
+            metrics.gauge(prefix + "depth", slot::getMessageCount);
+            metrics.gauge(prefix + "peak", slot::getPeakMessageCount);
+            metrics.gauge(prefix + "dropped", slot::getDroppedCount);
+            metrics.gauge(prefix + "spilled", slot::getSpilledCount);
+        }
+    }
+
+    private void removeSlotMetrics() {
+        var metrics = MetricsRegistry.getInstance();
+        for (Slot slot : getSlots()) {
+            if (slot != null) {
+                metrics.remove("slot." + slot.getId() + ".");
+            }
+        }
+    }
+
+    private void applySlotCapacity(Slot slot) {
+        if (!slot.isCapacityConfigured()) {
+            slot.setCapacity(slotCapacity, overflowStrategy);
+        }
+    }
+
+    /**
+     * Obtiene los entornos de ejecución usados por este Flow y sus Flows
+     * anidados.
+     * 
+     * @return Conjunto de entornos (incluye el global si algún Flow no define
+     *         uno propio).
+     */
+    public Set<ExecutionEnvironment> getEnvironments() {
+        Set<ExecutionEnvironment> environments = new LinkedHashSet<>();
+        environments.add(getEnvironment());
+        for (ExecutableElement element : elements) {
+            if (element instanceof Flow flow) {
+                environments.addAll(flow.getEnvironments());
+            }
+        }
+        return environments;
+    }
+
+    /**
+     * Espera a que todos los entornos de ejecución del Flow alcancen la quietud.
+     * 
+     * @param inactivityWindowMillis Ventana de inactividad exigida.
+     */
+    public void waitForQuiescence(long inactivityWindowMillis) {
+        ExecutionEnvironment.waitForQuiescence(inactivityWindowMillis, getEnvironments());
+    }
+
+    /**
+     * Cierra los ejecutores que crearon este Flow y sus Flows anidados (con
+     * {@link Builder#executor(int, QueueType)}) y retira los gauges de sus
+     * Slots del {@link MetricsRegistry}. Los entornos recibidos con
+     * {@link Builder#executor(ExecutionEnvironment)} y el global pueden estar
+     * compartidos con otros Flows: los cierra quien los creó.
+     */
+    public void shutdown() {
+        if (ownEnvironment != null) {
+            ownEnvironment.shutdown();
+        }
+        for (ExecutableElement element : elements) {
+            if (element instanceof Flow flow) {
+                flow.shutdown();
             }
         }
+        removeSlotMetrics();
     }
 
     private boolean hasActiveElements() {
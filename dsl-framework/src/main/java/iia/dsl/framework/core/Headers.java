@@ -0,0 +1,196 @@
+package iia.dsl.framework.core;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Cabeceras de un {@link Message}: mapa inmutable respaldado por dos arrays.
+ *
+ * <p>
+ * Los mensajes llevan casi siempre de una a tres cabeceras, así que buscar en
+ * un array es más barato que un {@code HashMap}. Al ser inmutables, los
+ * mensajes derivados de otro (un Translator, un Splitter...) comparten la misma
+ * instancia sin copiarla; {@link #with(String, String)} y
+ * {@link #without(String)} devuelven una nueva versión y dejan intacta la
+ * anterior. Las claves conocidas ({@code correlation-id}, {@code num-frag}...)
+ * se guardan como la constante de {@link Message}, de modo que casi todas las
+ * búsquedas se resuelven comparando referencias.
+ */
+public final class Headers extends AbstractMap<String, String> {
+
+    private static final String[] WELL_KNOWN = {
+            Message.CORRELATION_ID, Message.NUM_FRAG, Message.TOTAL_FRAG, Message.FRAG_STREAM,
+            Message.SOURCE_PATH };
+
+    private static final Headers EMPTY = new Headers(new String[0], new String[0]);
+
+    private final String[] keys;
+    private final String[] values;
+
+    private Headers(String[] keys, String[] values) {
+        this.keys = keys;
+        this.values = values;
+    }
+
+    public static Headers empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Obtiene unas cabeceras con el contenido de un mapa. Si ya es un
+     * {@code Headers} se devuelve tal cual, sin copiarlo.
+     *
+     * @param map Las cabeceras de origen.
+     * @return Las cabeceras inmutables.
+     */
+    public static Headers of(Map<String, String> map) {
+        if (map instanceof Headers headers) {
+            return headers;
+        }
+        if (map == null || map.isEmpty()) {
+            return EMPTY;
+        }
+        var keys = new String[map.size()];
+        var values = new String[map.size()];
+        int i = 0;
+        for (var entry : map.entrySet()) {
+            keys[i] = intern(entry.getKey());
+            values[i] = entry.getValue();
+            i++;
+        }
+        return new Headers(keys, values);
+    }
+
+    /**
+     * Devuelve la instancia canónica de una clave conocida, o la propia clave.
+     */
+    private static String intern(String key) {
+        for (String known : WELL_KNOWN) {
+            if (known.equals(key)) {
+                return known;
+            }
+        }
+        return key;
+    }
+
+    private int indexOf(Object key) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == key) {
+                return i;
+            }
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Devuelve unas cabeceras con {@code key} asociada a {@code value}.
+     *
+     * @param key   Clave de la cabecera.
+     * @param value Valor de la cabecera.
+     * @return Las nuevas cabeceras (o estas mismas si no cambia nada).
+     */
+    public Headers with(String key, String value) {
+        Objects.requireNonNull(key, "La clave de la cabecera no puede ser null");
+        int index = indexOf(key);
+        if (index >= 0) {
+            if (Objects.equals(values[index], value)) {
+                return this;
+            }
+            var newValues = values.clone();
+            newValues[index] = value;
+            return new Headers(keys, newValues);
+        }
+        var newKeys = Arrays.copyOf(keys, keys.length + 1);
+        var newValues = Arrays.copyOf(values, values.length + 1);
+        newKeys[keys.length] = intern(key);
+        newValues[values.length] = value;
+        return new Headers(newKeys, newValues);
+    }
+
+    /**
+     * Devuelve unas cabeceras sin {@code key}.
+     *
+     * @param key Clave de la cabecera.
+     * @return Las nuevas cabeceras (o estas mismas si no la contenían).
+     */
+    public Headers without(String key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return this;
+        }
+        if (keys.length == 1) {
+            return EMPTY;
+        }
+        var newKeys = new String[keys.length - 1];
+        var newValues = new String[values.length - 1];
+        System.arraycopy(keys, 0, newKeys, 0, index);
+        System.arraycopy(values, 0, newValues, 0, index);
+        System.arraycopy(keys, index + 1, newKeys, index, keys.length - index - 1);
+        System.arraycopy(values, index + 1, newValues, index, values.length - index - 1);
+        return new Headers(newKeys, newValues);
+    }
+
+    @Override
+    public String get(Object key) {
+        int index = indexOf(key);
+        return index >= 0 ? values[index] : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return keys.length == 0;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new Iterator<>() {
+                    private int next = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < keys.length;
+                    }
+
+                    @Override
+                    public Entry<String, String> next() {
+                        if (next >= keys.length) {
+                            throw new NoSuchElementException();
+                        }
+                        var entry = new SimpleImmutableEntry<>(keys[next], values[next]);
+                        next++;
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return keys.length;
+            }
+        };
+    }
+}
@@ -0,0 +1,79 @@
+package iia.dsl.framework.core;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Genera los identificadores de los elementos creados sin id explícito (ver
+ * {@link Element#setIdGenerator(IdGenerator)}).
+ *
+ * <ul>
+ * <li>{@link #counter()}: prefijo de nodo más un contador de 64 bits. Es el
+ * generador por defecto: no reserva memoria más allá del String ni toca
+ * {@code SecureRandom}.</li>
+ * <li>{@link #timeOrdered(int)}: estilo Snowflake (milisegundos, nodo y
+ * secuencia en un long); los ids se ordenan por tiempo también como texto.</li>
+ * <li>{@link #uuid()}: {@code UUID.randomUUID()}, el comportamiento anterior.
+ * Usa {@code SecureRandom}, que se bloquea con ráfagas de mensajes.</li>
+ * </ul>
+ */
+@FunctionalInterface
+public interface IdGenerator {
+
+    /**
+     * @return Un identificador nuevo, distinto de todos los anteriores.
+     */
+    String nextId();
+
+    /**
+     * Contador con un prefijo propio del proceso (pid e instante de arranque),
+     * para que no se repitan ids entre ejecuciones.
+     *
+     * @return El generador.
+     */
+    static IdGenerator counter() {
+        var process = ProcessHandle.current();
+        long start = process.info().startInstant().map(Instant::toEpochMilli).orElse(System.currentTimeMillis());
+        return counter(Long.toString(process.pid(), 36) + "." + Long.toString(start, 36));
+    }
+
+    /**
+     * Contador monótono de 64 bits precedido de {@code node}.
+     *
+     * @param node Prefijo que distingue este nodo/proceso.
+     * @return El generador.
+     */
+    static IdGenerator counter(String node) {
+        if (node == null || node.isEmpty()) {
+            throw new IllegalArgumentException("El prefijo de nodo no puede estar vacío");
+        }
+        var prefix = node + "-";
+        var sequence = new AtomicLong();
+        return () -> prefix + Long.toString(sequence.incrementAndGet(), 36);
+    }
+
+    /**
+     * Ids ordenados por tiempo con el nodo derivado del pid.
+     *
+     * @return El generador.
+     */
+    static IdGenerator timeOrdered() {
+        return timeOrdered((int) (ProcessHandle.current().pid() & TimeOrderedIdGenerator.MAX_NODE));
+    }
+
+    /**
+     * Ids ordenados por tiempo: 41 bits de milisegundos, 10 de nodo y 12 de
+     * secuencia, como 16 dígitos hexadecimales.
+     *
+     * @param node Número de nodo (0-1023).
+     * @return El generador.
+     */
+    static IdGenerator timeOrdered(int node) {
+        return new TimeOrderedIdGenerator(node);
+    }
+
+    static IdGenerator uuid() {
+        return () -> UUID.randomUUID().toString();
+    }
+}
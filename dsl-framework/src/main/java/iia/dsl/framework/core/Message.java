@@ -1,10 +1,13 @@
 package iia.dsl.framework.core;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import org.w3c.dom.Document;
 
+import iia.dsl.framework.util.DocumentUtil;
+
 /**
  * Encapsula un documento XML y sus metadatos (headers) para ser transportado a
  * través de los Slots.
@@ -12,55 +15,220 @@ import org.w3c.dom.Document;
  */
 public class Message extends Element {
     private Document document;
-    private final Map<String, String> headers;
+    // XML serializado: se parsea en el primer getDocument() y sigue siendo
+    // válido mientras nadie pida el documento para modificarlo
+    private byte[] raw;
+    // Distinto de null mientras el documento se comparte con otros mensajes
+    private SharedDocument shared;
+    private Headers headers;
+    // Los mensajes creados sin id lo generan en el primer getId(); id queda a null
+    private final boolean lazyId;
+    private volatile String generatedId;
     public static final String CORRELATION_ID = "correlation-id";
     public static final String NUM_FRAG = "num-frag";
     public static final String TOTAL_FRAG = "total-frag";
+    // Fragmento de un StreamingSplitter: TOTAL_FRAG solo llega en el último
+    public static final String FRAG_STREAM = "frag-stream";
+    // El Aggregator reinserta los hijos del fragmento, no su raíz (bloques
+    // <resultset> del modo streaming de DataBaseConnector)
+    public static final String MERGE_CHILDREN = "merge-children";
+    // Último fragmento de una secuencia que se cortó por un error: el documento
+    // reconstruido está incompleto. El valor es el mensaje del error
+    public static final String FRAG_ERROR = "frag-error";
+    // Ruta del fichero que se leerá en streaming (FileConnector en modo streaming)
+    public static final String SOURCE_PATH = "source-path";
 
     public Message(String id, Document document, Map<String, String> headers) {
         super(id);
+        this.lazyId = false;
         this.document = document;
-        this.headers = new HashMap<>(headers);
+        this.headers = Headers.of(headers);
     }
 
     public Message(String id, Document document) {
         super(id);
+        this.lazyId = false;
         this.document = document;
-        this.headers = new HashMap<>();
+        this.headers = Headers.empty();
     }
 
     public Message(Document doc) {
-        super();
+        super((String) null);
+        this.lazyId = true;
         this.document = doc;
-        this.headers = new HashMap<>();
+        this.headers = Headers.empty();
     }
 
     public Message(Document doc, Map<String, String> headers) {
-        super();
+        super((String) null);
+        this.lazyId = true;
         this.document = doc;
-        this.headers = new HashMap<>(headers);
+        this.headers = Headers.of(headers);
     }
 
+    /**
+     * Crea una copia del mensaje con el mismo id, cabeceras y documento (sin
+     * clonarlo). Si el documento está compartido (ver {@link #replicate(int)}),
+     * la copia toma el relevo del original como propietaria: no se suma un
+     * propietario más, así que a partir de aquí solo debe usarse la copia.
+     * 
+     * @param other El mensaje original.
+     */
     public Message(Message other) {
-        super(other.id);
+        super(other.getId());
+        this.lazyId = false;
         this.document = other.document;
-        this.headers = new HashMap<>(other.headers);
+        this.raw = other.raw;
+        this.shared = other.shared;
+        this.headers = other.headers;
+    }
+
+    /**
+     * Crea un mensaje con el XML todavía serializado. El DOM solo se construye
+     * si alguna tarea llama a {@link #getDocument()}: los mensajes que solo
+     * pasan por tareas de cabeceras (Merger, Correlator por headers,
+     * CorrelationIdSetter) hasta un sink no se parsean nunca.
+     * 
+     * @param xml     El documento serializado (no se copia).
+     * @param headers Headers iniciales del mensaje.
+     * @return El mensaje.
+     */
+    public static Message ofBytes(byte[] xml, Map<String, String> headers) {
+        if (xml == null) {
+            throw new IllegalArgumentException("El payload del mensaje no puede ser null");
+        }
+        var message = new Message((Document) null, headers);
+        message.raw = xml;
+        return message;
+    }
+
+    /**
+     * Crea {@code copies} mensajes con el mismo id y cabeceras que comparten
+     * este documento sin copiarlo. Cada copia solo clona el árbol si llega a
+     * modificarlo (ver {@link #getDocumentForUpdate()}).
+     * 
+     * <p>
+     * Las copias sustituyen a este mensaje, que no debe seguir usándose: si su
+     * documento ya se compartía (salida de otro Replicator), heredan su parte
+     * y se suman al mismo grupo de propietarios. Es lo que deben usar las
+     * tareas que reenvían el documento de entrada sin crearlo ellas (un
+     * Distributor, por ejemplo).
+     * 
+     * @param copies Número de copias.
+     * @return Las copias, en orden.
+     */
+    public List<Message> replicate(int copies) {
+        SharedDocument holder = shared;
+        if (holder != null) {
+            holder.share(copies - 1);
+        } else if (document != null && copies > 1) {
+            holder = new SharedDocument(document, copies);
+        }
+        List<Message> replicas = new ArrayList<>(copies);
+        for (int i = 0; i < copies; i++) {
+            var replica = new Message(getId(), document, headers);
+            replica.raw = raw;
+            replica.shared = holder;
+            replicas.add(replica);
+        }
+        return replicas;
+    }
+
+    /**
+     * Obtiene el id del mensaje. Los mensajes creados sin id lo generan aquí la
+     * primera vez que se pide, así que los que nunca se identifican no pagan
+     * la generación.
+     * 
+     * @return El ID del mensaje.
+     */
+    @Override
+    public String getId() {
+        if (!lazyId) {
+            return id;
+        }
+        String current = generatedId;
+        if (current == null) {
+            synchronized (this) {
+                current = generatedId;
+                if (current == null) {
+                    current = nextId();
+                    generatedId = current;
+                }
+            }
+        }
+        return current;
     }
 
     /**
-     * Obtiene el documento XML contenido en el mensaje.
+     * Obtiene el documento XML contenido en el mensaje. Puede estar compartido
+     * con otros mensajes: para modificarlo hay que usar
+     * {@link #getDocumentForUpdate()}.
      * 
      * @return El objeto Document.
      */
     public Document getDocument() {
+        if (document == null && raw != null) {
+            try {
+                document = DocumentUtil.parse(raw);
+            } catch (RuntimeException e) {
+                throw new IllegalStateException("El payload del mensaje '" + getId() + "' no es XML bien formado", e);
+            }
+        }
         return document;
     }
 
+    /**
+     * Obtiene el XML serializado del mensaje si sigue correspondiendo al
+     * documento, es decir, si el mensaje se creó con {@link #ofBytes(byte[], Map)}
+     * y nadie lo ha modificado. Los sinks lo escriben tal cual, sin volver a
+     * serializar. No debe modificarse.
+     * 
+     * @return Los bytes o null si hay que serializar el documento.
+     */
+    public byte[] getRawBytes() {
+        return raw;
+    }
+
+    /**
+     * Obtiene el documento para modificarlo. Si se comparte con otros mensajes
+     * se hace aquí la copia privada; en otro caso devuelve el mismo documento.
+     * 
+     * @return Un Document que solo pertenece a este mensaje.
+     */
+    public Document getDocumentForUpdate() {
+        getDocument();
+        raw = null;
+        if (shared != null) {
+            document = shared.detach();
+            shared = null;
+        }
+        return document;
+    }
+
+    /**
+     * @return true si el documento se comparte con otros mensajes.
+     */
+    public boolean isDocumentShared() {
+        return shared != null && shared.getOwners() > 1;
+    }
+
     public void setDocument(Document document) {
+        raw = null;
+        if (shared != null) {
+            shared.release();
+            shared = null;
+        }
         this.document = document;
     }
 
-    public Map<String, String> getHeaders() {
+    /**
+     * Obtiene las cabeceras del mensaje. Son inmutables: pasarlas a otro
+     * mensaje no las copia, y {@link #addHeader(String, String)} solo cambia
+     * las de este.
+     * 
+     * @return Las cabeceras.
+     */
+    public Headers getHeaders() {
         return headers;
     }
 
@@ -71,7 +239,7 @@ public class Message extends Element {
      * @param value Valor de la cabecera.
      */
     public void addHeader(String key, String value) {
-        headers.put(key, value);
+        headers = headers.with(key, value);
     }
 
     /**
@@ -85,7 +253,7 @@ public class Message extends Element {
     }
 
     public void removeHeader(String key) {
-        headers.remove(key);
+        headers = headers.without(key);
     }
 
     public boolean hasHeader(String key) {
@@ -93,10 +261,10 @@ public class Message extends Element {
     }
 
     public void clearHeaders() {
-        headers.clear();
+        headers = Headers.empty();
     }
 
     public boolean hasDocument() {
-        return document != null;
+        return document != null || raw != null;
     }
 }
\ No newline at end of file
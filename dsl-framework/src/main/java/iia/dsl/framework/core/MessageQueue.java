@@ -0,0 +1,58 @@
+package iia.dsl.framework.core;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Cola de mensajes interna de un {@link Slot}. Todas las implementaciones
+ * admiten varios consumidores concurrentes, ya que el Slot puede extraer el
+ * mensaje más antiguo desde el hilo productor (DROP_OLDEST).
+ */
+interface MessageQueue {
+
+    /**
+     * Encola un mensaje.
+     * 
+     * @param message El mensaje a encolar.
+     * @return false si la cola está llena.
+     */
+    boolean offer(Message message);
+
+    /**
+     * Extrae el mensaje más antiguo.
+     * 
+     * @return El mensaje o null si la cola está vacía.
+     */
+    Message poll();
+
+    boolean isEmpty();
+
+    static MessageQueue create(SlotQueueType type, int capacity) {
+        return switch (type) {
+            case LINKED -> new Linked();
+            case SPSC_RING -> new RingMessageQueue(capacity, true);
+            case MPSC_RING -> new RingMessageQueue(capacity, false);
+        };
+    }
+
+    /**
+     * Cola enlazada sin límite basada en {@link ConcurrentLinkedQueue}.
+     */
+    final class Linked implements MessageQueue {
+        private final ConcurrentLinkedQueue<Message> queue = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public boolean offer(Message message) {
+            return queue.offer(message);
+        }
+
+        @Override
+        public Message poll() {
+            return queue.poll();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return queue.isEmpty();
+        }
+    }
+}
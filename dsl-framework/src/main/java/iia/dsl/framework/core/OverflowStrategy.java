@@ -0,0 +1,18 @@
+package iia.dsl.framework.core;
+
+/**
+ * Estrategia aplicada por un {@link Slot} acotado cuando se intenta depositar un
+ * mensaje y el Slot ya ha alcanzado su capacidad máxima.
+ * - BLOCK: El productor espera hasta que el consumidor libere espacio.
+ * - DROP_NEWEST: Se descarta el mensaje entrante.
+ * - DROP_OLDEST: Se descarta el mensaje más antiguo de la cola para hacer
+ * sitio al nuevo.
+ * - SPILL_TO_DISK: El mensaje se vuelca a un fichero temporal y se recupera
+ * cuando vuelve a haber espacio, preservando el orden FIFO.
+ */
+public enum OverflowStrategy {
+    BLOCK,
+    DROP_NEWEST,
+    DROP_OLDEST,
+    SPILL_TO_DISK
+}
@@ -0,0 +1,20 @@
+package iia.dsl.framework.core;
+
+/**
+ * Tipo de cola de trabajo del pool de hilos de un {@link ExecutionEnvironment}.
+ * - PRIORITY: Cola con prioridad; el orden lo decide la
+ * {@link iia.dsl.framework.core.policy.ExecutionPolicy} de cada elemento.
+ * - FIFO: Cola FIFO simple; ignora las políticas y evita el coste de
+ * priorizar cada envío.
+ * - WORK_STEALING: {@link java.util.concurrent.ForkJoinPool} con una deque por
+ * hilo trabajador. Los elementos programados desde un hilo del pool se encolan
+ * en su deque local (sin lock compartido) y los hilos ociosos roban trabajo de
+ * los demás. Las deques se procesan en orden FIFO, por lo que
+ * {@link iia.dsl.framework.core.policy.FifoPolicy} se respeta por hilo; el
+ * resto de políticas no pueden aplicarse globalmente y se degradan a FIFO.
+ */
+public enum QueueType {
+    PRIORITY,
+    FIFO,
+    WORK_STEALING
+}
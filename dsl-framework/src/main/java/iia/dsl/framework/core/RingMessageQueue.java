@@ -0,0 +1,113 @@
+package iia.dsl.framework.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Cola acotada sin bloqueos sobre un buffer circular preasignado (algoritmo de
+ * secuencias por celda de D. Vyukov).
+ * 
+ * <p>
+ * Cada celda guarda un número de secuencia que indica si está libre para el
+ * productor de la vuelta actual o contiene un mensaje publicado para el
+ * consumidor. Encolar y desencolar no reservan memoria: solo escriben en el
+ * array y publican la secuencia con semántica release/acquire.
+ * 
+ * <p>
+ * Con {@code singleProducer} el productor avanza la cola sin CAS; el Slot debe
+ * garantizar entonces que no hay dos productores a la vez. Los consumidores
+ * siempre usan CAS, porque el Slot puede descartar el mensaje más antiguo desde
+ * el hilo productor.
+ */
+final class RingMessageQueue implements MessageQueue {
+    private final Message[] buffer;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final boolean singleProducer;
+
+    private final AtomicLong tail = new AtomicLong(); // Siguiente posición a escribir
+    private final AtomicLong head = new AtomicLong(); // Siguiente posición a leer
+
+    RingMessageQueue(int capacity, boolean singleProducer) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("La capacidad del buffer circular debe estar entre 1 y 2^30");
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.buffer = new Message[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.mask = size - 1;
+        this.singleProducer = singleProducer;
+    }
+
+    /**
+     * Tamaño real del buffer (potencia de dos).
+     * 
+     * @return Número de celdas del buffer.
+     */
+    int length() {
+        return buffer.length;
+    }
+
+    @Override
+    public boolean offer(Message message) {
+        long pos = tail.get();
+        int index;
+        while (true) {
+            index = (int) (pos & mask);
+            long diff = sequences.getAcquire(index) - pos;
+            if (diff == 0) {
+                if (singleProducer) {
+                    tail.setRelease(pos + 1);
+                    break;
+                }
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    break;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false; // Lleno
+            } else {
+                pos = tail.get();
+            }
+        }
+
+        buffer[index] = message;
+        sequences.setRelease(index, pos + 1);
+        return true;
+    }
+
+    @Override
+    public Message poll() {
+        long pos = head.get();
+        int index;
+        while (true) {
+            index = (int) (pos & mask);
+            long diff = sequences.getAcquire(index) - (pos + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    break;
+                }
+                pos = head.get();
+            } else if (diff < 0) {
+                return null; // Vacía (o el productor aún no ha publicado)
+            } else {
+                pos = head.get();
+            }
+        }
+
+        Message message = buffer[index];
+        buffer[index] = null;
+        // Libera la celda para la siguiente vuelta del productor
+        sequences.setRelease(index, pos + mask + 1);
+        return message;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        long pos = head.get();
+        return sequences.getAcquire((int) (pos & mask)) != pos + 1;
+    }
+}
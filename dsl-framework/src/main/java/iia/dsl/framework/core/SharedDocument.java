@@ -0,0 +1,102 @@
+package iia.dsl.framework.core;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * Documento compartido entre varios mensajes con copia en escritura.
+ *
+ * <p>
+ * Mientras nadie lo modifica, todos los mensajes leen el mismo árbol. El
+ * primero que necesita modificarlo se lleva una copia privada y deja de contar
+ * como propietario; el último propietario se queda con el original sin copiarlo.
+ *
+ * <p>
+ * El DOM no garantiza lecturas concurrentes: el parser por defecto construye
+ * los nodos de forma diferida y los materializa en la primera lectura. Por eso
+ * el constructor recorre el árbol entero en el hilo que replica, antes de
+ * publicarlo. A partir de ahí recorrerlo con {@code getFirstChild()},
+ * {@code getNextSibling()}, atributos y valores (lo que hace
+ * {@code cloneNode(true)} en {@link #detach()}) solo lee campos y no compite
+ * con las ramas que lo leen a la vez. Las ramas que vayan a modificarlo, o a
+ * recorrerlo por índice con {@code getChildNodes().item(i)} (que guarda una
+ * caché en el nodo), deben pedir su copia con
+ * {@link Message#getDocumentForUpdate()}.
+ */
+class SharedDocument {
+
+    private final Document document;
+    private int owners;
+
+    SharedDocument(Document document, int owners) {
+        this.document = document;
+        this.owners = owners;
+        if (owners > 1) {
+            expand(document);
+        }
+    }
+
+    /**
+     * Materializa todos los nodos diferidos del árbol.
+     */
+    private static void expand(Node node) {
+        node.getNodeValue();
+        NamedNodeMap attributes = node.getAttributes();
+        if (attributes != null) {
+            for (int i = 0; i < attributes.getLength(); i++) {
+                attributes.item(i).getNodeValue();
+            }
+        }
+        for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+            expand(child);
+        }
+    }
+
+    Document read() {
+        return document;
+    }
+
+    /**
+     * Entrega un documento que el propietario puede modificar libremente.
+     * La copia se hace bajo el lock para que el último propietario no empiece a
+     * modificar el original mientras otro lo está copiando.
+     *
+     * @return Una copia, o el original si ya no lo comparte nadie más.
+     */
+    synchronized Document detach() {
+        if (owners <= 1) {
+            owners = 0;
+            return document;
+        }
+        owners--;
+        return (Document) document.cloneNode(true);
+    }
+
+    /**
+     * Un propietario pasa el documento a {@code extra + 1} mensajes (ver
+     * {@link Message#replicate(int)}).
+     *
+     * @param extra Propietarios que se añaden; -1 si el propietario lo descarta.
+     */
+    synchronized void share(int extra) {
+        if (owners <= 1 && owners + extra > 1) {
+            // Hasta ahora solo lo leía un mensaje: nadie lo recorre a la vez
+            expand(document);
+        }
+        owners = Math.max(0, owners + extra);
+    }
+
+    /**
+     * El propietario deja de usar el documento (lo ha sustituido por otro).
+     */
+    synchronized void release() {
+        if (owners > 0) {
+            owners--;
+        }
+    }
+
+    synchronized int getOwners() {
+        return owners;
+    }
+}
@@ -1,31 +1,190 @@
 package iia.dsl.framework.core;
 
 // import java.util.LinkedList;
-import java.util.Queue;
+import java.util.Collection;
 import java.util.List;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Canal de comunicación asíncrono entre Elementos Ejecutables.
  * Actúa como una cola de mensajes y notifica a los listeners (Observers) cuando
  * hay nuevos datos disponibles.
+ * 
+ * <p>
+ * Por defecto el Slot no tiene límite de capacidad. Puede acotarse (por slot o
+ * a través de {@link Flow.Builder#slotCapacity(int, OverflowStrategy)}), en cuyo
+ * caso se aplica la {@link OverflowStrategy} configurada cuando la cola está
+ * llena.
+ * 
+ * <p>
+ * La cola interna puede elegirse por Slot con {@link SlotQueueType}: enlazada
+ * (por defecto) o un buffer circular preasignado de uno o varios productores.
+ * El contrato con los {@link SlotListener} es el mismo en todos los casos.
  */
 public class Slot extends Element {
+    /**
+     * Capacidad que indica un Slot sin límite.
+     */
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+
     // Thread-safe queue
-    private final Queue<Message> messages;
+    private final MessageQueue messages;
+    private final SlotQueueType queueType;
+    // Contador O(1) de mensajes en memoria (se incrementa ANTES de encolar, por
+    // lo que nunca es menor que el número real de mensajes en la cola)
+    private final AtomicInteger size = new AtomicInteger(0);
+    // Máxima profundidad observada (métricas)
+    private final AtomicInteger peak = new AtomicInteger(0);
+
+    // Backpressure
+    private final Object capacityLock = new Object();
+    private volatile int capacity = UNBOUNDED;
+    private volatile OverflowStrategy overflowStrategy = OverflowStrategy.BLOCK;
+    private volatile boolean capacityConfigured = false;
+    private final AtomicLong droppedCount = new AtomicLong(0);
+    private SpillStore spillStore; // Creado bajo demanda, protegido por capacityLock
 
     // Observer pattern
     private final List<SlotListener> listeners = new CopyOnWriteArrayList<>();
 
     public Slot(String id) {
         super(id);
-        this.messages = new ConcurrentLinkedQueue<>();
+        this.queueType = SlotQueueType.LINKED;
+        this.messages = new MessageQueue.Linked();
     }
 
     public Slot() {
         super();
-        this.messages = new ConcurrentLinkedQueue<>();
+        this.queueType = SlotQueueType.LINKED;
+        this.messages = new MessageQueue.Linked();
+    }
+
+    /**
+     * Crea un Slot acotado.
+     * 
+     * @param id       Identificador del Slot.
+     * @param capacity Número máximo de mensajes en memoria.
+     * @param strategy Estrategia a aplicar cuando el Slot está lleno.
+     */
+    public Slot(String id, int capacity, OverflowStrategy strategy) {
+        this(id);
+        setCapacity(capacity, strategy);
+    }
+
+    /**
+     * Crea un Slot con la cola interna indicada.
+     * 
+     * <p>
+     * Con {@link SlotQueueType#SPSC_RING} y {@link SlotQueueType#MPSC_RING} el
+     * buffer se reserva al crear el Slot y la capacidad es obligatoria; el Slot
+     * queda configurado (los Flows no le aplican su capacidad por defecto). Con
+     * SPSC_RING solo un productor puede escribir en el Slot a la vez.
+     * 
+     * @param id        Identificador del Slot.
+     * @param queueType Tipo de cola interna.
+     * @param capacity  Número máximo de mensajes en memoria, o
+     *                  {@link #UNBOUNDED} (solo con LINKED).
+     * @param strategy  Estrategia a aplicar cuando el Slot está lleno.
+     * @throws IllegalArgumentException Si se pide un buffer circular sin límite.
+     */
+    public Slot(String id, SlotQueueType queueType, int capacity, OverflowStrategy strategy) {
+        super(id);
+        if (queueType == null) {
+            throw new IllegalArgumentException("SlotQueueType no puede ser null");
+        }
+        if (queueType != SlotQueueType.LINKED && capacity == UNBOUNDED) {
+            throw new IllegalArgumentException("Un Slot con buffer circular debe tener capacidad limitada");
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("La capacidad del Slot debe ser mayor que 0");
+        }
+
+        this.queueType = queueType;
+        this.messages = MessageQueue.create(queueType, capacity);
+        if (capacity != UNBOUNDED) {
+            setCapacity(capacity, strategy);
+        }
+    }
+
+    public SlotQueueType getQueueType() {
+        return queueType;
+    }
+
+    // -- CAPACIDAD --
+
+    /**
+     * Configura la capacidad máxima del Slot y la estrategia de desbordamiento.
+     * 
+     * @param capacity Número máximo de mensajes en memoria (mayor que 0), o
+     *                 {@link #UNBOUNDED}.
+     * @param strategy Estrategia a aplicar cuando el Slot está lleno.
+     * @throws IllegalArgumentException Si la capacidad no es positiva, supera
+     *                                  el tamaño del buffer circular o la
+     *                                  estrategia es null.
+     */
+    public void setCapacity(int capacity, OverflowStrategy strategy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("La capacidad del Slot debe ser mayor que 0");
+        }
+        if (messages instanceof RingMessageQueue ring && capacity > ring.length()) {
+            throw new IllegalArgumentException(
+                    "La capacidad del Slot no puede superar el tamaño del buffer circular (" + ring.length() + ")");
+        }
+        if (strategy == null) {
+            throw new IllegalArgumentException("OverflowStrategy no puede ser null");
+        }
+
+        synchronized (capacityLock) {
+            this.capacity = capacity;
+            this.overflowStrategy = strategy;
+            this.capacityConfigured = true;
+            capacityLock.notifyAll();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public OverflowStrategy getOverflowStrategy() {
+        return overflowStrategy;
+    }
+
+    /**
+     * Indica si la capacidad del Slot se ha configurado explícitamente.
+     * Los Flows solo aplican su capacidad por defecto a los Slots no configurados.
+     * 
+     * @return true si se invocó {@link #setCapacity(int, OverflowStrategy)}.
+     */
+    public boolean isCapacityConfigured() {
+        return capacityConfigured;
+    }
+
+    public boolean isBounded() {
+        return capacity != UNBOUNDED;
+    }
+
+    /**
+     * Número de mensajes descartados por las estrategias DROP_NEWEST y
+     * DROP_OLDEST.
+     * 
+     * @return Total de mensajes descartados desde la creación del Slot.
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * Número de mensajes actualmente volcados a disco (SPILL_TO_DISK).
+     * 
+     * @return Mensajes pendientes en disco.
+     */
+    public int getSpilledCount() {
+        synchronized (capacityLock) {
+            return spillStore == null ? 0 : spillStore.size();
+        }
     }
 
     // -- MÉTODOS PARA MENSAJE --
@@ -34,11 +193,139 @@ public class Slot extends Element {
      * Coloca un nuevo mensaje en el Slot y notifica inmediatamente a todos
      * los listeners registrados.
      * 
+     * <p>
+     * Si el Slot está acotado y lleno se aplica la estrategia de
+     * desbordamiento. Con BLOCK el hilo productor espera a que haya espacio; en
+     * ejecución secuencial esto solo es seguro si el consumidor puede vaciar el
+     * Slot desde otro hilo.
+     * 
      * @param message El mensaje a depositar.
+     * @return true si se tuvo que aplicar backpressure (el productor esperó, el
+     *         mensaje se descartó o se volcó a disco), false si se encoló
+     *         directamente.
      */
-    public void setMessage(Message message) {
-        this.messages.add(message);
+    public boolean setMessage(Message message) {
+        boolean backpressure = enqueue(message);
         notifyListeners();
+        return backpressure;
+    }
+
+    /**
+     * Coloca un lote de mensajes en el Slot notificando a los listeners una
+     * única vez para todo el lote.
+     * 
+     * @param batch Los mensajes a depositar, en orden.
+     * @return true si se tuvo que aplicar backpressure a alguno de los mensajes.
+     */
+    public boolean setMessages(Collection<Message> batch) {
+        if (batch.isEmpty()) {
+            return false;
+        }
+
+        boolean backpressure = false;
+        for (Message message : batch) {
+            backpressure |= enqueue(message);
+        }
+        notifyListeners();
+        return backpressure;
+    }
+
+    private boolean enqueue(Message message) {
+        if (capacity == UNBOUNDED) {
+            updatePeak(size.incrementAndGet());
+            messages.offer(message);
+            return false;
+        }
+
+        // Camino rápido sin lock: reservar hueco en el contador y encolar. Con
+        // SPILL_TO_DISK todo pasa por el lock para no adelantar a los mensajes en
+        // disco.
+        if (overflowStrategy != OverflowStrategy.SPILL_TO_DISK && tryAdd(message)) {
+            return false;
+        }
+
+        synchronized (capacityLock) {
+            // Si ya hay mensajes en disco, los nuevos van detrás para preservar el orden
+            if (spillStore != null && !spillStore.isEmpty()) {
+                spillStore.write(message);
+                return true;
+            }
+
+            if (tryAdd(message)) {
+                return false;
+            }
+
+            switch (overflowStrategy) {
+                case BLOCK -> {
+                    boolean interrupted = false;
+                    while (!tryAdd(message)) {
+                        if (interrupted) {
+                            // Un buffer circular no puede superar su tamaño: seguimos esperando
+                            if (!(messages instanceof RingMessageQueue)) {
+                                updatePeak(size.incrementAndGet());
+                                messages.offer(message);
+                                break;
+                            }
+                        }
+                        try {
+                            capacityLock.wait();
+                        } catch (InterruptedException e) {
+                            // No perdemos el mensaje: en una cola enlazada se encola superando la capacidad
+                            interrupted = true;
+                        }
+                    }
+                    if (interrupted) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                case DROP_NEWEST -> droppedCount.incrementAndGet();
+                case DROP_OLDEST -> {
+                    while (!tryAdd(message)) {
+                        if (messages.poll() != null) {
+                            size.decrementAndGet();
+                            droppedCount.incrementAndGet();
+                        }
+                    }
+                }
+                case SPILL_TO_DISK -> {
+                    if (spillStore == null) {
+                        spillStore = new SpillStore(id != null ? id : "unnamed");
+                    }
+                    spillStore.write(message);
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Reserva un hueco en el contador y, si hay capacidad, encola el mensaje.
+     * Como el contador nunca es menor que el número real de mensajes, una
+     * reserva con éxito garantiza que el buffer circular tendrá sitio, pero no
+     * que lo tenga ya: otro consumidor (el descarte de DROP_OLDEST frente a la
+     * tarea) puede haber reclamado la celda de {@code tail} sin liberarla
+     * todavía mientras uno más rápido ya ha descontado la suya. En ese caso se
+     * reintenta hasta que la libere, sin soltar la reserva.
+     */
+    private boolean tryAdd(Message message) {
+        if (!reserve()) {
+            return false;
+        }
+        while (!messages.offer(message)) {
+            // Cede el procesador: el consumidor que tiene la celda puede estar parado
+            Thread.yield();
+        }
+        return true;
+    }
+
+    private boolean reserve() {
+        int current = size.incrementAndGet();
+        if (current <= capacity) {
+            updatePeak(current);
+            return true;
+        }
+        size.decrementAndGet();
+        return false;
     }
 
     /**
@@ -48,11 +335,75 @@ public class Slot extends Element {
      * @return El mensaje extraído o null si está vacío.
      */
     public Message getMessage() {
-        return messages.poll();
+        Message message = messages.poll();
+        if (message != null) {
+            size.decrementAndGet();
+            if (capacity != UNBOUNDED) {
+                onSpaceFreed();
+            }
+        }
+        return message;
+    }
+
+    /**
+     * Extrae hasta {@code maxBatch} mensajes del Slot y los añade a la colección
+     * destino, en orden FIFO.
+     * 
+     * @param target   Colección donde se depositan los mensajes extraídos.
+     * @param maxBatch Número máximo de mensajes a extraer.
+     * @return El número de mensajes extraídos.
+     */
+    public int drainTo(Collection<? super Message> target, int maxBatch) {
+        int drained = 0;
+        Message message;
+        while (drained < maxBatch && (message = messages.poll()) != null) {
+            target.add(message);
+            drained++;
+        }
+
+        if (drained > 0) {
+            size.addAndGet(-drained);
+            if (capacity != UNBOUNDED) {
+                onSpaceFreed();
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Rellena la cola en memoria con mensajes volcados a disco y despierta a los
+     * productores bloqueados.
+     */
+    private void onSpaceFreed() {
+        synchronized (capacityLock) {
+            if (spillStore != null) {
+                while (!spillStore.isEmpty() && reserve()) {
+                    messages.offer(spillStore.read());
+                }
+            }
+            capacityLock.notifyAll();
+        }
     }
 
     public int getMessageCount() {
-        return messages.size();
+        return Math.max(0, size.get());
+    }
+
+    /**
+     * Máximo número de mensajes en memoria observado desde la creación del
+     * Slot.
+     * 
+     * @return La profundidad máxima alcanzada.
+     */
+    public int getPeakMessageCount() {
+        return peak.get();
+    }
+
+    private void updatePeak(int current) {
+        int observed = peak.get();
+        while (current > observed && !peak.compareAndSet(observed, current)) {
+            observed = peak.get();
+        }
     }
 
     /**
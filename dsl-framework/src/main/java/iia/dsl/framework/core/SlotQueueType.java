@@ -0,0 +1,22 @@
+package iia.dsl.framework.core;
+
+/**
+ * Estructura de datos que respalda la cola de mensajes de un {@link Slot}.
+ * - LINKED: Cola enlazada sin bloqueos (un nodo por mensaje). Admite Slots sin
+ * límite y es la opción por defecto.
+ * - SPSC_RING: Buffer circular preasignado para un único productor. No reserva
+ * memoria por mensaje; adecuado para tuberías lineales en las que solo una
+ * tarea escribe en el Slot.
+ * - MPSC_RING: Buffer circular preasignado que admite varios productores
+ * concurrentes (p. ej. la salida de un Merger o de varios conectores).
+ * 
+ * <p>
+ * Los Slots respaldados por un buffer circular siempre están acotados: la
+ * capacidad del buffer es el límite y, cuando está lleno, se aplica la
+ * {@link OverflowStrategy} del Slot.
+ */
+public enum SlotQueueType {
+    LINKED,
+    SPSC_RING,
+    MPSC_RING
+}
@@ -0,0 +1,143 @@
+package iia.dsl.framework.core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import iia.dsl.framework.util.DocumentUtil;
+
+/**
+ * Almacén en disco para los mensajes que desbordan un {@link Slot} configurado
+ * con {@link OverflowStrategy#SPILL_TO_DISK}.
+ * 
+ * <p>
+ * Cada mensaje se serializa en un fichero temporal independiente con la forma:
+ * 
+ * <pre>
+ * {@code
+ * <spilled-message id="...">
+ *   <headers><header name="..." value="..."/></headers>
+ *   <payload>...documento original...</payload>
+ * </spilled-message>
+ * }
+ * </pre>
+ * 
+ * Los ficheros se leen en el mismo orden en que se escribieron. No es
+ * thread-safe: el Slot propietario serializa el acceso.
+ */
+class SpillStore {
+    private final String slotId;
+    private final Deque<Path> files = new ArrayDeque<>();
+    private Path directory;
+    private long sequence = 0;
+
+    SpillStore(String slotId) {
+        this.slotId = slotId;
+    }
+
+    boolean isEmpty() {
+        return files.isEmpty();
+    }
+
+    int size() {
+        return files.size();
+    }
+
+    /**
+     * Vuelca un mensaje a disco.
+     * 
+     * @param message El mensaje a almacenar.
+     */
+    void write(Message message) {
+        try {
+            if (directory == null) {
+                directory = Files.createTempDirectory("dsl-slot-spill-");
+                directory.toFile().deleteOnExit();
+            }
+
+            var envelope = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+            var root = envelope.createElement("spilled-message");
+            root.setAttribute("id", message.getId());
+            envelope.appendChild(root);
+
+            var headers = envelope.createElement("headers");
+            root.appendChild(headers);
+            for (var entry : message.getHeaders().entrySet()) {
+                var header = envelope.createElement("header");
+                header.setAttribute("name", entry.getKey());
+                header.setAttribute("value", entry.getValue());
+                headers.appendChild(header);
+            }
+
+            var payload = envelope.createElement("payload");
+            root.appendChild(payload);
+            if (message.hasDocument() && message.getDocument().getDocumentElement() != null) {
+                payload.appendChild(envelope.importNode(message.getDocument().getDocumentElement(), true));
+            }
+
+            var file = directory.resolve(String.format("%012d.xml", sequence++));
+            Files.writeString(file, DocumentUtil.serialize(envelope), StandardCharsets.UTF_8);
+            files.addLast(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error volcando mensaje a disco en Slot '" + slotId + "'", e);
+        } catch (ParserConfigurationException e) {
+            throw new RuntimeException("Error volcando mensaje a disco en Slot '" + slotId + "'", e);
+        }
+    }
+
+    /**
+     * Recupera (y elimina de disco) el mensaje más antiguo volcado.
+     * 
+     * @return El mensaje reconstruido o null si no hay mensajes en disco.
+     */
+    Message read() {
+        var file = files.pollFirst();
+        if (file == null) {
+            return null;
+        }
+
+        try {
+            var envelope = DocumentUtil.createXMLDocument(Files.readString(file, StandardCharsets.UTF_8));
+            Files.deleteIfExists(file);
+
+            var root = envelope.getDocumentElement();
+            var message = new Message(root.getAttribute("id"), extractPayload(root));
+
+            NodeList headers = root.getElementsByTagName("header");
+            for (int i = 0; i < headers.getLength(); i++) {
+                var header = (Element) headers.item(i);
+                message.addHeader(header.getAttribute("name"), header.getAttribute("value"));
+            }
+            return message;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error recuperando mensaje de disco en Slot '" + slotId + "'", e);
+        }
+    }
+
+    private Document extractPayload(Element root) {
+        var payload = (Element) root.getElementsByTagName("payload").item(0);
+        for (var child = payload.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == org.w3c.dom.Node.ELEMENT_NODE) {
+                try {
+                    var doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+                    doc.appendChild(doc.importNode(child, true));
+                    return doc;
+                } catch (ParserConfigurationException e) {
+                    throw new RuntimeException("Error reconstruyendo documento volcado", e);
+                }
+            }
+        }
+        return null;
+    }
+}
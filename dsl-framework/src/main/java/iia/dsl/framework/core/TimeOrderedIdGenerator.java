@@ -0,0 +1,42 @@
+package iia.dsl.framework.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generador de ids al estilo Snowflake: {@code tiempo(41) | nodo(10) |
+ * secuencia(12)}. El tiempo y la secuencia avanzan juntos en un único
+ * {@code AtomicLong}, así que los ids son estrictamente crecientes: si en un
+ * milisegundo se agotan las 4096 secuencias se toma prestado el siguiente, y si
+ * el reloj retrocede se sigue contando desde el último id.
+ */
+class TimeOrderedIdGenerator implements IdGenerator {
+
+    static final long MAX_NODE = (1L << 10) - 1;
+    private static final int SEQUENCE_BITS = 12;
+    private static final int NODE_BITS = 10;
+    // 2020-01-01T00:00:00Z: 41 bits de milisegundos llegan hasta 2089
+    private static final long EPOCH = 1_577_836_800_000L;
+
+    private final long node;
+    // (milisegundos desde EPOCH) << SEQUENCE_BITS | secuencia
+    private final AtomicLong last = new AtomicLong();
+
+    TimeOrderedIdGenerator(int node) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("El nodo debe estar entre 0 y " + MAX_NODE + ": " + node);
+        }
+        this.node = node;
+    }
+
+    @Override
+    public String nextId() {
+        long now = (System.currentTimeMillis() - EPOCH) << SEQUENCE_BITS;
+        long next = last.updateAndGet(prev -> Math.max(prev + 1, now));
+        long millis = next >>> SEQUENCE_BITS;
+        long sequence = next & ((1L << SEQUENCE_BITS) - 1);
+        long id = millis << (NODE_BITS + SEQUENCE_BITS) | node << SEQUENCE_BITS | sequence;
+        // Ancho fijo para que el orden como texto coincida con el numérico
+        var hex = Long.toHexString(id);
+        return "0".repeat(16 - hex.length()) + hex;
+    }
+}
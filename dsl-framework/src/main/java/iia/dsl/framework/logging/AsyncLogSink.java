@@ -0,0 +1,137 @@
+package iia.dsl.framework.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sink asíncrono: los hilos que registran entradas solo las depositan en un
+ * buffer circular acotado y un único hilo escritor las vuelca por lotes en el
+ * sink destino.
+ * 
+ * <p>
+ * Registrar nunca bloquea: si el buffer está lleno la entrada se descarta y se
+ * contabiliza; el escritor avisa periódicamente de cuántas se han perdido.
+ */
+public class AsyncLogSink implements LogSink {
+    /**
+     * Capacidad por defecto del buffer.
+     */
+    public static final int DEFAULT_CAPACITY = 8192;
+    private static final int MAX_BATCH = 256;
+
+    private final LogSink target;
+    private final ArrayBlockingQueue<LogRecord> buffer;
+    private final Thread writer;
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean closed = false;
+
+    public AsyncLogSink(LogSink target) {
+        this(target, DEFAULT_CAPACITY);
+    }
+
+    public AsyncLogSink(LogSink target, int capacity) {
+        if (target == null) {
+            throw new IllegalArgumentException("El sink destino no puede ser null");
+        }
+        this.target = target;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.writer = Thread.ofPlatform().name("dsl-log-writer").daemon(true).unstarted(this::drainLoop);
+        this.writer.start();
+    }
+
+    @Override
+    public void write(LogRecord record) {
+        if (closed || !buffer.offer(record)) {
+            dropped.incrementAndGet();
+            return;
+        }
+        accepted.incrementAndGet();
+    }
+
+    /**
+     * Número de entradas descartadas por tener el buffer lleno.
+     * 
+     * @return Total de entradas perdidas.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Espera (como mucho 5 segundos) a que el escritor haya volcado todas las
+     * entradas aceptadas hasta ahora.
+     */
+    @Override
+    public void flush() {
+        long target = accepted.get();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (written.get() < target && writer.isAlive() && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(100_000);
+        }
+        this.target.flush();
+    }
+
+    @Override
+    public void close() {
+        flush();
+        closed = true;
+        writer.interrupt();
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        target.close();
+    }
+
+    private void drainLoop() {
+        List<LogRecord> batch = new ArrayList<>(MAX_BATCH);
+        long reportedDrops = 0;
+        while (!closed || !buffer.isEmpty()) {
+            try {
+                var first = buffer.poll(100, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    buffer.drainTo(batch, MAX_BATCH - 1);
+                    for (var record : batch) {
+                        writeSafely(record);
+                    }
+                    target.flush();
+                    written.addAndGet(batch.size());
+                    batch.clear();
+                }
+
+                long drops = dropped.get();
+                if (drops > reportedDrops) {
+                    writeSafely(new LogRecord(System.currentTimeMillis(), LogLevel.WARN, "log",
+                            Thread.currentThread().getName(),
+                            (drops - reportedDrops) + " entradas de log descartadas (buffer lleno)", null));
+                    target.flush();
+                    reportedDrops = drops;
+                }
+            } catch (InterruptedException e) {
+                if (closed) {
+                    // Vaciar lo que quede antes de terminar
+                    buffer.drainTo(batch);
+                    batch.forEach(this::writeSafely);
+                    written.addAndGet(batch.size());
+                    return;
+                }
+            }
+        }
+    }
+
+    private void writeSafely(LogRecord record) {
+        try {
+            target.write(record);
+        } catch (RuntimeException e) {
+            // Un fallo del sink no debe detener al escritor
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package iia.dsl.framework.logging;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Sink síncrono que escribe en la salida estándar (o en la de error a partir de
+ * WARN). Está pensado para usarse detrás de un {@link AsyncLogSink}, de modo que
+ * solo el hilo escritor toque los streams de consola.
+ */
+public class ConsoleSink implements LogSink {
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm:ss.SSS")
+            .withZone(ZoneId.systemDefault());
+
+    private final PrintStream out;
+    private final PrintStream err;
+
+    public ConsoleSink() {
+        this(System.out, System.err);
+    }
+
+    public ConsoleSink(PrintStream out, PrintStream err) {
+        this.out = out;
+        this.err = err;
+    }
+
+    @Override
+    public void write(LogRecord record) {
+        var stream = record.level().compareTo(LogLevel.WARN) >= 0 ? err : out;
+        stream.print(format(record));
+    }
+
+    @Override
+    public void flush() {
+        out.flush();
+        err.flush();
+    }
+
+    /**
+     * Formatea una entrada como {@code HH:mm:ss.SSS NIVEL [hilo] origen - mensaje}
+     * seguido de la traza de la excepción si la hay.
+     * 
+     * @param record La entrada.
+     * @return El texto con salto de línea final.
+     */
+    public static String format(LogRecord record) {
+        var sb = new StringBuilder(96 + record.message().length());
+        sb.append(TIME.format(Instant.ofEpochMilli(record.timestamp())))
+                .append(' ').append(record.level())
+                .append(" [").append(record.thread()).append("] ")
+                .append(record.source()).append(" - ")
+                .append(record.message())
+                .append(System.lineSeparator());
+        if (record.error() != null) {
+            var trace = new StringWriter();
+            record.error().printStackTrace(new PrintWriter(trace));
+            sb.append(trace);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,218 @@
+package iia.dsl.framework.logging;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Fachada de log de bajo coste usada por puertos, conectores y elementos
+ * ejecutables.
+ *
+ * <p>
+ * Cada origen (p. ej. {@code task.splitter}, {@code connector.file-out} o
+ * {@code port.in}) obtiene una instancia con {@link #get(String)}. Las
+ * comprobaciones de nivel son una simple lectura de campo volátil y los
+ * mensajes pueden pasarse como {@link Supplier} para que no se construyan si el
+ * nivel está desactivado. Por defecto las entradas se escriben de forma
+ * asíncrona en consola ({@link AsyncLogSink} sobre {@link ConsoleSink}), así que
+ * los hilos de trabajo nunca esperan a la E/S.
+ *
+ * <p>
+ * El muestreo por origen ({@link #setSampling(String, int)}) permite conservar
+ * solo una de cada N entradas por debajo de WARN en elementos muy activos; WARN
+ * y ERROR nunca se muestrean.
+ */
+public final class Log {
+    private static final Map<String, Log> LOGS = new ConcurrentHashMap<>();
+    private static final Map<String, LogLevel> LEVELS = new ConcurrentHashMap<>();
+    private static final Map<String, Integer> SAMPLING = new ConcurrentHashMap<>();
+
+    private static volatile LogLevel defaultLevel = LogLevel.INFO;
+    private static volatile LogSink sink;
+
+    static {
+        sink = new AsyncLogSink(new ConsoleSink());
+        Runtime.getRuntime().addShutdownHook(
+                Thread.ofPlatform().name("dsl-log-shutdown").unstarted(() -> sink.flush()));
+    }
+
+    private final String source;
+    private volatile LogLevel level;
+    private volatile int sampleRate;
+    private final AtomicLong sampleCounter = new AtomicLong();
+
+    private Log(String source) {
+        this.source = source;
+        refresh();
+    }
+
+    /**
+     * Obtiene el log de un origen. Las instancias se cachean, por lo que puede
+     * guardarse en un campo o pedirse en cada uso.
+     *
+     * @param source Nombre del origen.
+     * @return El log asociado.
+     */
+    public static Log get(String source) {
+        return LOGS.computeIfAbsent(source, Log::new);
+    }
+
+    /**
+     * Establece el nivel por defecto (INFO si no se configura).
+     *
+     * @param level Nivel mínimo que se registra.
+     */
+    public static void setLevel(LogLevel level) {
+        defaultLevel = level;
+        LOGS.values().forEach(Log::refresh);
+    }
+
+    /**
+     * Establece el nivel de un origen concreto o de todos los que empiezan por
+     * un prefijo (p. ej. {@code connector.}).
+     *
+     * @param sourcePrefix Origen o prefijo.
+     * @param level        Nivel mínimo para esos orígenes (null para volver al
+     *                     nivel por defecto).
+     */
+    public static void setLevel(String sourcePrefix, LogLevel level) {
+        if (level == null) {
+            LEVELS.remove(sourcePrefix);
+        } else {
+            LEVELS.put(sourcePrefix, level);
+        }
+        LOGS.values().forEach(Log::refresh);
+    }
+
+    /**
+     * Conserva solo una de cada {@code oneInN} entradas por debajo de WARN para
+     * los orígenes que empiezan por el prefijo dado.
+     *
+     * @param sourcePrefix Origen o prefijo.
+     * @param oneInN       Frecuencia de muestreo (1 desactiva el muestreo).
+     */
+    public static void setSampling(String sourcePrefix, int oneInN) {
+        if (oneInN < 1) {
+            throw new IllegalArgumentException("La frecuencia de muestreo debe ser >= 1");
+        }
+        if (oneInN == 1) {
+            SAMPLING.remove(sourcePrefix);
+        } else {
+            SAMPLING.put(sourcePrefix, oneInN);
+        }
+        LOGS.values().forEach(Log::refresh);
+    }
+
+    /**
+     * Sustituye el sink. El anterior se vuelca y se cierra.
+     *
+     * @param newSink El nuevo destino de las entradas.
+     */
+    public static void setSink(LogSink newSink) {
+        if (newSink == null) {
+            throw new IllegalArgumentException("El sink no puede ser null");
+        }
+        LogSink old = sink;
+        sink = newSink;
+        old.close();
+    }
+
+    /**
+     * Espera a que el sink actual haya volcado las entradas pendientes.
+     */
+    public static void flush() {
+        sink.flush();
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public boolean isEnabled(LogLevel level) {
+        return level.compareTo(this.level) >= 0 && level != LogLevel.OFF;
+    }
+
+    public boolean isTraceEnabled() {
+        return isEnabled(LogLevel.TRACE);
+    }
+
+    public boolean isDebugEnabled() {
+        return isEnabled(LogLevel.DEBUG);
+    }
+
+    public void trace(Supplier<String> message) {
+        if (isEnabled(LogLevel.TRACE)) {
+            log(LogLevel.TRACE, message.get(), null);
+        }
+    }
+
+    public void debug(String message) {
+        log(LogLevel.DEBUG, message, null);
+    }
+
+    public void debug(Supplier<String> message) {
+        if (isEnabled(LogLevel.DEBUG)) {
+            log(LogLevel.DEBUG, message.get(), null);
+        }
+    }
+
+    public void info(String message) {
+        log(LogLevel.INFO, message, null);
+    }
+
+    public void warn(String message) {
+        log(LogLevel.WARN, message, null);
+    }
+
+    public void warn(String message, Throwable error) {
+        log(LogLevel.WARN, message, error);
+    }
+
+    public void error(String message) {
+        log(LogLevel.ERROR, message, null);
+    }
+
+    public void error(String message, Throwable error) {
+        log(LogLevel.ERROR, message, error);
+    }
+
+    /**
+     * Registra una entrada si el nivel está activo y pasa el muestreo.
+     *
+     * @param level   Nivel de la entrada.
+     * @param message Texto del mensaje.
+     * @param error   Excepción asociada (puede ser null).
+     */
+    public void log(LogLevel level, String message, Throwable error) {
+        if (!isEnabled(level)) {
+            return;
+        }
+        int rate = sampleRate;
+        if (rate > 1 && level.compareTo(LogLevel.WARN) < 0
+                && sampleCounter.getAndIncrement() % rate != 0) {
+            return;
+        }
+        sink.write(new LogRecord(System.currentTimeMillis(), level, source,
+                Thread.currentThread().getName(), message, error));
+    }
+
+    private void refresh() {
+        level = lookup(LEVELS, defaultLevel);
+        sampleRate = lookup(SAMPLING, 1);
+    }
+
+    // El prefijo más largo que coincida gana
+    private <T> T lookup(Map<String, T> config, T fallback) {
+        T value = fallback;
+        int best = -1;
+        for (var entry : config.entrySet()) {
+            String prefix = entry.getKey();
+            if (source.startsWith(prefix) && prefix.length() > best) {
+                value = entry.getValue();
+                best = prefix.length();
+            }
+        }
+        return value;
+    }
+}
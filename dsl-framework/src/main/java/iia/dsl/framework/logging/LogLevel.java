@@ -0,0 +1,13 @@
+package iia.dsl.framework.logging;
+
+/**
+ * Niveles de log, de menor a mayor severidad. {@code OFF} desactiva el log.
+ */
+public enum LogLevel {
+    TRACE,
+    DEBUG,
+    INFO,
+    WARN,
+    ERROR,
+    OFF
+}
@@ -0,0 +1,16 @@
+package iia.dsl.framework.logging;
+
+/**
+ * Entrada de log inmutable. El formateo se hace en el sink (fuera del hilo que
+ * registra la entrada).
+ * 
+ * @param timestamp Momento del registro (milisegundos desde epoch).
+ * @param level     Nivel.
+ * @param source    Origen (p. ej. {@code task.splitter} o {@code port.in}).
+ * @param thread    Nombre del hilo que registró la entrada.
+ * @param message   Texto del mensaje.
+ * @param error     Excepción asociada (puede ser null).
+ */
+public record LogRecord(long timestamp, LogLevel level, String source, String thread, String message,
+        Throwable error) {
+}
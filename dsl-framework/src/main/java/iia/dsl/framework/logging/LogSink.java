@@ -0,0 +1,27 @@
+package iia.dsl.framework.logging;
+
+/**
+ * Destino de las entradas de log. Se configura con {@link Log#setSink(LogSink)}.
+ */
+public interface LogSink {
+
+    /**
+     * Escribe (o encola) una entrada. Puede invocarse desde cualquier hilo.
+     * 
+     * @param record La entrada de log.
+     */
+    void write(LogRecord record);
+
+    /**
+     * Vuelca las entradas pendientes.
+     */
+    default void flush() {
+    }
+
+    /**
+     * Libera los recursos del sink tras volcar lo pendiente.
+     */
+    default void close() {
+        flush();
+    }
+}
@@ -0,0 +1,27 @@
+package iia.dsl.framework.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contador monótono thread-safe. Usa {@link LongAdder} para que varios hilos
+ * puedan incrementarlo sin contención.
+ */
+public class Counter {
+    private final LongAdder value = new LongAdder();
+
+    public void increment() {
+        value.increment();
+    }
+
+    public void add(long amount) {
+        value.add(amount);
+    }
+
+    public long get() {
+        return value.sum();
+    }
+
+    void reset() {
+        value.reset();
+    }
+}
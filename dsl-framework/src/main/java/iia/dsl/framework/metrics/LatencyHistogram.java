@@ -0,0 +1,107 @@
+package iia.dsl.framework.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias en nanosegundos con cubetas exponenciales (potencias
+ * de dos).
+ * 
+ * <p>
+ * Registrar una muestra cuesta un par de operaciones atómicas y no reserva
+ * memoria. Los percentiles son aproximados: se devuelve el límite superior de
+ * la cubeta que contiene el percentil, es decir, como mucho el doble del valor
+ * real.
+ */
+public class LatencyHistogram {
+    private static final int BUCKETS = 64;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Registra una muestra.
+     * 
+     * @param nanos Duración en nanosegundos.
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        buckets.incrementAndGet(bucketOf(nanos));
+        count.increment();
+        sum.add(nanos);
+
+        long current = max.get();
+        while (nanos > current && !max.compareAndSet(current, nanos)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * Registra la duración transcurrida desde {@code startNanos}.
+     * 
+     * @param startNanos Valor de {@link System#nanoTime()} al empezar.
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Calcula una instantánea de la distribución actual.
+     * 
+     * @return Número de muestras, media, percentiles y máximo.
+     */
+    public LatencySnapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+
+        long samples = count.sum();
+        double mean = samples == 0 ? 0 : (double) sum.sum() / samples;
+        return new LatencySnapshot(samples, mean,
+                percentile(counts, total, 0.50),
+                percentile(counts, total, 0.90),
+                percentile(counts, total, 0.99),
+                max.get());
+    }
+
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    private static int bucketOf(long nanos) {
+        // Cubeta i: [2^(i-1), 2^i)
+        return nanos == 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos));
+    }
+
+    private static long percentile(long[] counts, long total, double quantile) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i == 0 ? 0 : (i >= 63 ? Long.MAX_VALUE : (1L << i) - 1);
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+}
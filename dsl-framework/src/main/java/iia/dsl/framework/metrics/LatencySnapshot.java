@@ -0,0 +1,15 @@
+package iia.dsl.framework.metrics;
+
+/**
+ * Instantánea inmutable de un {@link LatencyHistogram}. Todos los tiempos están
+ * en nanosegundos.
+ * 
+ * @param count Número de muestras.
+ * @param mean  Media.
+ * @param p50   Percentil 50 (aproximado).
+ * @param p90   Percentil 90 (aproximado).
+ * @param p99   Percentil 99 (aproximado).
+ * @param max   Máximo observado.
+ */
+public record LatencySnapshot(long count, double mean, long p50, long p90, long p99, long max) {
+}
@@ -0,0 +1,26 @@
+package iia.dsl.framework.metrics;
+
+import java.util.Map;
+
+/**
+ * Vista JMX del {@link MetricsRegistry}, registrada como
+ * {@value MetricsRegistry#OBJECT_NAME}.
+ * 
+ * <p>
+ * Las latencias se exponen aplanadas con claves
+ * {@code <nombre>.count|mean|p50|p90|p99|max} (en microsegundos) para que
+ * cualquier consola JMX pueda mostrarlas sin tipos propios.
+ */
+public interface MetricsMXBean {
+
+    Map<String, Long> getCounters();
+
+    Map<String, Double> getGauges();
+
+    Map<String, Double> getLatencies();
+
+    /**
+     * Pone a cero contadores e histogramas.
+     */
+    void reset();
+}
@@ -0,0 +1,166 @@
+package iia.dsl.framework.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleSupplier;
+
+import javax.management.ObjectName;
+
+import iia.dsl.framework.logging.Log;
+
+/**
+ * Registro global de métricas del framework (Singleton).
+ * 
+ * <p>
+ * Guarda tres tipos de métricas identificadas por nombre:
+ * <ul>
+ * <li><b>Contadores</b> ({@link Counter}): mensajes de entrada/salida por tarea,
+ * errores de conectores...</li>
+ * <li><b>Histogramas</b> ({@link LatencyHistogram}): latencia de
+ * {@code execute()} y de las llamadas de los conectores.</li>
+ * <li><b>Gauges</b>: valores instantáneos calculados al leerlos (profundidad de
+ * los Slots, cola y hilos activos de los ExecutionEnvironment).</li>
+ * </ul>
+ * 
+ * <p>
+ * Las métricas se consultan con {@link #snapshot()} o por JMX bajo
+ * {@value #OBJECT_NAME}. Los nombres siguen el esquema
+ * {@code <tipo>.<id>.<métrica>}, p. ej. {@code task.splitter.in} o
+ * {@code slot.cold.depth}.
+ */
+public class MetricsRegistry implements MetricsMXBean {
+
+    public static final String OBJECT_NAME = "iia.dsl.framework:type=Metrics";
+
+    private static MetricsRegistry instance;
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, DoubleSupplier> gauges = new ConcurrentHashMap<>();
+
+    private MetricsRegistry() {
+    }
+
+    public static synchronized MetricsRegistry getInstance() {
+        if (instance == null) {
+            instance = new MetricsRegistry();
+            instance.registerMBean();
+        }
+        return instance;
+    }
+
+    private void registerMBean() {
+        try {
+            var server = ManagementFactory.getPlatformMBeanServer();
+            var name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+            }
+        } catch (Exception | LinkageError e) {
+            // Sin JMX (p. ej. entornos restringidos) la API de snapshot sigue disponible
+            Log.get("metrics").warn("No se pudo registrar el MBean de métricas", e);
+        }
+    }
+
+    // -- REGISTRO --
+
+    /**
+     * Obtiene (o crea) el contador con el nombre indicado.
+     * 
+     * @param name Nombre de la métrica.
+     * @return El contador.
+     */
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, key -> new Counter());
+    }
+
+    /**
+     * Obtiene (o crea) el histograma de latencias con el nombre indicado.
+     * 
+     * @param name Nombre de la métrica.
+     * @return El histograma.
+     */
+    public LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    /**
+     * Registra (o reemplaza) un gauge. La función se evalúa cada vez que se
+     * consultan las métricas, por lo que debe ser barata y thread-safe.
+     * 
+     * @param name  Nombre de la métrica.
+     * @param gauge Función que devuelve el valor actual.
+     */
+    public void gauge(String name, DoubleSupplier gauge) {
+        gauges.put(name, gauge);
+    }
+
+    /**
+     * Elimina todas las métricas cuyo nombre empiece por el prefijo indicado
+     * (p. ej. al apagar un ExecutionEnvironment).
+     * 
+     * @param prefix Prefijo de los nombres a eliminar.
+     */
+    public void remove(String prefix) {
+        counters.keySet().removeIf(name -> name.startsWith(prefix));
+        histograms.keySet().removeIf(name -> name.startsWith(prefix));
+        gauges.keySet().removeIf(name -> name.startsWith(prefix));
+    }
+
+    // -- CONSULTA --
+
+    /**
+     * Captura el valor actual de todas las métricas.
+     * 
+     * @return Instantánea inmutable ordenada por nombre.
+     */
+    public MetricsSnapshot snapshot() {
+        Map<String, LatencySnapshot> latencies = new TreeMap<>();
+        histograms.forEach((name, histogram) -> latencies.put(name, histogram.snapshot()));
+        return new MetricsSnapshot(System.currentTimeMillis(), Map.copyOf(getCounters()),
+                Map.copyOf(getGauges()), Map.copyOf(latencies));
+    }
+
+    @Override
+    public Map<String, Long> getCounters() {
+        Map<String, Long> values = new TreeMap<>();
+        counters.forEach((name, counter) -> values.put(name, counter.get()));
+        return values;
+    }
+
+    @Override
+    public Map<String, Double> getGauges() {
+        Map<String, Double> values = new TreeMap<>();
+        gauges.forEach((name, gauge) -> {
+            try {
+                values.put(name, gauge.getAsDouble());
+            } catch (RuntimeException e) {
+                values.put(name, Double.NaN);
+            }
+        });
+        return values;
+    }
+
+    @Override
+    public Map<String, Double> getLatencies() {
+        Map<String, Double> values = new TreeMap<>();
+        histograms.forEach((name, histogram) -> {
+            var s = histogram.snapshot();
+            values.put(name + ".count", (double) s.count());
+            values.put(name + ".mean", s.mean() / 1_000.0);
+            values.put(name + ".p50", s.p50() / 1_000.0);
+            values.put(name + ".p90", s.p90() / 1_000.0);
+            values.put(name + ".p99", s.p99() / 1_000.0);
+            values.put(name + ".max", s.max() / 1_000.0);
+        });
+        return values;
+    }
+
+    @Override
+    public void reset() {
+        counters.values().forEach(Counter::reset);
+        histograms.values().forEach(LatencyHistogram::reset);
+    }
+}
@@ -0,0 +1,27 @@
+package iia.dsl.framework.metrics;
+
+import java.util.Map;
+
+/**
+ * Instantánea inmutable de todas las métricas del {@link MetricsRegistry}.
+ * 
+ * @param timestamp Momento de la captura (milisegundos desde epoch).
+ * @param counters  Contadores por nombre.
+ * @param gauges    Valores instantáneos por nombre.
+ * @param latencies Histogramas de latencia por nombre.
+ */
+public record MetricsSnapshot(long timestamp, Map<String, Long> counters, Map<String, Double> gauges,
+        Map<String, LatencySnapshot> latencies) {
+
+    public long counter(String name) {
+        return counters.getOrDefault(name, 0L);
+    }
+
+    public double gauge(String name) {
+        return gauges.getOrDefault(name, 0.0);
+    }
+
+    public LatencySnapshot latency(String name) {
+        return latencies.get(name);
+    }
+}
@@ -1,5 +1,7 @@
 package iia.dsl.framework.ports;
 
+import java.util.Map;
+
 import org.w3c.dom.Document;
 
 import iia.dsl.framework.core.Message;
@@ -31,10 +33,33 @@ public class InputPort extends Port {
      * @param doc El documento XML recibido.
      */
     public void handleDocument(Document doc) {
-        System.out.println("InputPort '" + id + "' cargó documento en slot '" + outputSlot.getId() + "'");
+        log().debug(() -> "InputPort '" + id + "' cargó documento en slot '" + outputSlot.getId() + "'");
         outputSlot.setMessage(new Message(doc));
     }
 
+    /**
+     * Igual que {@link #handleDocument(Document)} pero añadiendo headers al
+     * mensaje (p. ej. {@link Message#SOURCE_PATH}).
+     * 
+     * @param doc     El documento XML recibido.
+     * @param headers Headers iniciales del mensaje.
+     */
+    public void handleDocument(Document doc, Map<String, String> headers) {
+        log().debug(() -> "InputPort '" + id + "' cargó documento en slot '" + outputSlot.getId() + "'");
+        outputSlot.setMessage(new Message(doc, headers));
+    }
+
+    /**
+     * Inyecta un documento todavía serializado: el mensaje solo se parsea si
+     * alguna tarea necesita el DOM (ver {@link Message#ofBytes(byte[], Map)}).
+     * 
+     * @param xml El XML recibido.
+     */
+    public void handleBytes(byte[] xml) {
+        log().debug(() -> "InputPort '" + id + "' cargó " + xml.length + " bytes en slot '" + outputSlot.getId() + "'");
+        outputSlot.setMessage(Message.ofBytes(xml, Map.of()));
+    }
+
     public Slot getOutputSlot() {
         return outputSlot;
     }
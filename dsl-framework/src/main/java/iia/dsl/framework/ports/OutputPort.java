@@ -2,6 +2,7 @@ package iia.dsl.framework.ports;
 
 import org.w3c.dom.Document;
 
+import iia.dsl.framework.core.Message;
 import iia.dsl.framework.core.Slot;
 
 import iia.dsl.framework.util.DocumentUtil;
@@ -34,30 +35,53 @@ public class OutputPort extends Port {
      */
     public Document getDocument() {
         if (!inputSlot.hasMessage()) {
-            System.out.println("OutputPort '" + id + "' no tiene mensaje en slot '" + inputSlot.getId() + "'");
+            log().debug(() -> "OutputPort '" + id + "' no tiene mensaje en slot '" + inputSlot.getId() + "'");
             return null;
         }
 
         var m = inputSlot.getMessage();
 
         if (m.hasDocument()) {
-            System.out.println("OutputPort '" + id + "' obtuvo documento desde slot '" + inputSlot.getId() + "'");
+            log().debug(() -> "OutputPort '" + id + "' obtuvo documento desde slot '" + inputSlot.getId() + "'");
             var doc = m.getDocument();
             if (xslt.isPresent()) {
                 try {
                     return DocumentUtil.applyXslt(doc, xslt.get());
                 } catch (Exception e) {
-                    System.err.println("Error applying XSLT in OutputPort: " + e.getMessage());
+                    log().error("Error applying XSLT in OutputPort: " + e.getMessage(), e);
                     return doc;
                 }
             }
             return doc;
         } else {
-            System.out.println("OutputPort '" + id + "' no encontró documento en slot '" + inputSlot.getId() + "'");
+            log().debug(() -> "OutputPort '" + id + "' no encontró documento en slot '" + inputSlot.getId() + "'");
             return null;
         }
     }
 
+    /**
+     * Igual que {@link #getDocument()} pero conservando el ID y los headers del
+     * mensaje (p. ej. para nombrar ficheros con el correlation-id).
+     * 
+     * @return Un mensaje con el documento (transformado o no) o null si el slot
+     *         está vacío o el mensaje no tiene documento.
+     */
+    public Message getMessage() {
+        var m = inputSlot.getMessage();
+        if (m == null || !m.hasDocument()) {
+            log().debug(() -> "OutputPort '" + id + "' no encontró documento en slot '" + inputSlot.getId() + "'");
+            return null;
+        }
+        if (xslt.isPresent()) {
+            try {
+                return new Message(m.getId(), DocumentUtil.applyXslt(m.getDocument(), xslt.get()), m.getHeaders());
+            } catch (Exception e) {
+                log().error("Error applying XSLT in OutputPort: " + e.getMessage(), e);
+            }
+        }
+        return m;
+    }
+
     public Slot getInputSlot() {
         return inputSlot;
     }
@@ -3,6 +3,7 @@ package iia.dsl.framework.ports;
 import java.util.Optional;
 
 import iia.dsl.framework.core.Element;
+import iia.dsl.framework.logging.Log;
 
 /**
  * Clase abstracta que define un puerto en el framework.
@@ -13,6 +14,7 @@ import iia.dsl.framework.core.Element;
  */
 public abstract class Port extends Element {
     protected final Optional<String> xslt;
+    private Log log;
 
     /**
      * Constructor por defecto. Inicializa sin XSLT.
@@ -51,4 +53,16 @@ public abstract class Port extends Element {
     public Optional<String> getXslt() {
         return xslt;
     }
+
+    /**
+     * Log del puerto ({@code port.<id>}).
+     * 
+     * @return El log asociado al puerto.
+     */
+    protected Log log() {
+        if (log == null) {
+            log = Log.get("port." + (id != null ? id : getClass().getSimpleName()));
+        }
+        return log;
+    }
 }
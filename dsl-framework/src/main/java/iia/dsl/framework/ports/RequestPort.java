@@ -52,6 +52,26 @@ public class RequestPort extends Port {
         return currentMessage.getDocument();
     }
 
+    /**
+     * Extrae el siguiente mensaje de solicitud del slot de entrada. A diferencia
+     * de {@link #getRequestDocument()} no guarda estado en el puerto, por lo que
+     * el conector puede tener varias solicitudes en curso a la vez y responder
+     * con {@link #handleResponse(Message, Document)}.
+     * 
+     * @return El mensaje de solicitud o null si el slot está vacío.
+     * @throws Exception Si el mensaje no contiene un documento.
+     */
+    public Message takeRequest() throws Exception {
+        var request = inputSlot.getMessage();
+        if (request == null)
+            return null;
+
+        if (!request.hasDocument())
+            throw new Exception("No hay Documento en el mensaje del slot de entrada para RequestPort '" + id + "'");
+
+        return request;
+    }
+
     /**
      * Procesa la respuesta recibida del conector.
      * Aplica XSLT opcional y coloca el resultado en el slot de salida.
@@ -61,6 +81,18 @@ public class RequestPort extends Port {
      * @throws Exception Si ocurre un error de transformación.
      */
     public void handleResponse(Document responseDoc) throws Exception {
+        handleResponse(currentMessage, responseDoc);
+    }
+
+    /**
+     * Procesa la respuesta a una solicitud concreta (obtenida con
+     * {@link #takeRequest()}), preservando sus cabeceras.
+     * 
+     * @param request     La solicitud original (puede ser null).
+     * @param responseDoc El documento de respuesta recibido.
+     * @throws Exception Si ocurre un error de transformación.
+     */
+    public void handleResponse(Message request, Document responseDoc) throws Exception {
         if (responseDoc == null)
             return;
 
@@ -70,13 +102,32 @@ public class RequestPort extends Port {
             responseDoc = DocumentUtil.applyXslt(responseDoc, xsltString);
         }
 
-        if (currentMessage != null) {
-            outputSlot.setMessage(new Message(responseDoc, currentMessage.getHeaders()));
+        if (request != null) {
+            outputSlot.setMessage(new Message(responseDoc, request.getHeaders()));
         } else {
             outputSlot.setMessage(new Message(responseDoc));
         }
     }
 
+    /**
+     * Envía una respuesta ya construida, conservando su id y sus cabeceras. La
+     * usan los conectores que responden a una solicitud con varios mensajes
+     * (p. ej. los fragmentos del modo streaming de DataBaseConnector).
+     *
+     * @param response El mensaje de respuesta.
+     * @throws Exception Si ocurre un error de transformación.
+     */
+    public void sendResponse(Message response) throws Exception {
+        if (response == null || !response.hasDocument())
+            return;
+
+        if (xslt.isPresent()) {
+            response = new Message(response.getId(), DocumentUtil.applyXslt(response.getDocument(), xslt.get()),
+                    response.getHeaders());
+        }
+        outputSlot.setMessage(response);
+    }
+
     public Slot getInputSlot() {
         return inputSlot;
     }
@@ -4,7 +4,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 import iia.dsl.framework.core.ExecutableElement;
+import iia.dsl.framework.core.Message;
 import iia.dsl.framework.core.Slot;
+import iia.dsl.framework.metrics.Counter;
+import iia.dsl.framework.metrics.MetricsRegistry;
 
 /**
  * Clase base abstracta para todas las tareas del framework.
@@ -17,17 +20,46 @@ import iia.dsl.framework.core.Slot;
  * 
  * Las subclases deben implementar el método execute() para definir la lógica de
  * negocio.
+ * 
+ * <p>
+ * Las tareas consumen sus entradas por lotes ({@link #nextBatch(Slot)}) y
+ * publican sus resultados con {@link #emit(Slot, List)}, de modo que cada lote
+ * genera una única notificación a los listeners del Slot de salida.
+ * 
+ * <p>
+ * Los mensajes consumidos y producidos se contabilizan en el
+ * {@link MetricsRegistry} como {@code task.<id>.in} y {@code task.<id>.out}.
+ * Las tareas que no trabajan por lotes usan {@link #receive(Slot)} y
+ * {@link #send(Slot, Message)}.
  */
 public abstract class Task extends ExecutableElement {
+    /**
+     * Número de mensajes por lote por defecto.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 64;
+
     protected final List<Slot> inputSlots;
     protected final List<Slot> outputSlots;
     protected final TaskType type;
+    protected int batchSize = DEFAULT_BATCH_SIZE;
+
+    private final Counter messagesIn;
+    private final Counter messagesOut;
 
     public Task(String id, TaskType type) {
         super(id);
         this.inputSlots = new ArrayList<>();
         this.outputSlots = new ArrayList<>();
         this.type = type;
+
+        var metrics = MetricsRegistry.getInstance();
+        this.messagesIn = metrics.counter(getMetricsName() + ".in");
+        this.messagesOut = metrics.counter(getMetricsName() + ".out");
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "task." + (id != null ? id : getClass().getSimpleName());
     }
 
     /**
@@ -78,6 +110,110 @@ public abstract class Task extends ExecutableElement {
         return outputSlots;
     }
 
+    /**
+     * Establece el número máximo de mensajes que la tarea procesa por lote.
+     * 
+     * @param batchSize Tamaño del lote (mayor que 0).
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("El tamaño de lote debe ser mayor que 0");
+        }
+        this.batchSize = batchSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Extrae el siguiente lote de mensajes de un slot de entrada.
+     * 
+     * @param in El slot de entrada.
+     * @return Lista con hasta {@code batchSize} mensajes; vacía si no hay más.
+     */
+    protected List<Message> nextBatch(Slot in) {
+        List<Message> batch = new ArrayList<>(Math.min(batchSize, Math.max(1, in.getMessageCount())));
+        messagesIn.add(in.drainTo(batch, batchSize));
+        return batch;
+    }
+
+    /**
+     * Procesa uno a uno los mensajes de un lote. Si alguno falla se sigue con el
+     * resto, para no perder los mensajes que ya se sacaron del slot junto con
+     * él, y al terminar se relanza la primera excepción (las demás van como
+     * suprimidas). Así el error se registra igual que antes y lo que quede en
+     * el slot se procesa en la siguiente ejecución.
+     * 
+     * @param batch   El lote extraído con {@link #nextBatch(Slot)}.
+     * @param handler Procesa un mensaje.
+     * @throws Exception La primera excepción lanzada por {@code handler}.
+     */
+    protected void processBatch(List<Message> batch, MessageHandler handler) throws Exception {
+        Exception failure = null;
+        for (var m : batch) {
+            try {
+                handler.handle(m);
+            } catch (Exception e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Procesamiento de un mensaje dentro de {@link #processBatch(List, MessageHandler)}.
+     */
+    @FunctionalInterface
+    protected interface MessageHandler {
+        void handle(Message m) throws Exception;
+    }
+
+    /**
+     * Extrae un único mensaje de un slot de entrada.
+     * 
+     * @param in El slot de entrada.
+     * @return El mensaje o null si el slot está vacío.
+     */
+    protected Message receive(Slot in) {
+        var message = in.getMessage();
+        if (message != null) {
+            messagesIn.increment();
+        }
+        return message;
+    }
+
+    /**
+     * Publica un único mensaje en un slot de salida.
+     * 
+     * @param out     El slot de salida.
+     * @param message El mensaje a publicar.
+     */
+    protected void send(Slot out, Message message) {
+        messagesOut.increment();
+        out.setMessage(message);
+    }
+
+    /**
+     * Publica un lote de mensajes en un slot de salida con una única
+     * notificación.
+     * 
+     * @param out   El slot de salida.
+     * @param batch Los mensajes a publicar (puede estar vacío).
+     */
+    protected void emit(Slot out, List<Message> batch) {
+        if (!batch.isEmpty()) {
+            messagesOut.add(batch.size());
+            out.setMessages(batch);
+        }
+    }
+
     /**
      * Obtiene el tipo de la tarea basado en su clase concreta.
      * 
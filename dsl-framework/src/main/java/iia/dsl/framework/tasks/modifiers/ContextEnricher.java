@@ -1,13 +1,13 @@
 package iia.dsl.framework.tasks.modifiers;
 
 import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathFactory;
 
 import org.w3c.dom.Node;
 
 import iia.dsl.framework.core.Slot;
 import iia.dsl.framework.tasks.Task;
 import iia.dsl.framework.tasks.TaskType;
+import iia.dsl.framework.util.XPathCache;
 
 /**
  * Tarea de modificación contextual que enriquece un mensaje principal
@@ -57,8 +57,8 @@ public class ContextEnricher extends Task {
         var context = inputSlots.get(1);
 
         while (in.hasMessage() && context.hasMessage()) {
-            var m = in.getMessage();
-            var contextMessage = context.getMessage();
+            var m = receive(in);
+            var contextMessage = receive(context);
 
             if (!m.hasDocument()) {
                 throw new Exception("No hay Documento en el slot de entrada para ContextEnricher");
@@ -70,35 +70,32 @@ public class ContextEnricher extends Task {
 
             // Saca el xpath del cuerpo del mensaje de contexto
             var xpath = "/context/xpath";
-            var xpathFactory = XPathFactory.newInstance();
-            var xpathExpr = xpathFactory.newXPath().compile(xpath);
-            var contextNode = (Node) xpathExpr.evaluate(contextMessage.getDocument(), XPathConstants.NODE);
+            var contextNode = (Node) XPathCache.evaluate(xpath, contextMessage.getDocument(), XPathConstants.NODE);
             if (contextNode == null) {
                 throw new Exception("No se encontró el nodo de XPath en el mensaje de contexto para ContextEnricher");
             }
 
             // Saca el cuerpo con el cual enriquecer el mensaje desde el mensaje de contexto
             xpath = "/context/body";
-            xpathExpr = xpathFactory.newXPath().compile(xpath);
-            var bodyNode = (Node) xpathExpr.evaluate(contextMessage.getDocument(), XPathConstants.NODE);
+            var bodyNode = (Node) XPathCache.evaluate(xpath, contextMessage.getDocument(), XPathConstants.NODE);
             if (bodyNode == null) {
                 throw new Exception("No se encontró el nodo de cuerpo en el mensaje de contexto para ContextEnricher");
             }
 
             // Saca el nodo a enriquecer usando el xpath del mensaje de contexto
             xpath = contextNode.getFirstChild().getNodeValue();
-            xpathExpr = xpathFactory.newXPath().compile(xpath);
-            var enrichNode = (Node) xpathExpr.evaluate(m.getDocument(), XPathConstants.NODE);
+            var doc = m.getDocumentForUpdate();
+            var enrichNode = (Node) XPathCache.evaluate(xpath, doc, XPathConstants.NODE);
             if (enrichNode == null) {
                 throw new Exception("No se encontró el nodo a enriquecer en el mensaje para ContextEnricher");
             }
 
             // Enriquece el nodo
             // Importar el nodo del contexto al documento del mensaje antes de agregarlo
-            Node importedBody = m.getDocument().importNode(bodyNode.getFirstChild(), true);
+            Node importedBody = doc.importNode(bodyNode.getFirstChild(), true);
             enrichNode.appendChild(importedBody);
 
-            outputSlots.get(0).setMessage(m);
+            send(outputSlots.get(0), m);
         }
     }
 }
@@ -1,13 +1,13 @@
 package iia.dsl.framework.tasks.modifiers;
 
 import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathFactory;
 
 import org.w3c.dom.Node;
 
 import iia.dsl.framework.core.Slot;
 import iia.dsl.framework.tasks.Task;
 import iia.dsl.framework.tasks.TaskType;
+import iia.dsl.framework.util.XPathCache;
 
 /**
  * Tarea de modificación contextual que elimina partes de un mensaje principal
@@ -46,8 +46,8 @@ public class ContextSlimmer extends Task {
         var context = inputSlots.get(1);
 
         while (in.hasMessage() && context.hasMessage()) {
-            var m = in.getMessage();
-            var contextMessage = context.getMessage();
+            var m = receive(in);
+            var contextMessage = receive(context);
 
             if (!m.hasDocument() || !contextMessage.hasDocument()) {
                 throw new Exception("No hay Documento en el slot de entrada para ContextSlimmer");
@@ -55,24 +55,21 @@ public class ContextSlimmer extends Task {
 
             // Saca el xpath del cuerpo del mensaje de contexto
             var xpath = "/context/xpath";
-            var xpathFactory = XPathFactory.newInstance();
-            var xpathExpr = xpathFactory.newXPath().compile(xpath);
-            var contextNode = (Node) xpathExpr.evaluate(contextMessage.getDocument(), XPathConstants.NODE);
+            var contextNode = (Node) XPathCache.evaluate(xpath, contextMessage.getDocument(), XPathConstants.NODE);
             if (contextNode == null) {
                 throw new Exception("No se encontró el nodo de XPath en el mensaje de contexto para ContextSlimmer");
             }
 
             // Saca el nodo a eliminar usando el xpath del mensaje de contexto
             xpath = contextNode.getFirstChild().getNodeValue();
-            xpathExpr = xpathFactory.newXPath().compile(xpath);
-            var removeNode = (Node) xpathExpr.evaluate(m.getDocument(), XPathConstants.NODE);
+            var removeNode = (Node) XPathCache.evaluate(xpath, m.getDocumentForUpdate(), XPathConstants.NODE);
             if (removeNode == null) {
                 throw new Exception("No se encontró el nodo a eliminar en el mensaje para ContextSlimmer");
             }
 
             // Elimina el nodo del mensaje
             removeNode.getParentNode().removeChild(removeNode);
-            outputSlots.get(0).setMessage(m);
+            send(outputSlots.get(0), m);
         }
     }
 }
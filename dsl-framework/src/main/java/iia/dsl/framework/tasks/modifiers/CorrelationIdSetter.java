@@ -1,6 +1,8 @@
 // Source code is decompiled from a .class file using FernFlower decompiler (from Intellij IDEA).
 package iia.dsl.framework.tasks.modifiers;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import iia.dsl.framework.core.Message;
@@ -39,17 +41,21 @@ public class CorrelationIdSetter extends Task {
       var inSlot = inputSlots.get(0);
       var outSlot = outputSlots.get(0);
 
-      while (inSlot.hasMessage()) {
-         // Intentar compatibilidad con uso por documentos individuales
-         var msg = inSlot.getMessage();
+      for (var batch = nextBatch(inSlot); !batch.isEmpty(); batch = nextBatch(inSlot)) {
+         List<Message> tagged = new ArrayList<>(batch.size());
+         try {
+            processBatch(batch, msg -> {
+               if (!msg.hasDocument()) {
+                  throw new Exception(
+                        "No hay mensaje/documento en el slot de entrada para CorrelationIdSetter '" + id + "'");
+               }
 
-         if (!msg.hasDocument()) {
-            throw new Exception("No hay mensaje/documento en el slot de entrada para CorrelationIdSetter '" + id + "'");
+               msg.addHeader(Message.CORRELATION_ID, generateId());
+               tagged.add(msg);
+            });
+         } finally {
+            emit(outSlot, tagged);
          }
-
-         msg.addHeader(Message.CORRELATION_ID, generateId());
-
-         outSlot.setMessage(msg);
       }
    }
 
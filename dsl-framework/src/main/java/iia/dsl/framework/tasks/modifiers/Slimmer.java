@@ -1,7 +1,9 @@
 package iia.dsl.framework.tasks.modifiers;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathFactory;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
@@ -10,6 +12,7 @@ import iia.dsl.framework.core.Message;
 import iia.dsl.framework.core.Slot;
 import iia.dsl.framework.tasks.Task;
 import iia.dsl.framework.tasks.TaskType;
+import iia.dsl.framework.util.XPathCache;
 
 /**
  * Tarea de modificación que elimina un nodo específico del documento XML.
@@ -36,31 +39,32 @@ public class Slimmer extends Task {
     public void execute() throws Exception {
         var in = inputSlots.get(0);
 
-        while (in.hasMessage()) {
-            var m = in.getMessage();
-
-            if (!m.hasDocument()) {
-                throw new Exception("No hay ningun documento para leer");
-            }
-
-            var d = m.getDocument();
+        for (var batch = nextBatch(in); !batch.isEmpty(); batch = nextBatch(in)) {
+            List<Message> slimmed = new ArrayList<>(batch.size());
+            try {
+                processBatch(batch, m -> {
+                    if (!m.hasDocument()) {
+                        throw new Exception("No hay ningun documento para leer");
+                    }
 
-            var xf = XPathFactory.newInstance();
-            var x = xf.newXPath();
+                    var d = m.getDocument();
 
-            var ce = x.compile(xpath);
-            var node = ce.evaluate(d, XPathConstants.NODE);
+                    var node = XPathCache.evaluate(xpath, d, XPathConstants.NODE);
 
-            if (node != null) {
-                var dr = (Document) d.cloneNode(true);
+                    if (node != null) {
+                        var dr = (Document) d.cloneNode(true);
 
-                var nodeToRemove = ce.evaluate(dr, XPathConstants.NODE);
+                        var nodeToRemove = XPathCache.evaluate(xpath, dr, XPathConstants.NODE);
 
-                if (nodeToRemove != null && nodeToRemove instanceof Node) {
-                    ((Node) nodeToRemove).getParentNode().removeChild((Node) nodeToRemove);
+                        if (nodeToRemove != null && nodeToRemove instanceof Node) {
+                            ((Node) nodeToRemove).getParentNode().removeChild((Node) nodeToRemove);
 
-                    outputSlots.get(0).setMessage(new Message(m.getId(), dr, m.getHeaders()));
-                }
+                            slimmed.add(new Message(m.getId(), dr, m.getHeaders()));
+                        }
+                    }
+                });
+            } finally {
+                emit(outputSlots.get(0), slimmed);
             }
         }
     }
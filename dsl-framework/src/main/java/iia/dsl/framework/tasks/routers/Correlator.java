@@ -7,7 +7,6 @@ import java.util.Map;
 import java.util.Optional;
 
 import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathFactory;
 
 import org.w3c.dom.Node;
 
@@ -15,6 +14,7 @@ import iia.dsl.framework.core.Message;
 import iia.dsl.framework.core.Slot;
 import iia.dsl.framework.tasks.Task;
 import iia.dsl.framework.tasks.TaskType;
+import iia.dsl.framework.util.XPathCache;
 
 /**
  * Tarea de enrutamiento que sincroniza y agrupa mensajes provenientes de
@@ -74,7 +74,7 @@ public class Correlator extends Task {
             var in = inputSlots.get(i);
 
             while (in.hasMessage()) {
-                var m = in.getMessage();
+                var m = receive(in);
                 if (!m.hasDocument()) {
                     throw new Exception("No hay Documento en el slot de entrada para Correlator '" + id + "'");
                 }
@@ -82,12 +82,8 @@ public class Correlator extends Task {
                 String correlationId;
 
                 if (xPath.isPresent()) {
-                    XPathFactory xf = XPathFactory.newInstance();
-                    var x = xf.newXPath();
-
-                    var path = x.compile(xPath.get());
-
-                    var correlationIdNode = (Node) path.evaluate(m.getDocument(), XPathConstants.NODE);
+                    var correlationIdNode = (Node) XPathCache.evaluate(xPath.get(), m.getDocument(),
+                            XPathConstants.NODE);
 
                     correlationId = correlationIdNode.getFirstChild().getNodeValue();
 
@@ -124,7 +120,7 @@ public class Correlator extends Task {
                         messages.remove(correlationId);
                     }
                     for (int j = 0; j < outputSlots.size(); j++) {
-                        outputSlots.get(j).setMessage(new Message(msgs[j]));
+                        send(outputSlots.get(j), new Message(msgs[j]));
                     }
                 }
             }
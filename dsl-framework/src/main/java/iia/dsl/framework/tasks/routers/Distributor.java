@@ -1,13 +1,15 @@
 package iia.dsl.framework.tasks.routers;
 
+import java.util.ArrayList;
 import java.util.List;
 
-import javax.xml.xpath.XPathFactory;
+import javax.xml.xpath.XPathConstants;
 
 import iia.dsl.framework.core.Message;
 import iia.dsl.framework.core.Slot;
 import iia.dsl.framework.tasks.Task;
 import iia.dsl.framework.tasks.TaskType;
+import iia.dsl.framework.util.XPathCache;
 
 /**
  * Tarea de enrutamiento condicional. Distribuye un mensaje entrante hacia
@@ -43,25 +45,39 @@ public class Distributor extends Task {
 
         var in = inputSlots.get(0);
 
-        while (in.hasMessage()) {
-            var m = in.getMessage();
-
-            if (!m.hasDocument()) {
-                throw new Exception("No hay Documento en el slot de entrada para Distributor '" + id + "'");
+        for (var batch = nextBatch(in); !batch.isEmpty(); batch = nextBatch(in)) {
+            // Un lote de salida por rama
+            List<List<Message>> routed = new ArrayList<>(outputSlots.size());
+            for (int i = 0; i < outputSlots.size(); i++) {
+                routed.add(new ArrayList<>());
             }
 
-            var d = m.getDocument();
-
-            var xf = XPathFactory.newInstance();
-            var x = xf.newXPath();
-
-            for (int i = 0; i < xPath.size(); i++) {
-
-                var ce = x.compile(xPath.get(i));
-                var result = (Boolean) ce.evaluate(d, javax.xml.xpath.XPathConstants.BOOLEAN);
-
-                if (result != null && result) {
-                    outputSlots.get(i).setMessage(new Message(m.getId(), d, m.getHeaders()));
+            try {
+                processBatch(batch, m -> {
+                    if (!m.hasDocument()) {
+                        throw new Exception("No hay Documento en el slot de entrada para Distributor '" + id + "'");
+                    }
+
+                    var d = m.getDocument();
+
+                    List<Integer> matches = new ArrayList<>(1);
+                    for (int i = 0; i < xPath.size(); i++) {
+                        var result = (Boolean) XPathCache.evaluate(xPath.get(i), d, XPathConstants.BOOLEAN);
+
+                        if (result != null && result) {
+                            matches.add(i);
+                        }
+                    }
+
+                    // Las salidas comparten el documento con copia en escritura
+                    var copies = m.replicate(matches.size());
+                    for (int j = 0; j < matches.size(); j++) {
+                        routed.get(matches.get(j)).add(copies.get(j));
+                    }
+                });
+            } finally {
+                for (int i = 0; i < outputSlots.size(); i++) {
+                    emit(outputSlots.get(i), routed.get(i));
                 }
             }
         }
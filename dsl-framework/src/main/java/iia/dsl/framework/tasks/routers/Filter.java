@@ -1,11 +1,15 @@
 package iia.dsl.framework.tasks.routers;
 
-import javax.xml.xpath.XPathFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.xpath.XPathConstants;
 
 import iia.dsl.framework.core.Message;
 import iia.dsl.framework.core.Slot;
 import iia.dsl.framework.tasks.Task;
 import iia.dsl.framework.tasks.TaskType;
+import iia.dsl.framework.util.XPathCache;
 
 /**
  * Tarea de enrutamiento que filtra mensajes según una condición lógica.
@@ -35,23 +39,24 @@ public class Filter extends Task {
     public void execute() throws Exception {
         var in = inputSlots.get(0);
 
-        while (in.hasMessage()) {
-            var m = in.getMessage();
-
-            if (!m.hasDocument()) {
-                throw new Exception("No hay Documento en el slot de entrada para Filter '" + id + "'");
-            }
-
-            var d = m.getDocument();
+        for (var batch = nextBatch(in); !batch.isEmpty(); batch = nextBatch(in)) {
+            List<Message> accepted = new ArrayList<>(batch.size());
+            try {
+                processBatch(batch, m -> {
+                    if (!m.hasDocument()) {
+                        throw new Exception("No hay Documento en el slot de entrada para Filter '" + id + "'");
+                    }
 
-            var xf = XPathFactory.newInstance();
-            var x = xf.newXPath();
+                    var d = m.getDocument();
 
-            var ce = x.compile(xpath);
-            var result = ce.evaluate(d, javax.xml.xpath.XPathConstants.NUMBER);
+                    var result = XPathCache.evaluate(xpath, d, XPathConstants.NUMBER);
 
-            if (result instanceof Number && ((Number) result).doubleValue() == 1.0) {
-                outputSlots.get(0).setMessage(new Message(m));
+                    if (result instanceof Number && ((Number) result).doubleValue() == 1.0) {
+                        accepted.add(new Message(m));
+                    }
+                });
+            } finally {
+                emit(outputSlots.get(0), accepted);
             }
         }
     }
@@ -1,7 +1,9 @@
 package iia.dsl.framework.tasks.routers;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import iia.dsl.framework.core.Message;
 import iia.dsl.framework.core.Slot;
 import iia.dsl.framework.tasks.Task;
 import iia.dsl.framework.tasks.TaskType;
@@ -51,13 +53,18 @@ public class Merger extends Task {
 
         // Iterar sobre TODOS los inputSlots
         for (Slot inputSlot : inputSlots) {
-            while (inputSlot.hasMessage()) {
-                var msg = inputSlot.getMessage();
-
-                if (msg.hasDocument()) {
-                    outputSlot.setMessage(msg);
-                } else {
-                    throw new Exception("No hay Documento en el slot de entrada para Merger '" + id + "'");
+            for (var batch = nextBatch(inputSlot); !batch.isEmpty(); batch = nextBatch(inputSlot)) {
+                List<Message> merged = new ArrayList<>(batch.size());
+                try {
+                    processBatch(batch, msg -> {
+                        if (msg.hasDocument()) {
+                            merged.add(msg);
+                        } else {
+                            throw new Exception("No hay Documento en el slot de entrada para Merger '" + id + "'");
+                        }
+                    });
+                } finally {
+                    emit(outputSlot, merged);
                 }
             }
         }
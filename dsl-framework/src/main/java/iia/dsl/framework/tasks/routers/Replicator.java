@@ -1,5 +1,6 @@
 package iia.dsl.framework.tasks.routers;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import iia.dsl.framework.core.Message;
@@ -15,8 +16,9 @@ import iia.dsl.framework.tasks.TaskType;
  * Cada slot de salida recibe una copia nueva del mensaje (objeto
  * {@code Message}), permitiendo
  * que flujos paralelos procesen la misma información de manera independiente.
- * Nota: El documento XML interno es compartido (referencia) a menos que se
- * modifique explícitamente después.
+ * El documento XML se comparte con copia en escritura: las ramas leen el mismo
+ * árbol y solo la que lo modifica (vía {@link Message#getDocumentForUpdate()})
+ * paga la copia, sin afectar a las demás.
  */
 public class Replicator extends Task {
 
@@ -35,19 +37,30 @@ public class Replicator extends Task {
     public void execute() throws Exception {
         var in = inputSlots.get(0);
 
-        while (in.hasMessage()) {
-            var m = in.getMessage();
-
-            if (!m.hasDocument()) {
-                throw new Exception("Replicator '" + id + "' no tiene documento para duplicar.");
-            }
-
-            for (Slot outputSlot : outputSlots) {
-                outputSlot.setMessage(new Message(m));
-                // Clonar el documento para que cada salida tenga copia independiente??
-                // Document clonedDoc = (Document) m.getDocument().cloneNode(true);
-                // Message clonedMessage = new Message(m.getId(), clonedDoc, m.getHeaders());
-                // outputSlot.setMessage(clonedMessage);
+        for (var batch = nextBatch(in); !batch.isEmpty(); batch = nextBatch(in)) {
+            List<Message> replicated = new ArrayList<>(batch.size());
+            try {
+                processBatch(batch, m -> {
+                    if (!m.hasDocument()) {
+                        throw new Exception("Replicator '" + id + "' no tiene documento para duplicar.");
+                    }
+                    replicated.add(m);
+                });
+            } finally {
+                int branches = outputSlots.size();
+                List<List<Message>> copies = new ArrayList<>(branches);
+                for (int i = 0; i < branches; i++) {
+                    copies.add(new ArrayList<>(replicated.size()));
+                }
+                for (var m : replicated) {
+                    var replicas = m.replicate(branches);
+                    for (int i = 0; i < branches; i++) {
+                        copies.get(i).add(replicas.get(i));
+                    }
+                }
+                for (int i = 0; i < branches; i++) {
+                    emit(outputSlots.get(i), copies.get(i));
+                }
             }
         }
     }
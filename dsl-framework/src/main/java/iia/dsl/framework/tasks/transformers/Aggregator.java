@@ -1,10 +1,12 @@
 package iia.dsl.framework.tasks.transformers;
 
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathFactory;
 
 import org.w3c.dom.Node;
 
@@ -13,6 +15,7 @@ import iia.dsl.framework.core.Slot;
 import iia.dsl.framework.tasks.Task;
 import iia.dsl.framework.tasks.TaskType;
 import iia.dsl.framework.util.Storage;
+import iia.dsl.framework.util.XPathCache;
 
 /**
  * Tarea de transformación que reconstruye un documento original a partir de sus
@@ -22,22 +25,28 @@ import iia.dsl.framework.util.Storage;
  * Complemento del {@link Splitter}. Funciona recolectando fragmentos de
  * mensajes que comparten un mismo ID.
  * Utiliza los headers {@code NUM_FRAG} y {@code TOTAL_FRAG} para determinar
- * cuándo se han recibido todas las piezas.
+ * cuándo se han recibido todas las piezas. Los fragmentos de un
+ * {@link StreamingSplitter} (header {@code FRAG_STREAM}) solo traen
+ * {@code TOTAL_FRAG} en el último; hasta entonces el grupo crece según llegan.
  * 
  * <p>
  * Una vez completado el conjunto:
  * <ol>
  * <li>Recupera el documento "esqueleto" original desde el {@link Storage}.</li>
  * <li>Reinserta cada fragmento en la ubicación especificada por
- * {@code itemXPath}.</li>
- * <li>Publica el documento reconstruido completo en el slot de salida.</li>
+ * {@code itemXPath}. Si el fragmento lleva el header {@code MERGE_CHILDREN}
+ * (los bloques {@code <resultset>} del modo streaming de DataBaseConnector),
+ * se reinsertan sus hijos.</li>
+ * <li>Publica el documento reconstruido completo en el slot de salida. Si
+ * algún fragmento trae {@code FRAG_ERROR} (la secuencia se cortó), el
+ * resultado lo conserva para indicar que está incompleto.</li>
  * </ol>
  */
 public class Aggregator extends Task {
 
     private final String itemXPath;
 
-    private final Map<String, Message[]> messages;
+    private final Map<String, FragmentGroup> messages;
 
     Aggregator(String id, Slot inputSlot, Slot outputSlot, String itemXPath) {
         super(id, TaskType.TRANSFORMER);
@@ -52,70 +61,122 @@ public class Aggregator extends Task {
     public void execute() throws Exception {
         var in = inputSlots.get(0);
 
-        while (in.hasMessage()) {
-            var m = in.getMessage();
-
-            if (!m.hasDocument()) {
-                throw new Exception("Error en Aggregator: El mensaje recibido no contiene un documento XML.");
+        for (var batch = nextBatch(in); !batch.isEmpty(); batch = nextBatch(in)) {
+            List<Message> completed = new ArrayList<>();
+            try {
+                processBatch(batch, m -> {
+                    var aggregated = aggregate(m);
+                    if (aggregated != null) {
+                        completed.add(aggregated);
+                    }
+                });
+            } finally {
+                emit(outputSlots.get(0), completed);
             }
+        }
+    }
 
-            if (!m.hasHeader(Message.NUM_FRAG) || !m.hasHeader(Message.TOTAL_FRAG)) {
-                throw new Exception("Error en Aggregator: Falta metadata de fragmentación (NUM_FRAG, TOTAL_FRAG).");
-            }
+    /**
+     * Registra un fragmento y, si completa su grupo, reconstruye el documento.
+     * 
+     * @return El mensaje reconstruido o null si aún faltan fragmentos.
+     */
+    private Message aggregate(Message m) throws Exception {
+        if (!m.hasDocument()) {
+            throw new Exception("Error en Aggregator: El mensaje recibido no contiene un documento XML.");
+        }
 
-            var numFrag = Integer.parseInt(m.getHeader(Message.NUM_FRAG));
-            var totalFrag = Integer.parseInt(m.getHeader(Message.TOTAL_FRAG));
+        boolean streamed = m.hasHeader(Message.FRAG_STREAM);
+        if (!m.hasHeader(Message.NUM_FRAG) || (!streamed && !m.hasHeader(Message.TOTAL_FRAG))) {
+            throw new Exception("Error en Aggregator: Falta metadata de fragmentación (NUM_FRAG, TOTAL_FRAG).");
+        }
 
-            Message[] fragments;
-            // Atomic initialization of the array if absent
-            synchronized (messages) {
-                if (!messages.containsKey(m.getId())) {
-                    messages.put(m.getId(), new Message[totalFrag]);
-                }
-                fragments = messages.get(m.getId());
-            }
+        var numFrag = Integer.parseInt(m.getHeader(Message.NUM_FRAG));
+        var totalFrag = m.hasHeader(Message.TOTAL_FRAG) ? Integer.parseInt(m.getHeader(Message.TOTAL_FRAG)) : -1;
 
-            // Sync on the specific fragment array to ensure consistent updates and checks
-            boolean allReceived = false;
-            synchronized (fragments) {
-                fragments[numFrag] = m;
+        // Atomic initialization of the group if absent
+        var group = messages.computeIfAbsent(m.getId(), key -> new FragmentGroup());
 
-                allReceived = true;
-                for (int i = 0; i < fragments.length; i++) {
-                    if (fragments[i] == null) {
-                        allReceived = false;
-                        break;
-                    }
-                }
-            }
+        // Sync on the specific group to ensure consistent updates and checks
+        Message[] fragments;
+        synchronized (group) {
+            fragments = group.add(numFrag, totalFrag, m);
+        }
 
-            if (allReceived) {
-                messages.remove(m.getId()); // Clean up map
+        if (fragments != null) {
+            messages.remove(m.getId()); // Clean up map
 
-                var storage = Storage.getInstance();
+            var storage = Storage.getInstance();
 
-                // Reconstruir el documento completo con el documento almacenado y los
-                // fragmentos recibidos en el xpath
-                var doc = storage.retrieveDocument(m.getId());
+            // Reconstruir el documento completo con el documento almacenado y los
+            // fragmentos recibidos en el xpath
+            var doc = storage.retrieveDocument(m.getId());
 
-                if (doc == null) {
-                    throw new Exception("No se encontró el documento original almacenado para el mensaje ID: "
-                            + m.getId());
-                }
+            if (doc == null) {
+                throw new Exception("No se encontró el documento original almacenado para el mensaje ID: "
+                        + m.getId());
+            }
 
-                var xf = XPathFactory.newInstance();
-                var x = xf.newXPath();
-                var ce = x.compile(itemXPath);
-                var nodeOfList = (Node) ce.evaluate(doc, XPathConstants.NODE);
+            var nodeOfList = (Node) XPathCache.evaluate(itemXPath, doc, XPathConstants.NODE);
 
-                for (Message msg : fragments) {
-                    var itemNode = doc.importNode(
-                            msg.getDocument().getDocumentElement(), true);
-                    nodeOfList.appendChild(itemNode);
+            String error = null;
+            for (Message msg : fragments) {
+                if (msg.hasHeader(Message.FRAG_ERROR)) {
+                    error = msg.getHeader(Message.FRAG_ERROR);
+                }
+                var fragmentRoot = msg.getDocument().getDocumentElement();
+                if (msg.hasHeader(Message.MERGE_CHILDREN)) {
+                    // Bloque con la misma forma que el contenedor (p. ej. los
+                    // <resultset> de DataBaseConnector): se añaden sus hijos
+                    for (Node child = fragmentRoot.getFirstChild(); child != null; child = child.getNextSibling()) {
+                        nodeOfList.appendChild(doc.importNode(child, true));
+                    }
+                } else {
+                    nodeOfList.appendChild(doc.importNode(fragmentRoot, true));
                 }
+            }
+
+            var result = new Message(m.getId(), doc, m.getHeaders());
+            if (error != null) {
+                result.addHeader(Message.FRAG_ERROR, error);
+            }
+            return result;
+        }
+
+        return null;
+    }
+
+    /**
+     * Fragmentos recibidos de un mismo mensaje. El total puede no conocerse hasta
+     * el último fragmento (modo streaming).
+     */
+    private static class FragmentGroup {
+        private Message[] fragments = new Message[0];
+        private int received = 0;
+        private int total = -1;
+
+        /**
+         * Registra un fragmento.
+         * 
+         * @return Los fragmentos ordenados si el grupo está completo, o null.
+         */
+        Message[] add(int numFrag, int totalFrag, Message m) {
+            if (totalFrag >= 0) {
+                total = totalFrag;
+            }
+            int size = Math.max(numFrag + 1, total);
+            if (size > fragments.length) {
+                fragments = Arrays.copyOf(fragments, Math.max(size, fragments.length * 2));
+            }
+            if (fragments[numFrag] == null) {
+                received++;
+            }
+            fragments[numFrag] = m;
 
-                outputSlots.get(0).setMessage(new Message(m.getId(), doc, m.getHeaders()));
+            if (total >= 0 && received == total) {
+                return Arrays.copyOf(fragments, total);
             }
+            return null;
         }
     }
 }
@@ -1,9 +1,11 @@
 package iia.dsl.framework.tasks.transformers;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathFactory;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
@@ -14,6 +16,7 @@ import iia.dsl.framework.core.Slot;
 import iia.dsl.framework.tasks.Task;
 import iia.dsl.framework.tasks.TaskType;
 import iia.dsl.framework.util.Storage;
+import iia.dsl.framework.util.XPathCache;
 
 /**
  * Tarea de transformación que divide un documento XML grande en múltiples
@@ -46,61 +49,62 @@ public class Splitter extends Task {
     public void execute() throws Exception {
         var in = inputSlots.get(0);
 
-        while (in.hasMessage()) {
-            var m = in.getMessage();
-
-            if (!m.hasDocument()) {
-                throw new Exception("No hay ningun documento para leer");
-            }
+        for (var batch = nextBatch(in); !batch.isEmpty(); batch = nextBatch(in)) {
+            processBatch(batch, this::split);
+        }
+    }
 
-            var d = m.getDocument();
+    /**
+     * Divide un mensaje en fragmentos y los publica en la salida.
+     */
+    private void split(Message m) throws Exception {
+        if (!m.hasDocument()) {
+            throw new Exception("No hay ningun documento para leer");
+        }
 
-            var xf = XPathFactory.newInstance();
-            var x = xf.newXPath();
+        // Se quitan los nodos del original, que queda como esqueleto
+        var d = m.getDocumentForUpdate();
 
-            var ce = x.compile(itemXPath);
-            var nodes = (NodeList) ce.evaluate(d, XPathConstants.NODESET);
+        var nodes = (NodeList) XPathCache.evaluate(itemXPath, d, XPathConstants.NODESET);
 
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            factory.setNamespaceAware(true);
-            DocumentBuilder builder = factory.newDocumentBuilder();
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        DocumentBuilder builder = factory.newDocumentBuilder();
 
-            if (nodes != null) {
-                int totalNodes = nodes.getLength();
-                java.util.List<Message> bufferedMessages = new java.util.ArrayList<>();
+        if (nodes != null) {
+            int totalNodes = nodes.getLength();
+            List<Message> bufferedMessages = new ArrayList<>(totalNodes);
 
-                for (int i = 0; i < totalNodes; i++) {
-                    Node node = nodes.item(i);
-                    if (node != null) {
-                        // Eliminar el nodo de su padre real, no del documento
-                        Node parent = node.getParentNode();
-                        if (parent != null) {
-                            parent.removeChild(node);
-                        }
+            for (int i = 0; i < totalNodes; i++) {
+                Node node = nodes.item(i);
+                if (node != null) {
+                    // Eliminar el nodo de su padre real, no del documento
+                    Node parent = node.getParentNode();
+                    if (parent != null) {
+                        parent.removeChild(node);
+                    }
 
-                        Document dr = builder.newDocument();
-                        Node importedNode = dr.importNode(node, true);
-                        dr.appendChild(importedNode);
+                    Document dr = builder.newDocument();
+                    Node importedNode = dr.importNode(node, true);
+                    dr.appendChild(importedNode);
 
-                        Message msg = new Message(m.getId(), dr, m.getHeaders());
-                        msg.addHeader(Message.NUM_FRAG, "" + i);
-                        msg.addHeader(Message.TOTAL_FRAG, "" + totalNodes);
+                    Message msg = new Message(m.getId(), dr, m.getHeaders());
+                    msg.addHeader(Message.NUM_FRAG, "" + i);
+                    msg.addHeader(Message.TOTAL_FRAG, "" + totalNodes);
 
-                        bufferedMessages.add(msg);
-                    }
+                    bufferedMessages.add(msg);
                 }
+            }
 
-                // CRITICAL: Store the document BEFORE emitting messages to ensure
-                // Aggregator can find it when fragments arrive.
-                Storage.getInstance().storeDocument(m.getId(), d);
+            // CRITICAL: Store the document BEFORE emitting messages to ensure
+            // Aggregator can find it when fragments arrive.
+            Storage.getInstance().storeDocument(m.getId(), d);
 
-                for (Message msg : bufferedMessages) {
-                    outputSlots.get(0).setMessage(msg);
-                }
-            } else {
-                // Even if no nodes, we should probably store the document?
-                Storage.getInstance().storeDocument(m.getId(), d);
-            }
+            // Todos los fragmentos se publican con una única notificación
+            emit(outputSlots.get(0), bufferedMessages);
+        } else {
+            // Even if no nodes, we should probably store the document?
+            Storage.getInstance().storeDocument(m.getId(), d);
         }
     }
 }
@@ -0,0 +1,234 @@
+package iia.dsl.framework.tasks.transformers;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.regex.Pattern;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import iia.dsl.framework.core.Message;
+import iia.dsl.framework.core.Slot;
+import iia.dsl.framework.tasks.Task;
+import iia.dsl.framework.tasks.TaskType;
+import iia.dsl.framework.util.Storage;
+
+/**
+ * Variante en streaming del {@link Splitter} para documentos demasiado grandes
+ * para cargarlos en memoria.
+ *
+ * <p>
+ * En lugar de un DOM, recibe mensajes con el header
+ * {@link Message#SOURCE_PATH} (los genera un
+ * {@link iia.dsl.framework.connectors.FileConnector} en modo streaming) y lee
+ * ese fichero con StAX:
+ * <ol>
+ * <li>Cada elemento que coincide con {@code itemPath} se construye como un
+ * documento independiente y se publica en cuanto se termina de leer, por lo
+ * que las tareas siguientes empiezan a trabajar mientras se lee el
+ * fichero.</li>
+ * <li>El resto del documento (el esqueleto) se guarda en el {@link Storage}
+ * para el {@link Aggregator}.</li>
+ * </ol>
+ *
+ * <p>
+ * Como el número total de fragmentos no se conoce hasta el final, los
+ * fragmentos llevan el header {@code FRAG_STREAM} y solo el último lleva
+ * {@code TOTAL_FRAG}. El esqueleto se guarda antes de publicar ese último
+ * fragmento, así que el Aggregator siempre lo encuentra al completar el grupo.
+ *
+ * <p>
+ * Solo admite rutas absolutas de nombres de elemento ({@code /a/b/c}); no hay
+ * predicados, comodines ni ejes.
+ */
+public class StreamingSplitter extends Task {
+    private static final Pattern SIMPLE_PATH = Pattern.compile("(/[\\w.\\-]+(:[\\w.\\-]+)?)+");
+
+    private final String itemPath;
+    private final String[] steps;
+    private final XMLInputFactory inputFactory;
+    private final DocumentBuilderFactory documentFactory;
+
+    StreamingSplitter(String id, Slot inputSlot, Slot outputSlot, String itemPath) {
+        super(id, TaskType.TRANSFORMER);
+        if (itemPath == null || !SIMPLE_PATH.matcher(itemPath).matches()) {
+            throw new IllegalArgumentException("Ruta no soportada en modo streaming (solo /a/b/c): " + itemPath);
+        }
+        this.itemPath = itemPath;
+        this.steps = itemPath.substring(1).split("/");
+        this.addInputSlot(inputSlot);
+        this.addOutputSlot(outputSlot);
+
+        inputFactory = XMLInputFactory.newInstance();
+        inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        inputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        documentFactory = DocumentBuilderFactory.newInstance();
+        documentFactory.setNamespaceAware(true);
+    }
+
+    public String getItemPath() {
+        return itemPath;
+    }
+
+    @Override
+    public void execute() throws Exception {
+        var in = inputSlots.get(0);
+
+        for (var m = receive(in); m != null; m = receive(in)) {
+            String path = m.getHeader(Message.SOURCE_PATH);
+            if (path == null) {
+                throw new Exception("StreamingSplitter '" + id + "' necesita el header "
+                        + Message.SOURCE_PATH + " (FileConnector en modo streaming)");
+            }
+            try (InputStream stream = new BufferedInputStream(new FileInputStream(path), 64 * 1024)) {
+                split(m, stream);
+            }
+        }
+    }
+
+    /**
+     * Recorre el documento publicando los fragmentos según se completan.
+     */
+    private void split(Message m, InputStream stream) throws Exception {
+        var builder = documentFactory.newDocumentBuilder();
+        Document skeleton = builder.newDocument();
+        Node skeletonCursor = skeleton;
+
+        Document fragment = null;
+        Node fragmentCursor = null;
+        int fragmentDepth = 0;
+
+        // Profundidad actual y cuántos pasos de la ruta coinciden con ella
+        int depth = 0;
+        int matched = 0;
+
+        // Se retiene un fragmento para poder marcar el último con TOTAL_FRAG
+        Message pending = null;
+        int count = 0;
+
+        XMLStreamReader reader = inputFactory.createXMLStreamReader(stream);
+        try {
+            while (reader.hasNext()) {
+                int event = reader.next();
+                switch (event) {
+                    case XMLStreamConstants.START_ELEMENT -> {
+                        if (fragment != null) {
+                            fragmentCursor = fragmentCursor.appendChild(createElement(fragment, reader));
+                            fragmentDepth++;
+                        } else {
+                            depth++;
+                            if (matched == depth - 1 && depth <= steps.length && matches(reader, steps[depth - 1])) {
+                                matched = depth;
+                            }
+                            if (matched == steps.length && depth == steps.length) {
+                                fragment = builder.newDocument();
+                                fragmentCursor = fragment.appendChild(createElement(fragment, reader));
+                                fragmentDepth = 1;
+                            } else {
+                                skeletonCursor = skeletonCursor.appendChild(createElement(skeleton, reader));
+                            }
+                        }
+                    }
+                    case XMLStreamConstants.END_ELEMENT -> {
+                        if (fragment != null) {
+                            fragmentCursor = fragmentCursor.getParentNode();
+                            if (--fragmentDepth == 0) {
+                                if (pending != null) {
+                                    send(outputSlots.get(0), pending);
+                                }
+                                pending = new Message(m.getId(), fragment, m.getHeaders());
+                                pending.removeHeader(Message.SOURCE_PATH);
+                                pending.addHeader(Message.NUM_FRAG, "" + count++);
+                                pending.addHeader(Message.FRAG_STREAM, "true");
+                                fragment = null;
+                                fragmentCursor = null;
+                                depth--;
+                                matched = Math.min(matched, depth);
+                            }
+                        } else {
+                            skeletonCursor = skeletonCursor.getParentNode();
+                            depth--;
+                            matched = Math.min(matched, depth);
+                        }
+                    }
+                    case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE -> {
+                        if (fragment != null) {
+                            fragmentCursor.appendChild(fragment.createTextNode(reader.getText()));
+                        } else if (skeletonCursor != skeleton) {
+                            skeletonCursor.appendChild(skeleton.createTextNode(reader.getText()));
+                        }
+                    }
+                    case XMLStreamConstants.COMMENT -> {
+                        if (fragment != null) {
+                            fragmentCursor.appendChild(fragment.createComment(reader.getText()));
+                        } else {
+                            skeletonCursor.appendChild(skeleton.createComment(reader.getText()));
+                        }
+                    }
+                    default -> {
+                        // Instrucciones de procesamiento, DTD, etc. no se conservan
+                    }
+                }
+            }
+        } finally {
+            reader.close();
+        }
+
+        // CRITICAL: Store the skeleton BEFORE emitting the last fragment so the
+        // Aggregator can find it when the group completes.
+        Storage.getInstance().storeDocument(m.getId(), skeleton);
+
+        if (pending != null) {
+            pending.addHeader(Message.TOTAL_FRAG, "" + count);
+            send(outputSlots.get(0), pending);
+        }
+    }
+
+    private boolean matches(XMLStreamReader reader, String step) {
+        int colon = step.indexOf(':');
+        if (colon < 0) {
+            return step.equals(reader.getLocalName());
+        }
+        return step.substring(colon + 1).equals(reader.getLocalName())
+                && step.substring(0, colon).equals(reader.getPrefix());
+    }
+
+    private Element createElement(Document doc, XMLStreamReader reader) {
+        String prefix = reader.getPrefix();
+        String qname = prefix == null || prefix.isEmpty() ? reader.getLocalName() : prefix + ":" + reader.getLocalName();
+        String namespace = reader.getNamespaceURI();
+        Element element = namespace == null || namespace.isEmpty()
+                ? doc.createElement(qname)
+                : doc.createElementNS(namespace, qname);
+
+        for (int i = 0; i < reader.getNamespaceCount(); i++) {
+            String nsPrefix = reader.getNamespacePrefix(i);
+            String attr = nsPrefix == null || nsPrefix.isEmpty() ? "xmlns" : "xmlns:" + nsPrefix;
+            element.setAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, attr, reader.getNamespaceURI(i));
+        }
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String attrPrefix = reader.getAttributePrefix(i);
+            String attrNamespace = reader.getAttributeNamespace(i);
+            String attrName = attrPrefix == null || attrPrefix.isEmpty()
+                    ? reader.getAttributeLocalName(i)
+                    : attrPrefix + ":" + reader.getAttributeLocalName(i);
+            if (attrNamespace == null || attrNamespace.isEmpty()) {
+                element.setAttribute(attrName, reader.getAttributeValue(i));
+            } else {
+                element.setAttributeNS(attrNamespace, attrName, reader.getAttributeValue(i));
+            }
+        }
+        return element;
+    }
+}
@@ -16,6 +16,11 @@ public class TransformerFactory {
         return new Splitter(id, inputSlot, outputSlot, itemXPath);
     }
 
+    public StreamingSplitter createStreamingSplitterTask(String id, Slot inputSlot, Slot outputSlot,
+            String itemPath) {
+        return new StreamingSplitter(id, inputSlot, outputSlot, itemPath);
+    }
+
     public Aggregator createAggregatorTask(String id, Slot inputSlot, Slot outputSlot, String itemXPath) {
         return new Aggregator(id, inputSlot, outputSlot, itemXPath);
     }
@@ -1,5 +1,8 @@
 package iia.dsl.framework.tasks.transformers;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import iia.dsl.framework.core.Message;
 import iia.dsl.framework.core.Slot;
 import iia.dsl.framework.tasks.Task;
@@ -28,22 +31,35 @@ public class Translator extends Task {
         this.xslt = xslt;
     }
 
+    /**
+     * Compila la hoja de estilos al preparar el flujo.
+     */
+    @Override
+    public void prepare() throws Exception {
+        DocumentUtil.compileXslt(xslt);
+    }
+
     @Override
     public void execute() throws Exception {
         var in = inputSlots.get(0);
 
-        while (in.hasMessage()) {
-            var m = in.getMessage();
+        for (var batch = nextBatch(in); !batch.isEmpty(); batch = nextBatch(in)) {
+            List<Message> translated = new ArrayList<>(batch.size());
+            try {
+                processBatch(batch, m -> {
+                    if (!m.hasDocument()) {
+                        throw new Exception("No hay Documento en el slot de entrada para Translator '" + id + "'");
+                    }
 
-            if (!m.hasDocument()) {
-                throw new Exception("No hay Documento en el slot de entrada para Translator '" + id + "'");
-            }
-
-            var d = m.getDocument();
+                    var d = m.getDocument();
 
-            var transformedDoc = DocumentUtil.applyXslt(d, xslt);
+                    var transformedDoc = DocumentUtil.applyXslt(d, xslt);
 
-            outputSlots.get(0).setMessage(new Message(m.getId(), transformedDoc, m.getHeaders()));
+                    translated.add(new Message(m.getId(), transformedDoc, m.getHeaders()));
+                });
+            } finally {
+                emit(outputSlots.get(0), translated);
+            }
         }
     }
 }
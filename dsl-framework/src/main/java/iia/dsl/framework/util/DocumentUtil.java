@@ -7,22 +7,36 @@ package iia.dsl.framework.util;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.StringReader;
+import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMResult;
 import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import iia.dsl.framework.metrics.MetricsRegistry;
 
 /**
  * Utilidades estáticas para el manejo de documentos XML (DOM).
@@ -31,6 +45,7 @@ import org.xml.sax.SAXException;
  * Provee métodos para:
  * <ul>
  * <li>Convertir Documentos a String (serialización).</li>
+ * <li>Serializar Documentos a su representación XML textual.</li>
  * <li>Parsear Strings a Documentos.</li>
  * <li>Aplicar transformaciones XSLT.</li>
  * <li>Visualizar la estructura del árbol XML.</li>
@@ -40,6 +55,37 @@ import org.xml.sax.SAXException;
  */
 public class DocumentUtil {
 
+    // Hojas de estilo compiladas (thread-safe), indexadas por el texto del XSLT
+    private static final Map<String, Templates> TEMPLATES = new ConcurrentHashMap<>();
+    // DocumentBuilder tampoco: uno por hilo para parsear payloads en bytes
+    private static final ThreadLocal<DocumentBuilder> BUILDERS = ThreadLocal.withInitial(() -> {
+        try {
+            return DocumentBuilderFactory.newInstance().newDocumentBuilder();
+        } catch (ParserConfigurationException e) {
+            throw new RuntimeException("Error creating XML parser", e);
+        }
+    });
+    // Lector SAX por hilo para comprobar que un payload es XML bien formado
+    private static final ThreadLocal<XMLReader> CHECKERS = ThreadLocal.withInitial(() -> {
+        try {
+            var factory = SAXParserFactory.newInstance();
+            factory.setNamespaceAware(false);
+            var reader = factory.newSAXParser().getXMLReader();
+            reader.setErrorHandler(new DefaultHandler() {
+                @Override
+                public void error(SAXParseException e) throws SAXException {
+                    throw e;
+                }
+            });
+            return reader;
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new RuntimeException("Error creating XML parser", e);
+        }
+    });
+    // Transformer no es thread-safe: uno por hilo y hoja de estilos
+    private static final ThreadLocal<Map<Templates, Transformer>> TRANSFORMERS = ThreadLocal
+            .withInitial(IdentityHashMap::new);
+
     public static String documentToString(Document doc) {
         var firstNode = doc.getFirstChild();
 
@@ -51,6 +97,25 @@ public class DocumentUtil {
         return sb.toString();
     }
 
+    /**
+     * Serializa un documento a su representación XML textual (sin
+     * indentación).
+     * 
+     * @param doc El documento a serializar.
+     * @return El XML como String.
+     */
+    public static String serialize(Document doc) {
+        try {
+            Transformer transformer = TransformerFactory.newInstance().newTransformer();
+            transformer.setOutputProperty(OutputKeys.INDENT, "no");
+            StringWriter writer = new StringWriter();
+            transformer.transform(new DOMSource(doc), new StreamResult(writer));
+            return writer.toString();
+        } catch (TransformerException e) {
+            throw new RuntimeException("Error serializing XML document", e);
+        }
+    }
+
     public static Document createXMLDocument(String xmlContent) {
         try {
             DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
@@ -65,16 +130,86 @@ public class DocumentUtil {
         }
     }
 
+    /**
+     * Parsea XML serializado (con la codificación que declare, UTF-8 por
+     * defecto) reutilizando el DocumentBuilder del hilo.
+     * 
+     * @param xml Los bytes del documento.
+     * @return El documento.
+     * @throws RuntimeException Si los bytes no son XML bien formado.
+     */
+    public static Document parse(byte[] xml) {
+        var builder = BUILDERS.get();
+        try {
+            var doc = builder.parse(new ByteArrayInputStream(xml));
+            // Igual que la lectura directa de ficheros (FileConnector)
+            doc.getDocumentElement().normalize();
+            return doc;
+        } catch (IOException | SAXException e) {
+            throw new RuntimeException("Error parsing XML document", e);
+        } finally {
+            builder.reset();
+        }
+    }
+
+    /**
+     * Comprueba que unos bytes son XML bien formado con una pasada SAX, sin
+     * construir el DOM.
+     * 
+     * @param xml Los bytes del documento.
+     * @throws SAXException Si no es XML bien formado.
+     * @throws IOException  Si falla la lectura.
+     */
+    public static void checkWellFormed(byte[] xml) throws SAXException, IOException {
+        CHECKERS.get().parse(new InputSource(new ByteArrayInputStream(xml)));
+    }
+
+    /**
+     * Compila una hoja de estilos XSLT y la guarda en caché. Las llamadas
+     * posteriores con el mismo XSLT reutilizan la versión compilada; las
+     * compilaciones reales se cuentan en {@code xslt.compilations}.
+     * 
+     * <p>
+     * Permite compilar las hojas de estilo al arrancar el flujo, de modo que los
+     * errores de sintaxis aparezcan antes de procesar el primer mensaje.
+     * 
+     * @param xslt La hoja de estilos como String.
+     * @return La hoja de estilos compilada.
+     * @throws RuntimeException Si la hoja de estilos no es válida.
+     */
+    public static Templates compileXslt(String xslt) {
+        var templates = TEMPLATES.get(xslt);
+        if (templates != null) {
+            return templates;
+        }
+
+        try {
+            templates = TransformerFactory.newInstance()
+                    .newTemplates(new StreamSource(new StringReader(xslt)));
+        } catch (TransformerException e) {
+            throw new RuntimeException("Error compiling XSLT stylesheet", e);
+        }
+        MetricsRegistry.getInstance().counter("xslt.compilations").increment();
+
+        var previous = TEMPLATES.putIfAbsent(xslt, templates);
+        return previous != null ? previous : templates;
+    }
+
     public static Document applyXslt(Document doc, String xslt) {
+        var templates = compileXslt(xslt);
         try {
-            TransformerFactory factory = TransformerFactory.newInstance();
-            StreamSource xsltSource = new StreamSource(new StringReader(xslt));
-            Transformer transformer = factory.newTransformer(xsltSource);
+            Transformer transformer = transformerFor(templates);
 
             DOMSource source = new DOMSource(doc);
             DOMResult result = new DOMResult();
 
-            transformer.transform(source, result);
+            try {
+                transformer.transform(source, result);
+            } catch (TransformerException e) {
+                // Un Transformer que ha fallado puede quedar en mal estado
+                TRANSFORMERS.get().remove(templates);
+                throw e;
+            }
 
             return (Document) result.getNode();
         } catch (TransformerException e) {
@@ -82,6 +217,23 @@ public class DocumentUtil {
         }
     }
 
+    private static Transformer transformerFor(Templates templates) throws TransformerException {
+        // Los hilos virtuales no se reutilizan: cachear por hilo no aporta nada
+        if (Thread.currentThread().isVirtual()) {
+            return templates.newTransformer();
+        }
+
+        var transformers = TRANSFORMERS.get();
+        var transformer = transformers.get(templates);
+        if (transformer == null) {
+            transformer = templates.newTransformer();
+            transformers.put(templates, transformer);
+        } else {
+            transformer.reset();
+        }
+        return transformer;
+    }
+
     private static String getTree(NodeList childs, int profundidad) {
         StringBuilder sb = new StringBuilder();
 
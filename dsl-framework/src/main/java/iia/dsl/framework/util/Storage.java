@@ -5,6 +5,8 @@ import java.util.concurrent.ConcurrentHashMap;
 
 import org.w3c.dom.Document;
 
+import iia.dsl.framework.logging.Log;
+
 /**
  * Singleton para almacenamiento temporal en memoria.
  * 
@@ -26,7 +28,7 @@ public class Storage {
 
     private Storage() {
         this.documentStore = new ConcurrentHashMap<>();
-        System.out.println("Storage Singleton inicializado.");
+        Log.get("storage").debug("Storage Singleton inicializado.");
     }
 
     public static synchronized Storage getInstance() {
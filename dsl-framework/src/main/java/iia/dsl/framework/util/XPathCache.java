@@ -0,0 +1,96 @@
+package iia.dsl.framework.util;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import javax.xml.namespace.QName;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+
+/**
+ * Caché thread-safe de expresiones XPath compiladas, compartida por todas las
+ * tareas y conectores que evalúan XPath.
+ *
+ * <p>
+ * Ni {@link XPath} ni {@link XPathExpression} son thread-safe, por lo que cada
+ * expresión se guarda en un pequeño pool: un hilo toma una instancia compilada,
+ * la evalúa y la devuelve. Si no hay ninguna libre se compila una nueva. Así se
+ * evita tanto la búsqueda de {@link XPathFactory} como la compilación en cada
+ * mensaje, y el pool funciona igual con hilos de plataforma que con hilos
+ * virtuales (que no se reutilizan y harían inútil un ThreadLocal).
+ *
+ * <p>
+ * El número de expresiones distintas cacheadas está acotado por
+ * {@link #MAX_EXPRESSIONS}; por encima de ese límite (p. ej. XPaths dinámicos
+ * leídos de los mensajes) las expresiones se compilan sin cachear.
+ */
+public class XPathCache {
+
+    /**
+     * Número máximo de expresiones distintas que se cachean.
+     */
+    public static final int MAX_EXPRESSIONS = 1024;
+
+    private static final Map<String, Queue<XPathExpression>> POOLS = new ConcurrentHashMap<>();
+
+    // La compilación es poco frecuente; un único XPath protegido por lock basta.
+    private static final XPath COMPILER = XPathFactory.newInstance().newXPath();
+
+    /**
+     * Evalúa una expresión XPath sobre un nodo usando una instancia compilada
+     * cacheada.
+     *
+     * @param expression La expresión XPath.
+     * @param item       El nodo o documento de contexto.
+     * @param returnType El tipo de retorno ({@code XPathConstants.*}).
+     * @return El resultado de la evaluación.
+     * @throws XPathExpressionException Si la expresión no es válida o falla la
+     *                                  evaluación.
+     */
+    public static Object evaluate(String expression, Object item, QName returnType)
+            throws XPathExpressionException {
+        Queue<XPathExpression> pool = POOLS.get(expression);
+        XPathExpression compiled = pool != null ? pool.poll() : null;
+        if (compiled == null) {
+            compiled = compileNew(expression);
+        }
+
+        try {
+            return compiled.evaluate(item, returnType);
+        } finally {
+            release(expression, compiled);
+        }
+    }
+
+    /**
+     * Compila (y cachea) una expresión XPath. Útil para validar las expresiones
+     * al construir un flujo en lugar de al procesar el primer mensaje.
+     *
+     * @param expression La expresión XPath.
+     * @throws XPathExpressionException Si la expresión no es válida.
+     */
+    public static void compile(String expression) throws XPathExpressionException {
+        release(expression, compileNew(expression));
+    }
+
+    private static XPathExpression compileNew(String expression) throws XPathExpressionException {
+        synchronized (COMPILER) {
+            return COMPILER.compile(expression);
+        }
+    }
+
+    private static void release(String expression, XPathExpression compiled) {
+        Queue<XPathExpression> pool = POOLS.get(expression);
+        if (pool == null) {
+            if (POOLS.size() >= MAX_EXPRESSIONS) {
+                return;
+            }
+            pool = POOLS.computeIfAbsent(expression, key -> new ConcurrentLinkedQueue<>());
+        }
+        pool.offer(compiled);
+    }
+}
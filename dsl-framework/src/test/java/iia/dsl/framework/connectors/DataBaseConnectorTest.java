@@ -0,0 +1,393 @@
+package iia.dsl.framework.connectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import iia.dsl.framework.core.Message;
+import iia.dsl.framework.core.Slot;
+import iia.dsl.framework.ports.OutputPort;
+import iia.dsl.framework.ports.RequestPort;
+import iia.dsl.framework.tasks.transformers.TransformerFactory;
+import iia.dsl.framework.util.TestUtils;
+
+/**
+ * Tests de DataBaseConnector con el pool de conexiones (H2 y SQLite).
+ */
+public class DataBaseConnectorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static final String CREATE_TABLE = """
+            <sql>
+                CREATE TABLE drinks (id INT PRIMARY KEY, name VARCHAR(50), price DECIMAL(6,2));
+                INSERT INTO drinks VALUES (1, 'coffee', 1.20);
+                INSERT INTO drinks VALUES (2, 'tea', 1.00);
+                INSERT INTO drinks VALUES (3, 'cola', 1.50)
+            </sql>
+            """;
+
+    private static final String SELECT_BY_ID = """
+            <sql>
+                <statement>SELECT name FROM drinks WHERE id = ?</statement>
+                <param type="int">%d</param>
+            </sql>
+            """;
+
+    @Test
+    public void testParallelRequestsShareThePool() throws Exception {
+        var pool = JdbcConnectionPool.builder("jdbc:h2:mem:pool-test;DB_CLOSE_DELAY=-1")
+                .name("h2-test")
+                .maxSize(4)
+                .build();
+        try {
+            Slot setupIn = new Slot("setup-in");
+            new DataBaseConnector(new OutputPort("setup", setupIn), pool);
+            setupIn.setMessage(new Message(TestUtils.createXMLDocument(CREATE_TABLE)));
+
+            Slot requests = new Slot("db-requests");
+            Slot responses = new Slot("db-responses");
+            var connector = new DataBaseConnector(new RequestPort("db", requests, responses), pool);
+            connector.setParallelism(4);
+
+            List<Message> batch = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                var request = new Message(TestUtils.createXMLDocument(SELECT_BY_ID.formatted(i % 3 + 1)));
+                request.addHeader(Message.CORRELATION_ID, "req-" + i);
+                batch.add(request);
+            }
+            // Un único aviso: el conector drena las 20 solicitudes y las reparte
+            requests.setMessages(batch);
+
+            Set<String> correlations = new HashSet<>();
+            while (responses.hasMessage()) {
+                var response = responses.getMessage();
+                correlations.add(response.getHeader(Message.CORRELATION_ID));
+                var name = response.getDocument().getElementsByTagName("NAME").item(0).getTextContent();
+                int id = Integer.parseInt(response.getHeader(Message.CORRELATION_ID).substring(4)) % 3 + 1;
+                assertEquals(List.of("coffee", "tea", "cola").get(id - 1), name);
+            }
+            assertEquals(20, correlations.size());
+            assertTrue(pool.getSize() >= 1 && pool.getSize() <= 4, "size=" + pool.getSize());
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testParallelRequestsStartAsSoonAsASlotFrees() throws Exception {
+        var pool = JdbcConnectionPool.builder("jdbc:h2:mem:parallel-test;DB_CLOSE_DELAY=-1").build();
+        try {
+            pool.withConnection(c -> c.connection().createStatement()
+                    .execute("CREATE ALIAS PAUSE FOR \"java.lang.Thread.sleep(long)\""));
+
+            Slot requests = new Slot("parallel-requests");
+            Slot responses = new Slot("parallel-responses");
+            var connector = new DataBaseConnector(new RequestPort("parallel", requests, responses), pool);
+            connector.setParallelism(2);
+
+            List<Message> batch = new ArrayList<>();
+            for (String tag : List.of("slow", "fast-1", "fast-2", "fast-3")) {
+                int millis = tag.equals("slow") ? 500 : 0;
+                var request = new Message(TestUtils.createXMLDocument(
+                        "<sql>SELECT PAUSE(" + millis + ") AS P, '" + tag + "' AS TAG</sql>"));
+                request.addHeader(Message.CORRELATION_ID, tag);
+                batch.add(request);
+            }
+            requests.setMessages(batch);
+
+            // La consulta lenta ocupa un hueco; las rápidas usan el otro sin esperarla
+            List<String> order = new ArrayList<>();
+            while (responses.hasMessage()) {
+                order.add(responses.getMessage().getHeader(Message.CORRELATION_ID));
+            }
+            assertEquals(List.of("fast-1", "fast-2", "fast-3", "slow"), order);
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testPreparedStatementsAreCachedPerConnection() throws Exception {
+        var pool = JdbcConnectionPool.builder("jdbc:h2:mem:cache-test;DB_CLOSE_DELAY=-1").maxSize(1).build();
+        try {
+            pool.withConnection(c -> c.connection().createStatement().execute("CREATE TABLE t (id INT)"));
+            var first = pool.withConnection(c -> c.prepare("SELECT id FROM t WHERE id = ?"));
+            var second = pool.withConnection(c -> c.prepare("SELECT id FROM t WHERE id = ?"));
+            assertTrue(first == second, "The statement should be reused");
+            assertEquals(1, (int) pool.withConnection(JdbcConnectionPool.PooledConnection::cachedStatements));
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testIdleConnectionsAreEvictedDownToMinSize() throws Exception {
+        var pool = JdbcConnectionPool.builder("jdbc:h2:mem:evict-test")
+                .minSize(1)
+                .maxSize(3)
+                .idleTimeout(Duration.ofMillis(1))
+                .build();
+        try {
+            // Abrir tres conexiones a la vez
+            pool.withConnection(a -> pool.withConnection(b -> pool.withConnection(c -> null)));
+            assertEquals(3, pool.getSize());
+
+            Thread.sleep(5);
+            pool.evictIdle();
+            assertEquals(1, pool.getSize());
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testBatchModeFlushesBySizeAndLatency() throws Exception {
+        var pool = JdbcConnectionPool.builder("jdbc:h2:mem:batch-test;DB_CLOSE_DELAY=-1").build();
+        try {
+            pool.withConnection(c -> c.connection().createStatement()
+                    .execute("CREATE TABLE orders (id INT PRIMARY KEY, customer VARCHAR(50))"));
+
+            Slot in = new Slot("batch-in");
+            var connector = new DataBaseConnector(new OutputPort("batch-out", in), pool);
+            connector.enableBatch(10, Duration.ofMillis(200));
+
+            List<Message> orders = new ArrayList<>();
+            for (int i = 0; i < 25; i++) {
+                orders.add(new Message(TestUtils.createXMLDocument("""
+                        <sql>
+                            <statement>INSERT INTO orders (id, customer) VALUES (?, ?)</statement>
+                            <param type="int">%d</param>
+                            <param>customer-%d</param>
+                        </sql>
+                        """.formatted(i, i))));
+            }
+            in.setMessages(orders);
+
+            // Dos lotes completos enviados; los 5 restantes esperan al temporizador
+            assertEquals(20, countOrders(pool));
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (countOrders(pool) < 25 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(25, countOrders(pool));
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testFailedBatchStaysPendingUntilItCommits() throws Exception {
+        var pool = JdbcConnectionPool.builder("jdbc:h2:mem:batch-retry-test;DB_CLOSE_DELAY=-1").build();
+        try {
+            Slot in = new Slot("batch-retry-in");
+            var connector = new DataBaseConnector(new OutputPort("batch-retry-out", in), pool);
+            connector.enableBatch(3, Duration.ofSeconds(30));
+
+            List<Message> orders = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                orders.add(new Message(TestUtils.createXMLDocument("""
+                        <sql>
+                            <statement>INSERT INTO orders (id, customer) VALUES (?, ?)</statement>
+                            <param type="int">%d</param>
+                            <param>customer-%d</param>
+                        </sql>
+                        """.formatted(i, i))));
+            }
+            // La tabla aún no existe: el lote completo falla
+            in.setMessages(orders);
+            assertThrows(Exception.class, connector::flush);
+
+            pool.withConnection(c -> c.connection().createStatement()
+                    .execute("CREATE TABLE orders (id INT PRIMARY KEY, customer VARCHAR(50))"));
+            connector.flush();
+            assertEquals(3, countOrders(pool));
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testPoisonRowIsIsolatedWithoutLosingOtherMessages() throws Exception {
+        var pool = JdbcConnectionPool.builder("jdbc:h2:mem:batch-poison-test;DB_CLOSE_DELAY=-1").build();
+        try {
+            pool.withConnection(c -> c.connection().createStatement()
+                    .execute("CREATE TABLE orders (id INT PRIMARY KEY, customer VARCHAR(50));"
+                            + "CREATE TABLE audit (id INT)"));
+
+            Slot in = new Slot("batch-poison-in");
+            Slot rejected = new Slot("batch-poison-rejected");
+            var connector = new DataBaseConnector(new OutputPort("batch-poison-out", in), pool);
+            connector.enableBatch(3, Duration.ofSeconds(30));
+            connector.setDeadLetterSlot(rejected);
+
+            // El id 1 repetido hace fallar el lote entero
+            List<Message> orders = new ArrayList<>();
+            for (int id : new int[] { 1, 1, 2 }) {
+                orders.add(new Message(TestUtils.createXMLDocument("""
+                        <sql>
+                            <statement>INSERT INTO orders (id, customer) VALUES (?, ?)</statement>
+                            <param type="int">%d</param>
+                            <param>customer-%d</param>
+                        </sql>
+                        """.formatted(id, id))));
+            }
+            in.setMessages(orders);
+            assertEquals(0, countOrders(pool));
+
+            // Otra sentencia no puede esperar al lote fallido: se aísla y se añade detrás
+            in.setMessage(new Message(TestUtils.createXMLDocument("""
+                    <sql>
+                        <statement>INSERT INTO audit (id) VALUES (?)</statement>
+                        <param type="int">7</param>
+                    </sql>
+                    """)));
+            assertEquals(2, countOrders(pool));
+            assertEquals(1, rejected.getMessageCount());
+            assertNotNull(rejected.getMessage().getHeader(DataBaseConnector.ERROR_HEADER));
+
+            connector.flush();
+            int audited = pool.withConnection(c -> {
+                try (var rs = c.connection().createStatement().executeQuery("SELECT COUNT(*) FROM audit")) {
+                    rs.next();
+                    return rs.getInt(1);
+                }
+            });
+            assertEquals(1, audited);
+        } finally {
+            pool.close();
+        }
+    }
+
+    private static int countOrders(JdbcConnectionPool pool) throws Exception {
+        return pool.withConnection(c -> {
+            try (var rs = c.connection().createStatement().executeQuery("SELECT COUNT(*) FROM orders")) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        });
+    }
+
+    @Test
+    public void testStreamingEmitsRowChunksThatAggregate() throws Exception {
+        var pool = JdbcConnectionPool.builder("jdbc:h2:mem:stream-test;DB_CLOSE_DELAY=-1").build();
+        try {
+            pool.withConnection(c -> c.connection().createStatement()
+                    .execute("CREATE TABLE items AS SELECT X AS id FROM SYSTEM_RANGE(1, 7)"));
+
+            Slot requests = new Slot("stream-requests");
+            Slot responses = new Slot("stream-responses");
+            var connector = new DataBaseConnector(new RequestPort("stream", requests, responses), pool);
+            connector.enableStreaming(2, 3);
+
+            var request = new Message(TestUtils.createXMLDocument(
+                    "<sql><statement>SELECT id FROM items ORDER BY id</statement></sql>"));
+            request.addHeader(Message.CORRELATION_ID, "extract-1");
+            requests.setMessage(request);
+
+            // 7 filas en bloques de 3: 3 + 3 + 1
+            List<Message> chunks = new ArrayList<>();
+            while (responses.hasMessage()) {
+                chunks.add(responses.getMessage());
+            }
+            assertEquals(3, chunks.size());
+            for (int i = 0; i < chunks.size(); i++) {
+                var chunk = chunks.get(i);
+                assertEquals(chunks.get(0).getId(), chunk.getId());
+                assertEquals("" + i, chunk.getHeader(Message.NUM_FRAG));
+                assertEquals("extract-1", chunk.getHeader(Message.CORRELATION_ID));
+                assertEquals(i == 2, chunk.hasHeader(Message.TOTAL_FRAG));
+            }
+            assertEquals("3", chunks.get(2).getHeader(Message.TOTAL_FRAG));
+            assertEquals(3, chunks.get(0).getDocument().getElementsByTagName("row").getLength());
+            assertEquals(1, chunks.get(2).getDocument().getElementsByTagName("row").getLength());
+
+            // El Aggregator reconstruye el <resultset> completo
+            Slot aggIn = new Slot("stream-agg-in");
+            Slot aggOut = new Slot("stream-agg-out");
+            new TransformerFactory().createAggregatorTask("stream-aggregator", aggIn, aggOut, "/resultset");
+            aggIn.setMessages(chunks);
+            var rebuilt = aggOut.getMessage();
+            assertNotNull(rebuilt);
+            var rows = rebuilt.getDocument().getDocumentElement().getElementsByTagName("row");
+            assertEquals(7, rows.getLength());
+            assertEquals("7", rows.item(6).getTextContent());
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testStreamingFailureClosesAggregatorGroup() throws Exception {
+        var pool = JdbcConnectionPool.builder("jdbc:sqlite:" + tempDir.resolve("stream-fail.db")).build();
+        try {
+            Slot requests = new Slot("broken-stream-requests");
+            Slot responses = new Slot("broken-stream-responses");
+            var connector = new DataBaseConnector(new RequestPort("broken-stream", requests, responses), pool);
+            connector.enableStreaming(2, 3);
+
+            // SQLite calcula cada fila en next(): la 8 provoca un desbordamiento
+            requests.setMessage(new Message(TestUtils.createXMLDocument("""
+                    <sql>WITH RECURSIVE n(id) AS (SELECT 1 UNION ALL SELECT id + 1 FROM n WHERE id &lt; 10)
+                    SELECT CASE WHEN id = 8 THEN abs(-9223372036854775808) ELSE id END AS id FROM n</sql>
+                    """)));
+
+            List<Message> chunks = new ArrayList<>();
+            while (responses.hasMessage()) {
+                chunks.add(responses.getMessage());
+            }
+            assertEquals(2, chunks.size());
+            var last = chunks.get(1);
+            assertEquals("2", last.getHeader(Message.TOTAL_FRAG));
+            assertNotNull(last.getHeader(Message.FRAG_ERROR));
+
+            Slot aggIn = new Slot("broken-agg-in");
+            Slot aggOut = new Slot("broken-agg-out");
+            new TransformerFactory().createAggregatorTask("broken-aggregator", aggIn, aggOut, "/resultset");
+            aggIn.setMessages(chunks);
+            var rebuilt = aggOut.getMessage();
+            assertNotNull(rebuilt);
+            assertNotNull(rebuilt.getHeader(Message.FRAG_ERROR));
+            assertEquals(6, rebuilt.getDocument().getElementsByTagName("row").getLength());
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testSqliteWithLegacyConstructor() throws Exception {
+        String url = "jdbc:sqlite:" + tempDir.resolve("cafe.db");
+        Slot requests = new Slot("sqlite-requests");
+        Slot responses = new Slot("sqlite-responses");
+        var connector = new DataBaseConnector(new RequestPort("sqlite", requests, responses), url, null, null);
+        try {
+            requests.setMessage(new Message(TestUtils.createXMLDocument(CREATE_TABLE)));
+            requests.setMessage(new Message(TestUtils.createXMLDocument("""
+                    <sql>
+                        <statement>SELECT name, price FROM drinks WHERE price &gt;= ? ORDER BY id</statement>
+                        <param type="decimal">1.20</param>
+                    </sql>
+                    """)));
+
+            var response = responses.getMessage();
+            assertNotNull(response);
+            var names = response.getDocument().getElementsByTagName("name");
+            assertEquals(2, names.getLength());
+            assertEquals("cola", names.item(1).getTextContent());
+        } finally {
+            connector.close();
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package iia.dsl.framework.connectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import iia.dsl.framework.core.Message;
+import iia.dsl.framework.core.Slot;
+import iia.dsl.framework.ports.InputPort;
+import iia.dsl.framework.ports.OutputPort;
+import iia.dsl.framework.util.TestUtils;
+
+/**
+ * Tests de FileConnector: modo watch, modo raw y escritura diferida.
+ */
+public class FileConnectorTest {
+
+    @TempDir
+    Path inbox;
+
+    @Test
+    public void testWatchModeIngestsExistingAndNewFiles() throws Exception {
+        Files.writeString(inbox.resolve("first.xml"), TestUtils.SAMPLE_XML);
+
+        Slot out = new Slot("watch-out");
+        var connector = new FileConnector(new InputPort("watch-in", out), inbox.toString());
+        connector.enableWatch(2, 100);
+        try {
+            connector.execute();
+            assertTrue(connector.isWatching());
+            awaitTrue(() -> out.getMessageCount() == 1);
+
+            // Escritura atómica: se escribe con otro nombre y se renombra
+            Path part = inbox.resolve("second.part");
+            Files.writeString(part, TestUtils.SAMPLE_XML);
+            Files.move(part, inbox.resolve("second.xml"), StandardCopyOption.ATOMIC_MOVE);
+            Files.writeString(inbox.resolve("broken.xml"), "<order><unclosed>");
+
+            awaitTrue(() -> Files.exists(inbox.resolve(FileConnector.DONE_DIR).resolve("second.xml"))
+                    && Files.exists(inbox.resolve(FileConnector.ERROR_DIR).resolve("broken.xml")));
+        } finally {
+            connector.stopWatch();
+        }
+
+        assertFalse(connector.isWatching());
+        assertEquals(2, out.getMessageCount());
+        assertEquals("order", out.getMessage().getDocument().getDocumentElement().getNodeName());
+        assertTrue(Files.exists(inbox.resolve(FileConnector.DONE_DIR).resolve("first.xml")));
+        assertFalse(Files.exists(inbox.resolve("first.xml")));
+    }
+
+    @Test
+    public void testWatchModeRequiresInputDirectory() {
+        var output = new FileConnector(new OutputPort("watch-out", new Slot("s")), inbox.resolve("x.xml").toString());
+        assertThrows(IllegalArgumentException.class, () -> output.enableWatch(1, 10));
+
+        var notADirectory = new FileConnector(new InputPort("watch-in", new Slot("s2")),
+                inbox.resolve("missing.xml").toString());
+        assertThrows(IllegalArgumentException.class, () -> notADirectory.enableWatch(1, 10));
+    }
+
+    @Test
+    public void testRollingSinkAppendsAndRotates() throws Exception {
+        Path outDir = inbox.resolve("rolling");
+        Slot in = new Slot("rolling-in");
+        var sink = RollingFileSink.builder(outDir.toString())
+                .prefix("orders")
+                .maxBytes(1000)
+                .fsyncInterval(Duration.ZERO)
+                .build();
+        var connector = new FileConnector(new OutputPort("rolling-out", in), sink);
+
+        for (int i = 0; i < 5; i++) {
+            in.setMessage(new Message("m" + i, TestUtils.createXMLDocument(TestUtils.SAMPLE_XML)));
+        }
+        connector.close();
+
+        List<Path> files;
+        try (var listing = Files.list(outDir)) {
+            files = listing.sorted().toList();
+        }
+        // Cada documento ocupa más de 500 bytes: dos por fichero como mucho
+        assertTrue(files.size() >= 3, files.toString());
+        long documents = 0;
+        for (Path file : files) {
+            assertTrue(file.getFileName().toString().startsWith("orders-"));
+            documents += Files.readAllLines(file).stream().filter(line -> line.startsWith("<order>")).count();
+        }
+        assertEquals(5, documents);
+    }
+
+    @Test
+    public void testSinkWritesOneFilePerMessageUsingHeaders() throws Exception {
+        Path outDir = inbox.resolve("per-message");
+        Slot in = new Slot("pattern-in");
+        var sink = RollingFileSink.builder(outDir.toString())
+                .fileNamePattern("order-{correlation-id}.xml")
+                .build();
+        var connector = new FileConnector(new OutputPort("pattern-out", in), sink);
+
+        for (String correlation : List.of("A1", "B2")) {
+            var message = new Message(TestUtils.createXMLDocument(TestUtils.SAMPLE_XML));
+            message.addHeader(Message.CORRELATION_ID, correlation);
+            in.setMessage(message);
+        }
+        connector.flush();
+
+        assertTrue(Files.readString(outDir.resolve("order-A1.xml")).contains("<customer>John Doe</customer>"));
+        assertTrue(Files.exists(outDir.resolve("order-B2.xml")));
+        connector.close();
+    }
+
+    @Test
+    public void testRawPayloadPassesThroughWithoutSerializing() throws Exception {
+        // Formato que una reserialización del DOM no conservaría
+        String xml = "<?xml version='1.0' encoding='UTF-8'?>\n<order  id='7'>\n  <item>tea</item>\n</order>\n";
+        Path source = inbox.resolve("raw.xml");
+        Files.writeString(source, xml);
+
+        Slot flow = new Slot("raw-flow");
+        var reader = new FileConnector(new InputPort("raw-in", flow), source.toString());
+        reader.enableRawPayload();
+        reader.execute();
+
+        var message = flow.getMessage();
+        assertArrayEquals(xml.getBytes(StandardCharsets.UTF_8), message.getRawBytes());
+        message.addHeader(Message.CORRELATION_ID, "7");
+
+        Path target = inbox.resolve("copy.xml");
+        Slot out = new Slot("raw-out");
+        var writer = new FileConnector(new OutputPort("raw-writer", out), target.toString());
+        out.setMessage(message);
+        writer.execute();
+        assertEquals(xml, Files.readString(target));
+
+        // Al pedir el documento para modificarlo los bytes dejan de valer
+        assertEquals("order", message.getDocument().getDocumentElement().getNodeName());
+        assertNotNull(message.getRawBytes());
+        message.getDocumentForUpdate().getDocumentElement().setAttribute("id", "8");
+        assertNull(message.getRawBytes());
+        out.setMessage(message);
+        writer.execute();
+        assertTrue(Files.readString(target).contains("id=\"8\""));
+    }
+
+    @Test
+    public void testRawPayloadRejectsMalformedFiles() throws Exception {
+        Files.writeString(inbox.resolve("broken.xml"), "<order><unclosed>");
+        Slot single = new Slot("raw-broken");
+        var reader = new FileConnector(new InputPort("raw-broken-in", single), inbox.resolve("broken.xml").toString());
+        reader.enableRawPayload();
+        assertThrows(RuntimeException.class, reader::execute);
+        assertFalse(single.hasMessage());
+
+        // En modo watch va a error/ y los buenos a done/
+        Files.writeString(inbox.resolve("good.xml"), TestUtils.SAMPLE_XML);
+        Slot out = new Slot("raw-watch");
+        var watcher = new FileConnector(new InputPort("raw-watch-in", out), inbox.toString());
+        watcher.enableRawPayload();
+        watcher.enableWatch(1, 100);
+        try {
+            watcher.execute();
+            awaitTrue(() -> Files.exists(inbox.resolve(FileConnector.DONE_DIR).resolve("good.xml"))
+                    && Files.exists(inbox.resolve(FileConnector.ERROR_DIR).resolve("broken.xml")));
+        } finally {
+            watcher.stopWatch();
+        }
+        assertEquals(1, out.getMessageCount());
+        assertNotNull(out.getMessage().getRawBytes());
+    }
+
+    @Test
+    public void testRollingSinkAppendsRawPayloadWithoutDeclaration() throws Exception {
+        byte[] utf8 = "\uFEFF<?xml version=\"1.0\" encoding=\"utf-8\"?>\n<order>caf\u00e9</order>\n"
+                .getBytes(StandardCharsets.UTF_8);
+        assertEquals("<order>caf\u00e9</order>",
+                new String(RollingFileSink.withoutDeclaration(utf8), StandardCharsets.UTF_8));
+
+        byte[] latin1 = "<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?><order>caf\u00e9</order>"
+                .getBytes(StandardCharsets.ISO_8859_1);
+        assertNull(RollingFileSink.withoutDeclaration(latin1));
+        assertNull(RollingFileSink.withoutDeclaration("<order/>".getBytes(StandardCharsets.UTF_16)));
+
+        Path outDir = inbox.resolve("raw-rolling");
+        Slot in = new Slot("raw-rolling-in");
+        var sink = RollingFileSink.builder(outDir.toString()).prefix("raw").build();
+        var connector = new FileConnector(new OutputPort("raw-rolling-out", in), sink);
+        in.setMessage(Message.ofBytes(utf8, Map.of()));
+        in.setMessage(Message.ofBytes("<order>tea</order>".getBytes(StandardCharsets.UTF_8), Map.of()));
+        connector.close();
+
+        List<String> lines;
+        try (var listing = Files.list(outDir)) {
+            lines = Files.readAllLines(listing.findFirst().orElseThrow(), StandardCharsets.UTF_8);
+        }
+        assertEquals(List.of("<order>caf\u00e9</order>", "<order>tea</order>"), lines);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 15_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Timed out waiting for the watcher");
+            }
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package iia.dsl.framework.connectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import iia.dsl.framework.core.Message;
+import iia.dsl.framework.core.Slot;
+import iia.dsl.framework.metrics.MetricsRegistry;
+import iia.dsl.framework.ports.RequestPort;
+import iia.dsl.framework.util.TestUtils;
+
+/**
+ * Test del modo asíncrono de HttpConnector contra un servidor HTTP local lento.
+ */
+public class HttpConnectorTest {
+
+    private static final long SERVICE_DELAY_MILLIS = 150;
+
+    private HttpServer server;
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+    private final AtomicInteger flakyCalls = new AtomicInteger();
+    private final AtomicInteger slowCalls = new AtomicInteger();
+    private final AtomicInteger outageCalls = new AtomicInteger();
+    private final AtomicBoolean outage = new AtomicBoolean(true);
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(16));
+        server.createContext("/slow", exchange -> {
+            slowCalls.incrementAndGet();
+            int now = concurrent.incrementAndGet();
+            maxConcurrent.accumulateAndGet(now, Math::max);
+            try {
+                Thread.sleep(SERVICE_DELAY_MILLIS);
+                respond(exchange, 200, "<echo>" + exchange.getRequestURI().getQuery() + "</echo>");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                concurrent.decrementAndGet();
+            }
+        });
+        server.createContext("/flaky", exchange -> {
+            // Falla la primera vez y responde bien a partir de la segunda
+            if (flakyCalls.incrementAndGet() == 1) {
+                respond(exchange, 503, "<busy/>");
+            } else {
+                respond(exchange, 200, "<ok/>");
+            }
+        });
+        server.createContext("/outage", exchange -> {
+            outageCalls.incrementAndGet();
+            respond(exchange, outage.get() ? 503 : 200, outage.get() ? "<down/>" : "<up/>");
+        });
+        server.start();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (var out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    private Message request(String path, String correlationId) throws Exception {
+        var message = new Message(TestUtils.createXMLDocument(
+                "<http-request><url>" + url(path) + "</url><method>GET</method></http-request>"));
+        message.addHeader(Message.CORRELATION_ID, correlationId);
+        return message;
+    }
+
+    @Test
+    public void testAsyncModeKeepsRequestsInFlightAndCorrelatesResponses() throws Exception {
+        Slot requests = new Slot("http-requests");
+        Slot responses = new Slot("http-responses");
+        var connector = new HttpConnector(new RequestPort("http", requests, responses));
+        connector.enableAsync(4);
+
+        List<Message> batch = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            batch.add(request("/slow?n=" + i, "req-" + i));
+        }
+        requests.setMessages(batch);
+        connector.getEnvironment().waitForQuiescence(0);
+
+        Map<String, String> bodies = new HashMap<>();
+        while (responses.hasMessage()) {
+            var response = responses.getMessage();
+            bodies.put(response.getHeader(Message.CORRELATION_ID),
+                    response.getDocument().getDocumentElement().getTextContent());
+        }
+        assertEquals(8, bodies.size());
+        for (int i = 0; i < 8; i++) {
+            assertEquals("n=" + i, bodies.get("req-" + i));
+        }
+        assertTrue(maxConcurrent.get() > 1 && maxConcurrent.get() <= 4, "maxConcurrent=" + maxConcurrent.get());
+    }
+
+    @Test
+    public void testSingleFlightCoalescesIdenticalRequests() throws Exception {
+        Slot requests = new Slot("coalesce-requests");
+        Slot responses = new Slot("coalesce-responses");
+        var connector = new HttpConnector(new RequestPort("coalesce", requests, responses));
+        connector.enableAsync(8);
+        connector.enableSingleFlight();
+
+        List<Message> batch = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            batch.add(request("/slow?n=same", "dup-" + i));
+        }
+        requests.setMessages(batch);
+        connector.getEnvironment().waitForQuiescence(0);
+
+        assertEquals(1, slowCalls.get());
+        List<String> correlations = new ArrayList<>();
+        while (responses.hasMessage()) {
+            var response = responses.getMessage();
+            correlations.add(response.getHeader(Message.CORRELATION_ID));
+            assertEquals("n=same", response.getDocument().getDocumentElement().getTextContent());
+        }
+        correlations.sort(null);
+        assertEquals(List.of("dup-0", "dup-1", "dup-2", "dup-3", "dup-4", "dup-5"), correlations);
+    }
+
+    @Test
+    public void testAsyncRetriesServerErrorsWithBackoff() throws Exception {
+        Slot requests = new Slot("flaky-requests");
+        Slot responses = new Slot("flaky-responses");
+        var connector = new HttpConnector(new RequestPort("flaky", requests, responses));
+        connector.enableAsync(2);
+        connector.setRetry(3, Duration.ofMillis(20));
+
+        requests.setMessage(request("/flaky", "flaky-1"));
+        connector.getEnvironment().waitForQuiescence(0);
+
+        var response = responses.getMessage();
+        assertEquals("ok", response.getDocument().getDocumentElement().getNodeName());
+        assertEquals("flaky-1", response.getHeader(Message.CORRELATION_ID));
+        assertEquals(2, flakyCalls.get());
+    }
+
+    @Test
+    public void testCircuitBreakerShortCircuitsOutageAndRecovers() throws Exception {
+        Slot requests = new Slot("outage-requests");
+        Slot responses = new Slot("outage-responses");
+        var connector = new HttpConnector(new RequestPort("outage", requests, responses));
+        connector.setRetry(1, Duration.ZERO);
+        connector.setCircuitBreaker(3, Duration.ofMillis(200));
+
+        List<Message> batch = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            batch.add(request("/outage", "o-" + i));
+        }
+        long start = System.nanoTime();
+        requests.setMessages(batch);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Tres fallos abren el circuito; el resto recibe el fallback sin llamar
+        assertEquals(3, outageCalls.get());
+        assertEquals(10, responses.getMessageCount());
+        while (responses.hasMessage()) {
+            assertEquals("error", responses.getMessage().getDocument().getDocumentElement().getNodeName());
+        }
+        assertEquals("OPEN", connector.getCircuitState(url("")));
+        assertEquals(7, MetricsRegistry.getInstance().counter(connector.getMetricsName() + ".circuit.rejected").get());
+        assertTrue(elapsedMillis < 2_000, "elapsed=" + elapsedMillis);
+
+        // Pasado openDuration, una petición de prueba cierra el circuito
+        outage.set(false);
+        Thread.sleep(250);
+        requests.setMessage(request("/outage", "probe"));
+        assertEquals("up", responses.getMessage().getDocument().getDocumentElement().getNodeName());
+        assertEquals("CLOSED", connector.getCircuitState(url("")));
+    }
+
+    @Test
+    public void testAdaptiveLimitGrowsWhenFastAndHalvesWhenSlow() {
+        var limiter = new AdaptiveLimiter(1, 16, Duration.ofMillis(100));
+        long fast = Duration.ofMillis(5).toNanos();
+        for (int i = 0; i < 50; i++) {
+            limiter.record(fast, false);
+        }
+        int grown = limiter.getLimit();
+        assertTrue(grown > 4, "limit=" + grown);
+
+        limiter.record(Duration.ofMillis(500).toNanos(), false);
+        assertEquals(grown / 2, limiter.getLimit(), 1);
+
+        var fixed = AdaptiveLimiter.fixed(4);
+        fixed.record(fast, false);
+        assertEquals(4, fixed.getLimit());
+    }
+}
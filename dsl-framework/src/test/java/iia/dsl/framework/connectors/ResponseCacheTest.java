@@ -0,0 +1,126 @@
+package iia.dsl.framework.connectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import iia.dsl.framework.core.Message;
+import iia.dsl.framework.core.Slot;
+import iia.dsl.framework.metrics.MetricsRegistry;
+import iia.dsl.framework.ports.RequestPort;
+import iia.dsl.framework.util.TestUtils;
+
+/**
+ * Tests de ResponseCache: claves canónicas, expulsión LRU/LFU, TTL y su uso
+ * desde un conector.
+ */
+public class ResponseCacheTest {
+
+    private static ResponseCache.Builder cache(String name) {
+        return ResponseCache.builder().name(name);
+    }
+
+    @Test
+    public void testCanonicalKeyIgnoresFormatting() throws Exception {
+        var cache = cache("canonical").build();
+        var compact = TestUtils.createXMLDocument("<sql><param type=\"int\" name=\"id\">1</param></sql>");
+        var indented = TestUtils.createXMLDocument("""
+                <sql>
+                    <!-- mismo contenido -->
+                    <param name="id" type="int"> 1 </param>
+                </sql>
+                """);
+        var other = TestUtils.createXMLDocument("<sql><param type=\"int\" name=\"id\">2</param></sql>");
+
+        assertEquals(cache.key(compact), cache.key(indented));
+        assertNotEquals(cache.key(compact), cache.key(other));
+    }
+
+    @Test
+    public void testXPathKeyAndCopies() throws Exception {
+        var cache = cache("xpath-key").keyXPath("/drink/name").build();
+        var request = TestUtils.createXMLDocument("<drink><name>tea</name><table>4</table></drink>");
+        var sameDrink = TestUtils.createXMLDocument("<drink><name>tea</name><table>9</table></drink>");
+        var response = TestUtils.createXMLDocument("<stock>3</stock>");
+
+        cache.put(cache.key(request), response);
+        response.getDocumentElement().setTextContent("changed");
+
+        var cached = cache.get(cache.key(sameDrink));
+        assertNotNull(cached);
+        assertEquals("3", cached.getDocumentElement().getTextContent());
+        cached.getDocumentElement().setTextContent("changed again");
+        assertEquals("3", cache.get("tea").getDocumentElement().getTextContent());
+
+        assertNull(cache.key(TestUtils.createXMLDocument("<drink/>")), "Empty key must not be cached");
+    }
+
+    @Test
+    public void testLruEvictsLeastRecentlyUsed() throws Exception {
+        var cache = cache("lru").maxEntries(2).build();
+        var doc = TestUtils.createXMLDocument("<r/>");
+        cache.put("a", doc);
+        cache.put("b", doc);
+        cache.get("a");
+        cache.put("c", doc);
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertEquals(1, MetricsRegistry.getInstance().counter("cache.lru.evictions").get());
+    }
+
+    @Test
+    public void testLfuEvictsLeastFrequentlyUsed() throws Exception {
+        var cache = cache("lfu").maxEntries(3).eviction(ResponseCache.Eviction.LFU).build();
+        var doc = TestUtils.createXMLDocument("<r/>");
+        cache.put("hot", doc);
+        cache.put("cold", doc);
+        for (int i = 0; i < 3; i++) {
+            cache.get("hot");
+        }
+        cache.get("cold");
+        cache.put("new", doc);
+        // "new" tiene frecuencia 1 y "cold" 2: al llegar otra, sale "new"
+        cache.put("newer", doc);
+
+        assertNotNull(cache.get("hot"));
+        assertNotNull(cache.get("cold"));
+        assertNull(cache.get("new"));
+        assertNotNull(cache.get("newer"));
+    }
+
+    @Test
+    public void testEntriesExpireAfterTtl() throws Exception {
+        var cache = cache("ttl").ttl(Duration.ofMillis(20)).build();
+        cache.put("k", TestUtils.createXMLDocument("<r/>"));
+        assertNotNull(cache.get("k"));
+        Thread.sleep(40);
+        assertNull(cache.get("k"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testConnectorAnswersRepeatedRequestsFromCache() throws Exception {
+        Slot requests = new Slot("cached-requests");
+        Slot responses = new Slot("cached-responses");
+        var connector = new MockConnector(new RequestPort("cached", requests, responses),
+                TestUtils.createXMLDocument("<price>1.20</price>"));
+        connector.setResponseCache(cache("mock-cache").build());
+
+        for (int i = 0; i < 3; i++) {
+            requests.setMessage(new Message(TestUtils.createXMLDocument("<drink>coffee</drink>")));
+        }
+        requests.setMessage(new Message(TestUtils.createXMLDocument("<drink>tea</drink>")));
+
+        assertEquals(4, responses.getMessageCount());
+        var metrics = MetricsRegistry.getInstance();
+        assertEquals(2, metrics.counter("cache.mock-cache.hits").get());
+        assertEquals(2, metrics.counter("cache.mock-cache.misses").get());
+    }
+}
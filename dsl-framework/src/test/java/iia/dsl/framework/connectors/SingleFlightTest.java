@@ -0,0 +1,80 @@
+package iia.dsl.framework.connectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+
+import iia.dsl.framework.metrics.MetricsRegistry;
+import iia.dsl.framework.util.TestUtils;
+
+/**
+ * Tests de SingleFlight: una llamada por clave en curso y copias
+ * independientes para cada solicitud.
+ */
+public class SingleFlightTest {
+
+    @Test
+    public void testConcurrentCallersShareOneCall() throws Exception {
+        var singleFlight = new SingleFlight("test.single-flight");
+        var calls = new AtomicInteger();
+        var release = new CountDownLatch(1);
+
+        List<Future<Document>> results = new ArrayList<>();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> singleFlight.call("same", () -> {
+                    calls.incrementAndGet();
+                    release.await();
+                    return TestUtils.createXMLDocument("<stock>3</stock>");
+                })));
+            }
+            // Dejar que todos lleguen antes de que termine la llamada del líder
+            while (MetricsRegistry.getInstance().counter("test.single-flight.coalesced").get() < 7) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+        }
+
+        assertEquals(1, calls.get());
+        var first = results.get(0).get();
+        for (Future<Document> result : results) {
+            assertEquals("3", result.get().getDocumentElement().getTextContent());
+        }
+        assertNotSame(first, results.get(1).get());
+    }
+
+    @Test
+    public void testFailureReachesEveryWaiterAndKeyIsReleased() throws Exception {
+        var singleFlight = new SingleFlight("test.single-flight-error");
+        var release = new CountDownLatch(1);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var leader = executor.submit(() -> singleFlight.call("k", () -> {
+                release.await();
+                throw new IllegalStateException("down");
+            }));
+            while (MetricsRegistry.getInstance().counter("test.single-flight-error.coalesced").get() < 1) {
+                executor.submit(() -> singleFlight.call("k", () -> null));
+                Thread.sleep(5);
+            }
+            release.countDown();
+            var error = assertThrows(ExecutionException.class, leader::get);
+            assertEquals("down", error.getCause().getMessage());
+        }
+
+        // Terminada la llamada, la clave queda libre para una nueva
+        var doc = singleFlight.call("k", () -> TestUtils.createXMLDocument("<ok/>"));
+        assertEquals("ok", doc.getDocumentElement().getNodeName());
+    }
+}
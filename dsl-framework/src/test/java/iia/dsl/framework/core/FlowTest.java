@@ -0,0 +1,195 @@
+package iia.dsl.framework.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import iia.dsl.framework.connectors.Connector;
+import iia.dsl.framework.core.policy.FifoPolicy;
+import iia.dsl.framework.ports.RequestPort;
+import iia.dsl.framework.tasks.routers.RouterFactory;
+import iia.dsl.framework.util.TestUtils;
+
+public class FlowTest {
+
+    @Test
+    public void testNestedFlowInheritsExecutorUnlessOverridden() throws Exception {
+        var parentEnv = ExecutionEnvironment.builder().name("parent").threads(1).build();
+        var ownEnv = ExecutionEnvironment.builder().name("own").threads(1).queue(QueueType.FIFO).build();
+        var routers = new RouterFactory();
+
+        var inheriting = routers.createMergerTask("inheriting", List.of(new Slot("a")), new Slot("b"));
+        var isolated = routers.createMergerTask("isolated", List.of(new Slot("c")), new Slot("d"));
+
+        Flow inheritingFlow = Flow.builder().id("inheriting-flow").concurrent(new FifoPolicy()).build();
+        inheritingFlow.addElement(inheriting);
+        Flow isolatedFlow = Flow.builder().id("isolated-flow").concurrent(new FifoPolicy()).executor(ownEnv).build();
+        isolatedFlow.addElement(isolated);
+
+        Flow parent = Flow.builder().id("parent-flow").concurrent(new FifoPolicy()).executor(parentEnv).build();
+        parent.addElement(inheritingFlow);
+        parent.addElement(isolatedFlow);
+
+        try {
+            parent.execute();
+
+            assertSame(parentEnv, inheriting.getEnvironment());
+            assertSame(ownEnv, isolated.getEnvironment());
+            assertEquals(2, parent.getEnvironments().size());
+        } finally {
+            parent.shutdown();
+            parentEnv.shutdown();
+            ownEnv.shutdown();
+        }
+    }
+
+    @Test
+    public void testElementsRunOnFlowExecutorThreads() throws Exception {
+        var env = ExecutionEnvironment.builder().name("isolated").threads(2).queue(QueueType.FIFO).build();
+        var input = new Slot("input");
+        var output = new Slot("output");
+        List<String> threads = new CopyOnWriteArrayList<>();
+        output.addListener(slot -> threads.add(Thread.currentThread().getName()));
+
+        var merger = new RouterFactory().createMergerTask("merger", List.of(input), output);
+        Flow flow = Flow.builder().id("isolated-flow").concurrent(new FifoPolicy()).executor(env).build();
+        flow.addElement(merger);
+
+        try {
+            flow.execute();
+            input.setMessage(new Message(TestUtils.createXMLDocument(TestUtils.SAMPLE_XML)));
+            flow.waitForQuiescence(50);
+
+            assertEquals(1, output.getMessageCount());
+            assertTrue(threads.get(0).startsWith("dsl-isolated-"), "Debe ejecutarse en el pool del Flow");
+        } finally {
+            flow.shutdown();
+            env.shutdown();
+        }
+    }
+
+    /**
+     * Conector de petición-respuesta que bloquea su hilo como lo haría una
+     * llamada JDBC o HTTP.
+     */
+    private static class SleepingEchoConnector extends Connector {
+        private final List<Boolean> virtualThreads;
+
+        SleepingEchoConnector(RequestPort port, List<Boolean> virtualThreads) {
+            super(port);
+            this.virtualThreads = virtualThreads;
+        }
+
+        @Override
+        public void execute() throws Exception {
+            var requestPort = (RequestPort) port;
+            for (var request = requestPort.takeRequest(); request != null; request = requestPort.takeRequest()) {
+                virtualThreads.add(Thread.currentThread().isVirtual());
+                Thread.sleep(10);
+                var text = request.getDocument().getDocumentElement().getTextContent();
+                requestPort.handleResponse(request, TestUtils.createXMLDocument("<reply>" + text + "</reply>"));
+            }
+        }
+    }
+
+    private List<String> runBlockingPipeline(ExecutionMode mode, List<Boolean> virtualThreads) throws Exception {
+        var env = ExecutionEnvironment.builder().threads(2).queue(QueueType.FIFO).mode(mode).build();
+        var input = new Slot("blocking-in-" + mode);
+        var replies = new Slot("blocking-replies-" + mode);
+        var output = new Slot("blocking-out-" + mode);
+        var connector = new SleepingEchoConnector(new RequestPort("blocking-port-" + mode, input, replies),
+                virtualThreads);
+
+        Flow flow = Flow.builder().id("blocking-flow-" + mode).concurrent(new FifoPolicy()).executor(env).build();
+        flow.addElement(connector);
+        flow.addElement(new RouterFactory().createMergerTask("blocking-merger-" + mode, List.of(replies), output));
+
+        try {
+            flow.execute();
+            for (int i = 0; i < 20; i++) {
+                input.setMessage(new Message(TestUtils.createXMLDocument("<n>" + i + "</n>")));
+            }
+            flow.waitForQuiescence(50);
+
+            List<String> results = new ArrayList<>();
+            for (var message = output.getMessage(); message != null; message = output.getMessage()) {
+                results.add(message.getDocument().getDocumentElement().getTextContent());
+            }
+            Collections.sort(results);
+            return results;
+        } finally {
+            flow.shutdown();
+            env.shutdown();
+        }
+    }
+
+    @Test
+    public void testVirtualModeMatchesPlatformModeWithBlockingConnectors() throws Exception {
+        List<Boolean> platform = new CopyOnWriteArrayList<>();
+        List<Boolean> virtual = new CopyOnWriteArrayList<>();
+
+        var expected = runBlockingPipeline(ExecutionMode.PLATFORM, platform);
+        var actual = runBlockingPipeline(ExecutionMode.VIRTUAL, virtual);
+
+        assertEquals(20, expected.size());
+        assertEquals(expected, actual);
+        assertEquals(20, virtual.size());
+        assertTrue(platform.stream().noneMatch(v -> v));
+        assertTrue(virtual.stream().allMatch(v -> v),
+                "Los conectores bloqueantes deben ejecutarse en hilos virtuales");
+    }
+
+    @Test
+    public void testShutdownOnlyClosesExecutorsTheFlowCreated() throws Exception {
+        Flow global = Flow.builder().id("global-flow").concurrent(new FifoPolicy()).build();
+        Flow owner = Flow.builder().id("owner-flow").concurrent(new FifoPolicy()).executor(1, QueueType.FIFO).build();
+        var ownEnv = owner.getEnvironment();
+
+        global.shutdown();
+        owner.shutdown();
+
+        // El entorno global sigue aceptando trabajo para los demás Flows
+        var ran = new CountDownLatch(1);
+        ExecutionEnvironment.getInstance().submit(ran::countDown);
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+        assertThrows(RejectedExecutionException.class, () -> ownEnv.submit(() -> {
+        }));
+    }
+
+    @Test
+    public void testWorkStealingExecutorProcessesPipeline() throws Exception {
+        var env = ExecutionEnvironment.builder().name("ws").threads(4).queue(QueueType.WORK_STEALING).build();
+        var routers = new RouterFactory();
+        var input = new Slot("input");
+        var middle = new Slot("middle");
+        var output = new Slot("output");
+
+        Flow flow = Flow.builder().id("ws-flow").concurrent(new FifoPolicy()).executor(env).build();
+        flow.addElement(routers.createMergerTask("first", List.of(input), middle));
+        flow.addElement(routers.createMergerTask("second", List.of(middle), output));
+
+        try {
+            flow.execute();
+            for (int i = 0; i < 200; i++) {
+                input.setMessage(new Message(TestUtils.createXMLDocument("<n>" + i + "</n>")));
+            }
+            flow.waitForQuiescence(50);
+
+            assertEquals(200, output.getMessageCount());
+        } finally {
+            flow.shutdown();
+            env.shutdown();
+        }
+    }
+}
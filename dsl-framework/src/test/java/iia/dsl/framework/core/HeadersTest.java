@@ -0,0 +1,64 @@
+package iia.dsl.framework.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests de las cabeceras inmutables de Message.
+ */
+public class HeadersTest {
+
+    @Test
+    public void testPersistentUpdatesLeavePreviousVersionIntact() {
+        var base = Headers.empty().with(Message.CORRELATION_ID, "c-1");
+        var fragment = base.with(Message.NUM_FRAG, "0").with(Message.TOTAL_FRAG, "2");
+
+        assertEquals(1, base.size());
+        assertEquals(3, fragment.size());
+        assertEquals("c-1", fragment.get(Message.CORRELATION_ID));
+        assertEquals("0", fragment.get("num-frag"));
+
+        var trimmed = fragment.without(Message.NUM_FRAG);
+        assertEquals(Map.of(Message.CORRELATION_ID, "c-1", Message.TOTAL_FRAG, "2"), trimmed);
+        assertEquals("0", fragment.get(Message.NUM_FRAG));
+        assertSame(trimmed, trimmed.without("missing"));
+        assertSame(base, base.with(Message.CORRELATION_ID, "c-1"));
+        assertThrows(UnsupportedOperationException.class, () -> base.put("x", "y"));
+    }
+
+    @Test
+    public void testWellKnownKeysAreInterned() {
+        Map<String, String> plain = new HashMap<>();
+        plain.put(new String("correlation-id"), "c-2");
+        var headers = Headers.of(plain);
+
+        assertSame(Message.CORRELATION_ID, headers.keySet().iterator().next());
+        assertSame(headers, Headers.of(headers));
+    }
+
+    @Test
+    public void testDerivedMessagesShareHeadersUntilOneChanges() {
+        var original = new Message("m-1", null);
+        original.addHeader(Message.CORRELATION_ID, "c-3");
+
+        var translated = new Message(original.getId(), null, original.getHeaders());
+        var copy = new Message(original);
+        assertSame(original.getHeaders(), translated.getHeaders());
+        assertSame(original.getHeaders(), copy.getHeaders());
+
+        translated.addHeader(Message.NUM_FRAG, "1");
+        copy.removeHeader(Message.CORRELATION_ID);
+        assertFalse(original.hasHeader(Message.NUM_FRAG));
+        assertEquals("c-3", original.getHeader(Message.CORRELATION_ID));
+        assertNull(copy.getHeader(Message.CORRELATION_ID));
+        assertEquals("c-3", translated.getHeader(Message.CORRELATION_ID));
+    }
+}
@@ -0,0 +1,84 @@
+package iia.dsl.framework.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+
+/**
+ * Tests de los generadores de ids y de la generación perezosa en Message.
+ */
+public class IdGeneratorTest {
+
+    private final IdGenerator previous = Element.getIdGenerator();
+
+    @AfterEach
+    public void restoreGenerator() {
+        Element.setIdGenerator(previous);
+    }
+
+    @Test
+    public void testCounterIsUniqueAcrossThreads() throws Exception {
+        var generator = IdGenerator.counter("node7");
+        List<String> ids = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            var thread = new Thread(() -> {
+                List<String> local = new ArrayList<>();
+                for (int i = 0; i < 10_000; i++) {
+                    local.add(generator.nextId());
+                }
+                synchronized (ids) {
+                    ids.addAll(local);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (var thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(40_000, new HashSet<>(ids).size());
+        assertTrue(ids.stream().allMatch(id -> id.startsWith("node7-")));
+    }
+
+    @Test
+    public void testTimeOrderedIdsSortAsText() {
+        var generator = IdGenerator.timeOrdered(3);
+        String previousId = generator.nextId();
+        // Más ids que secuencias por milisegundo para forzar el acarreo
+        for (int i = 0; i < 10_000; i++) {
+            String id = generator.nextId();
+            assertEquals(16, id.length());
+            assertTrue(id.compareTo(previousId) > 0, previousId + " >= " + id);
+            previousId = id;
+        }
+        assertThrows(IllegalArgumentException.class, () -> IdGenerator.timeOrdered(1024));
+    }
+
+    @Test
+    public void testMessageIdIsGeneratedOnFirstUse() {
+        var generated = new AtomicInteger();
+        Element.setIdGenerator(() -> "lazy-" + generated.incrementAndGet());
+
+        var message = new Message((Document) null);
+        assertEquals(0, generated.get());
+
+        assertEquals("lazy-1", message.getId());
+        assertEquals("lazy-1", message.getId());
+        assertEquals("lazy-1", new Message(message).getId());
+        assertEquals(1, generated.get());
+
+        assertEquals("explicit", new Message("explicit", null).getId());
+        assertEquals(1, generated.get());
+    }
+}
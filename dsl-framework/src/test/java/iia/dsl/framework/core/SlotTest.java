@@ -0,0 +1,282 @@
+package iia.dsl.framework.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import iia.dsl.framework.util.TestUtils;
+
+public class SlotTest {
+
+    private Message message(String value) {
+        var msg = new Message(value, TestUtils.createXMLDocument("<item><value>" + value + "</value></item>"));
+        msg.addHeader(Message.CORRELATION_ID, value);
+        return msg;
+    }
+
+    private String valueOf(Message msg) {
+        return msg.getDocument().getDocumentElement().getTextContent();
+    }
+
+    @Test
+    public void testUnboundedSlotNeverAppliesBackpressure() {
+        Slot slot = new Slot("unbounded");
+
+        for (int i = 0; i < 100; i++) {
+            assertFalse(slot.setMessage(message("m" + i)));
+        }
+
+        assertFalse(slot.isBounded());
+        assertEquals(100, slot.getMessageCount());
+    }
+
+    @Test
+    public void testDropNewestDiscardsIncomingMessage() {
+        Slot slot = new Slot("drop-newest", 2, OverflowStrategy.DROP_NEWEST);
+
+        assertFalse(slot.setMessage(message("a")));
+        assertFalse(slot.setMessage(message("b")));
+        assertTrue(slot.setMessage(message("c")), "El tercer mensaje debe reportar backpressure");
+
+        assertEquals(2, slot.getMessageCount());
+        assertEquals(1, slot.getDroppedCount());
+        assertEquals("a", valueOf(slot.getMessage()));
+        assertEquals("b", valueOf(slot.getMessage()));
+        assertNull(slot.getMessage());
+    }
+
+    @Test
+    public void testDropOldestKeepsMostRecentMessages() {
+        Slot slot = new Slot("drop-oldest", 2, OverflowStrategy.DROP_OLDEST);
+
+        slot.setMessage(message("a"));
+        slot.setMessage(message("b"));
+        assertTrue(slot.setMessage(message("c")));
+
+        assertEquals(2, slot.getMessageCount());
+        assertEquals(1, slot.getDroppedCount());
+        assertEquals("b", valueOf(slot.getMessage()));
+        assertEquals("c", valueOf(slot.getMessage()));
+    }
+
+    @Test
+    public void testSpillToDiskPreservesOrderAndHeaders() {
+        Slot slot = new Slot("spill", 2, OverflowStrategy.SPILL_TO_DISK);
+
+        for (int i = 0; i < 5; i++) {
+            slot.setMessage(message("m" + i));
+        }
+
+        assertEquals(2, slot.getMessageCount());
+        assertEquals(3, slot.getSpilledCount());
+
+        for (int i = 0; i < 5; i++) {
+            var msg = slot.getMessage();
+            assertEquals("m" + i, valueOf(msg));
+            assertEquals("m" + i, msg.getHeader(Message.CORRELATION_ID));
+            assertEquals("m" + i, msg.getId());
+        }
+
+        assertFalse(slot.hasMessage());
+        assertEquals(0, slot.getSpilledCount());
+    }
+
+    @Test
+    public void testBlockWaitsUntilConsumerFreesSpace() throws Exception {
+        Slot slot = new Slot("block", 1, OverflowStrategy.BLOCK);
+        slot.setMessage(message("a"));
+
+        var started = new CountDownLatch(1);
+        var backpressure = new boolean[1];
+        var producer = new Thread(() -> {
+            started.countDown();
+            backpressure[0] = slot.setMessage(message("b"));
+        });
+        producer.start();
+        started.await();
+
+        // El productor debe seguir bloqueado mientras el slot esté lleno
+        producer.join(200);
+        assertTrue(producer.isAlive());
+        assertEquals(1, slot.getMessageCount());
+
+        assertEquals("a", valueOf(slot.getMessage()));
+        producer.join(TimeUnit.SECONDS.toMillis(5));
+
+        assertFalse(producer.isAlive());
+        assertTrue(backpressure[0]);
+        assertEquals("b", valueOf(slot.getMessage()));
+    }
+
+    @Test
+    public void testSetMessagesNotifiesOncePerBatch() {
+        Slot slot = new Slot("batch");
+        int[] notifications = new int[1];
+        slot.addListener(s -> notifications[0]++);
+
+        slot.setMessages(List.of(message("a"), message("b"), message("c")));
+
+        assertEquals(1, notifications[0], "Un lote debe generar una única notificación");
+        assertEquals(3, slot.getMessageCount());
+    }
+
+    @Test
+    public void testDrainToRespectsMaxBatchAndOrder() {
+        Slot slot = new Slot("drain");
+        for (int i = 0; i < 5; i++) {
+            slot.setMessage(message("m" + i));
+        }
+
+        List<Message> batch = new ArrayList<>();
+        assertEquals(3, slot.drainTo(batch, 3));
+        assertEquals(List.of("m0", "m1", "m2"), batch.stream().map(this::valueOf).toList());
+        assertEquals(2, slot.getMessageCount());
+
+        batch.clear();
+        assertEquals(2, slot.drainTo(batch, 10));
+        assertEquals(0, slot.drainTo(batch, 10));
+        assertFalse(slot.hasMessage());
+    }
+
+    @Test
+    public void testDrainToRefillsFromSpill() {
+        Slot slot = new Slot("drain-spill", 2, OverflowStrategy.SPILL_TO_DISK);
+        for (int i = 0; i < 4; i++) {
+            slot.setMessage(message("m" + i));
+        }
+
+        List<Message> batch = new ArrayList<>();
+        slot.drainTo(batch, 2);
+        slot.drainTo(batch, 2);
+
+        assertEquals(List.of("m0", "m1", "m2", "m3"), batch.stream().map(this::valueOf).toList());
+        assertEquals(0, slot.getSpilledCount());
+    }
+
+    @Test
+    public void testInvalidCapacityThrows() {
+        assertThrows(IllegalArgumentException.class, () -> new Slot("invalid", 0, OverflowStrategy.BLOCK));
+    }
+
+    @Test
+    public void testRingSlotWrapsAroundPreservingOrder() {
+        Slot slot = new Slot("spsc", SlotQueueType.SPSC_RING, 4, OverflowStrategy.DROP_NEWEST);
+
+        // Varias vueltas completas al buffer circular
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 4; i++) {
+                assertFalse(slot.setMessage(message("r" + round + "-" + i)));
+            }
+            assertEquals(4, slot.getMessageCount());
+            for (int i = 0; i < 4; i++) {
+                assertEquals("r" + round + "-" + i, valueOf(slot.getMessage()));
+            }
+            assertFalse(slot.hasMessage());
+        }
+        assertNull(slot.getMessage());
+    }
+
+    @Test
+    public void testFullRingAppliesOverflowStrategy() {
+        Slot slot = new Slot("ring-full", SlotQueueType.SPSC_RING, 2, OverflowStrategy.DROP_OLDEST);
+
+        slot.setMessage(message("a"));
+        slot.setMessage(message("b"));
+        assertTrue(slot.setMessage(message("c")));
+
+        assertEquals(1, slot.getDroppedCount());
+        assertEquals("b", valueOf(slot.getMessage()));
+        assertEquals("c", valueOf(slot.getMessage()));
+    }
+
+    @Test
+    public void testMpscRingDeliversAllMessagesFromConcurrentProducers() throws Exception {
+        Slot slot = new Slot("mpsc", SlotQueueType.MPSC_RING, 64, OverflowStrategy.BLOCK);
+        int producers = 4;
+        int perProducer = 500;
+        List<Message> received = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(producers);
+
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    slot.setMessage(message(producer + "-" + i));
+                }
+                done.countDown();
+            });
+        }
+
+        // Consumidor único: vacía el Slot mientras los productores esperan espacio
+        while (received.size() < producers * perProducer) {
+            if (slot.drainTo(received, 32) == 0) {
+                Thread.onSpinWait();
+            }
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(producers * perProducer, received.size());
+        assertEquals(0, slot.getMessageCount());
+
+        // Cada productor conserva su orden relativo
+        int[] next = new int[producers];
+        for (Message m : received) {
+            String[] parts = valueOf(m).split("-");
+            int producer = Integer.parseInt(parts[0]);
+            assertEquals(next[producer]++, Integer.parseInt(parts[1]));
+        }
+    }
+
+    @Test
+    public void testDropOldestOnRingLosesNothingUnderConcurrentConsumers() throws Exception {
+        // Capacidad igual al tamaño del buffer: el productor descarta mientras
+        // los consumidores vacían, y todos compiten por las mismas celdas
+        Slot slot = new Slot("ring-drop-oldest", SlotQueueType.SPSC_RING, 4, OverflowStrategy.DROP_OLDEST);
+        int total = 500_000;
+        int consumers = 3;
+        AtomicLong received = new AtomicLong();
+        CountDownLatch produced = new CountDownLatch(1);
+        CountDownLatch consumed = new CountDownLatch(consumers);
+
+        for (int c = 0; c < consumers; c++) {
+            Thread.ofPlatform().start(() -> {
+                while (produced.getCount() > 0 || slot.hasMessage()) {
+                    if (slot.getMessage() != null) {
+                        received.incrementAndGet();
+                    } else {
+                        Thread.onSpinWait();
+                    }
+                }
+                consumed.countDown();
+            });
+        }
+        for (int i = 0; i < total; i++) {
+            slot.setMessage(new Message("m" + i, null));
+        }
+        produced.countDown();
+
+        assertTrue(consumed.await(10, TimeUnit.SECONDS));
+        assertEquals(0, slot.getMessageCount());
+        assertEquals(total, received.get() + slot.getDroppedCount());
+    }
+
+    @Test
+    public void testRingSlotRequiresBoundedCapacity() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new Slot("ring", SlotQueueType.MPSC_RING, Slot.UNBOUNDED, OverflowStrategy.BLOCK));
+
+        Slot slot = new Slot("ring", SlotQueueType.MPSC_RING, 8, OverflowStrategy.BLOCK);
+        assertTrue(slot.isCapacityConfigured());
+        assertThrows(IllegalArgumentException.class, () -> slot.setCapacity(16, OverflowStrategy.BLOCK));
+    }
+}
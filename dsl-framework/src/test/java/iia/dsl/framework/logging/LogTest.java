@@ -0,0 +1,92 @@
+package iia.dsl.framework.logging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class LogTest {
+    private final List<LogRecord> records = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    public void restore() {
+        Log.setLevel(LogLevel.INFO);
+        Log.setLevel("test.", null);
+        Log.setSampling("test.", 1);
+        Log.setSink(new AsyncLogSink(new ConsoleSink()));
+    }
+
+    @Test
+    public void testLevelGuardSkipsMessageConstruction() {
+        Log.setSink(records::add);
+        var log = Log.get("test.guard");
+        var built = new AtomicInteger();
+
+        log.debug(() -> "debug " + built.incrementAndGet());
+        log.info("info");
+
+        assertFalse(log.isDebugEnabled());
+        assertEquals(0, built.get());
+        assertEquals(1, records.size());
+        assertEquals(LogLevel.INFO, records.get(0).level());
+
+        Log.setLevel("test.guard", LogLevel.DEBUG);
+        log.debug(() -> "debug " + built.incrementAndGet());
+        assertEquals(1, built.get());
+        assertEquals(2, records.size());
+    }
+
+    @Test
+    public void testSamplingKeepsWarningsAndErrors() {
+        Log.setSink(records::add);
+        Log.setSampling("test.", 10);
+        var log = Log.get("test.sampled");
+
+        for (int i = 0; i < 100; i++) {
+            log.info("info " + i);
+        }
+        log.warn("warn");
+        log.error("error");
+
+        assertEquals(12, records.size());
+        assertEquals("info 0", records.get(0).message());
+        assertEquals("info 10", records.get(1).message());
+    }
+
+    @Test
+    public void testAsyncSinkWritesOnWriterThreadAndDropsWhenFull() throws Exception {
+        var release = new CountDownLatch(1);
+        List<String> threads = new CopyOnWriteArrayList<>();
+        var async = new AsyncLogSink(record -> {
+            threads.add(Thread.currentThread().getName());
+            records.add(record);
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, 4);
+        Log.setSink(async);
+        var log = Log.get("test.async");
+
+        // El escritor queda bloqueado en la primera entrada; el resto llena el buffer
+        for (int i = 0; i < 20; i++) {
+            log.info("entry " + i);
+        }
+        assertTrue(async.getDroppedCount() > 0, "dropped=" + async.getDroppedCount());
+
+        release.countDown();
+        Log.flush();
+        assertTrue(threads.stream().allMatch("dsl-log-writer"::equals), threads.toString());
+        long entries = records.stream().filter(r -> r.source().equals("test.async")).count();
+        assertEquals(20 - async.getDroppedCount(), entries);
+    }
+}
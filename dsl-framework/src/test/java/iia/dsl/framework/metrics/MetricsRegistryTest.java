@@ -0,0 +1,141 @@
+package iia.dsl.framework.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+
+import org.junit.jupiter.api.Test;
+
+import iia.dsl.framework.core.ExecutionEnvironment;
+import iia.dsl.framework.core.Flow;
+import iia.dsl.framework.core.Message;
+import iia.dsl.framework.core.QueueType;
+import iia.dsl.framework.core.Slot;
+import iia.dsl.framework.tasks.routers.RouterFactory;
+import iia.dsl.framework.util.TestUtils;
+
+public class MetricsRegistryTest {
+
+    @Test
+    public void testHistogramPercentiles() {
+        var histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1_000L);
+        }
+
+        var snapshot = histogram.snapshot();
+        assertEquals(100, snapshot.count());
+        assertEquals(50_500.0, snapshot.mean(), 0.001);
+        assertEquals(100_000, snapshot.max());
+        // Cubetas potencia de dos: el percentil es como mucho el doble del real
+        assertTrue(snapshot.p50() >= 50_000 && snapshot.p50() < 100_000, "p50=" + snapshot.p50());
+        assertTrue(snapshot.p99() >= 99_000 && snapshot.p99() < 200_000, "p99=" + snapshot.p99());
+    }
+
+    @Test
+    public void testTaskCountsMessagesInAndOut() throws Exception {
+        Slot input = new Slot("metrics-in");
+        Slot output = new Slot("metrics-out");
+        var filter = new RouterFactory().createFilterTask("metrics-filter", input, output,
+                "count(/order/header/customer)");
+        var flow = Flow.builder().id("metrics-flow").build();
+        flow.addElement(filter);
+        flow.execute();
+
+        var registry = MetricsRegistry.getInstance();
+        long inBefore = registry.counter("task.metrics-filter.in").get();
+        long outBefore = registry.counter("task.metrics-filter.out").get();
+
+        input.setMessage(new Message("a", TestUtils.createXMLDocument(TestUtils.SAMPLE_XML)));
+        input.setMessage(new Message("b", TestUtils.createXMLDocument("<other/>")));
+
+        var snapshot = registry.snapshot();
+        assertEquals(inBefore + 2, snapshot.counter("task.metrics-filter.in"));
+        assertEquals(outBefore + 1, snapshot.counter("task.metrics-filter.out"));
+        assertTrue(snapshot.latency("task.metrics-filter.execute").count() >= 2);
+        assertEquals(1.0, snapshot.gauge("slot.metrics-out.depth"));
+        assertEquals(1.0, snapshot.gauge("slot.metrics-out.peak"));
+    }
+
+    @Test
+    public void testSlotPeakDepth() {
+        Slot slot = new Slot("peak");
+        for (int i = 0; i < 5; i++) {
+            slot.setMessage(new Message("m" + i, null));
+        }
+        slot.getMessage();
+        slot.getMessage();
+        slot.setMessage(new Message("m5", null));
+
+        assertEquals(4, slot.getMessageCount());
+        assertEquals(5, slot.getPeakMessageCount());
+    }
+
+    @Test
+    public void testExecutorGaugesAreRegisteredAndRemoved() {
+        var environment = ExecutionEnvironment.builder().name("metrics-env").threads(1).queue(QueueType.FIFO)
+                .build();
+        var gauges = MetricsRegistry.getInstance().snapshot().gauges();
+        assertTrue(gauges.containsKey("executor.metrics-env.queue"));
+        assertTrue(gauges.containsKey("executor.metrics-env.active"));
+
+        environment.shutdown();
+        assertTrue(MetricsRegistry.getInstance().snapshot().gauges().keySet().stream()
+                .noneMatch(name -> name.startsWith("executor.metrics-env.")));
+    }
+
+    @Test
+    public void testUnnamedEnvironmentsAndFlowSlotsReleaseTheirGauges() throws Exception {
+        var first = ExecutionEnvironment.builder().threads(1).build();
+        var second = ExecutionEnvironment.builder().threads(1).build();
+        assertNotEquals(first.getName(), second.getName());
+
+        Slot input = new Slot("release-in");
+        Slot output = new Slot("release-out");
+        var flow = Flow.builder().id("release-flow").executor(first).build();
+        flow.addElement(new RouterFactory().createFilterTask("release-filter", input, output, "/order"));
+        flow.execute();
+        assertTrue(MetricsRegistry.getInstance().snapshot().gauges().containsKey("slot.release-out.depth"));
+
+        flow.shutdown();
+        first.shutdown();
+        var gauges = MetricsRegistry.getInstance().snapshot().gauges();
+        assertTrue(gauges.keySet().stream().noneMatch(name -> name.startsWith("slot.release-")));
+        assertTrue(gauges.keySet().stream().noneMatch(name -> name.startsWith("executor." + first.getName() + ".")));
+        assertTrue(gauges.containsKey("executor." + second.getName() + ".queue"));
+        second.shutdown();
+    }
+
+    @Test
+    public void testUnnamedFlowsWithOwnExecutorsKeepSeparateGauges() {
+        var first = Flow.builder().executor(1, QueueType.FIFO).build();
+        var second = Flow.builder().executor(1, QueueType.FIFO).build();
+        String firstName = first.getEnvironment().getName();
+        String secondName = second.getEnvironment().getName();
+        assertNotEquals(firstName, secondName);
+
+        first.shutdown();
+        var gauges = MetricsRegistry.getInstance().snapshot().gauges();
+        assertTrue(gauges.keySet().stream().noneMatch(name -> name.startsWith("executor." + firstName + ".")));
+        assertTrue(gauges.containsKey("executor." + secondName + ".queue"));
+        second.shutdown();
+    }
+
+    @Test
+    public void testExposedThroughJmx() throws Exception {
+        var registry = MetricsRegistry.getInstance();
+        registry.counter("jmx.test").add(3);
+
+        var server = ManagementFactory.getPlatformMBeanServer();
+        var name = new ObjectName(MetricsRegistry.OBJECT_NAME);
+        assertTrue(server.isRegistered(name));
+
+        var counters = (TabularData) server.getAttribute(name, "Counters");
+        var row = counters.get(new Object[] { "jmx.test" });
+        assertTrue((Long) row.get("value") >= 3);
+    }
+}
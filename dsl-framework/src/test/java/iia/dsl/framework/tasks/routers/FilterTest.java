@@ -1,7 +1,10 @@
 package iia.dsl.framework.tasks.routers;
 
+import java.util.List;
+
 import javax.xml.xpath.XPathExpressionException;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -76,4 +79,25 @@ public class FilterTest {
             filter.execute();
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testFailingMessageDoesNotDropRestOfBatch() throws Exception {
+        Slot inputSlot = new Slot("input");
+        Slot outputSlot = new Slot("output");
+        Filter filter = new Filter("batch-filter", inputSlot, outputSlot, "count(/order/items/item) >= 1");
+        // Se ejecuta a mano para ver la excepción
+        inputSlot.removeListener(filter);
+
+        inputSlot.setMessages(List.of(
+                new Message("bad", null),
+                new Message("good-1", TestUtils.createXMLDocument(TestUtils.SAMPLE_XML)),
+                new Message("good-2", TestUtils.createXMLDocument(TestUtils.SAMPLE_XML))));
+
+        Exception e = assertThrows(Exception.class, filter::execute);
+        assertTrue(e.getMessage().contains("No hay Documento"));
+        assertFalse(inputSlot.hasMessage());
+        assertEquals(2, outputSlot.getMessageCount());
+        assertEquals("good-1", outputSlot.getMessage().getId());
+        assertEquals("good-2", outputSlot.getMessage().getId());
+    }
+}
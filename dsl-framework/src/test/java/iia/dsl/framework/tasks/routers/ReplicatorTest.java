@@ -10,6 +10,8 @@ import javax.xml.parsers.DocumentBuilderFactory;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
@@ -18,6 +20,7 @@ import org.w3c.dom.Document;
 
 import iia.dsl.framework.core.Message;
 import iia.dsl.framework.core.Slot;
+import iia.dsl.framework.tasks.modifiers.ModifierFactory;
 
 class ReplicatorTest {
     
@@ -122,4 +125,61 @@ class ReplicatorTest {
         assertTrue(outputSlot1.hasMessage());
         assertEquals("order", outputSlot1.getMessage().getDocument().getDocumentElement().getNodeName());
     }
-}
\ No newline at end of file
+    
+    @Test
+    void testBranchesShareDocumentUntilOneModifiesIt() throws Exception {
+        Document doc = createXmlDocument("<order><id>1</id><note>fragile</note></order>");
+        new Replicator("rep-1", inputSlot, List.of(outputSlot1, outputSlot2, outputSlot3));
+        inputSlot.setMessage(new Message(doc));
+        
+        Message reader = outputSlot1.getMessage();
+        Message writer = outputSlot2.getMessage();
+        Message lastOwner = outputSlot3.getMessage();
+        assertSame(doc, reader.getDocument());
+        assertSame(doc, writer.getDocument());
+        assertTrue(writer.isDocumentShared());
+        
+        // La rama que modifica recibe su propia copia; las demás no se enteran
+        Document written = writer.getDocumentForUpdate();
+        assertNotSame(doc, written);
+        written.getDocumentElement().removeChild(written.getElementsByTagName("note").item(0));
+        assertEquals(0, written.getElementsByTagName("note").getLength());
+        assertEquals(1, reader.getDocument().getElementsByTagName("note").getLength());
+        assertFalse(writer.isDocumentShared());
+        
+        // Quien deja de usar el documento libera su parte: el último no copia
+        reader.setDocument(createXmlDocument("<other/>"));
+        assertFalse(lastOwner.isDocumentShared());
+        assertSame(doc, lastOwner.getDocumentForUpdate());
+    }
+    
+    @Test
+    void testDistributorKeepsCopyOnWriteForModifyingBranches() throws Exception {
+        Document doc = createXmlDocument("<order><id>1</id></order>");
+        Slot routedA = new Slot("routed-a");
+        Slot routedB = new Slot("routed-b");
+        Slot context = new Slot("context");
+        Slot enriched = new Slot("enriched");
+        new Replicator("rep-1", inputSlot, List.of(outputSlot1, outputSlot2));
+        new RouterFactory().createDistributorTask("dist-1", outputSlot1, List.of(routedA, routedB),
+                List.of("/order", "/order/id"));
+        new ModifierFactory().createContextEnricherTask("enricher-1", routedA, context, enriched);
+        context.setMessage(new Message(createXmlDocument(
+                "<context><xpath>/order</xpath><body><extra>yes</extra></body></context>")));
+
+        inputSlot.setMessage(new Message(doc));
+
+        // Solo la rama enriquecida ve el cambio: ni el otro Replicator ni la
+        // otra salida del Distributor
+        Message written = enriched.getMessage();
+        assertEquals(1, written.getDocument().getElementsByTagName("extra").getLength());
+        assertNotSame(doc, written.getDocument());
+        Message sibling = outputSlot2.getMessage();
+        Message routed = routedB.getMessage();
+        assertSame(doc, sibling.getDocument());
+        assertSame(doc, routed.getDocument());
+        assertEquals(0, doc.getElementsByTagName("extra").getLength());
+        assertTrue(sibling.isDocumentShared());
+        assertTrue(routed.isDocumentShared());
+    }
+}
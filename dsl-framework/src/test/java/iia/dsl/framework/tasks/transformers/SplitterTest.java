@@ -145,12 +145,12 @@ public class SplitterTest {
 		List<Message> capturedMessages = new ArrayList<>();
 		Slot captureOutput = new Slot("capture") {
 			@Override
-			public void setMessage(Message m) {
+			public boolean setMessage(Message m) {
 				// Capturamos una copia del mensaje
 				Message copy = new Message(m.getId(), m.getDocument());
 				m.getHeaders().forEach((k, v) -> copy.addHeader(k, v));
 				capturedMessages.add(copy);
-				super.setMessage(m);
+				return super.setMessage(m);
 			}
 		};
 		
@@ -0,0 +1,114 @@
+package iia.dsl.framework.tasks.transformers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.w3c.dom.Document;
+
+import iia.dsl.framework.connectors.FileConnector;
+import iia.dsl.framework.core.Message;
+import iia.dsl.framework.core.Slot;
+import iia.dsl.framework.metrics.MetricsRegistry;
+import iia.dsl.framework.ports.InputPort;
+import iia.dsl.framework.util.Storage;
+import iia.dsl.framework.util.TestUtils;
+
+/**
+ * Test unitario para StreamingSplitter.
+ * 
+ * Verifica que los fragmentos se leen con StAX desde el fichero, que solo el
+ * último lleva TOTAL_FRAG y que el Aggregator reconstruye el documento.
+ */
+public class StreamingSplitterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testStreamsFragmentsAndStoresSkeleton() throws Exception {
+        Path source = tempDir.resolve("order.xml");
+        Files.writeString(source, TestUtils.SAMPLE_XML);
+
+        Slot input = new Slot("stream-in");
+        Slot output = new Slot("stream-out");
+        var splitter = new StreamingSplitter("streaming-splitter", input, output, "/order/items/item");
+
+        // El FileConnector en modo streaming solo publica la referencia al fichero
+        var connector = new FileConnector(new InputPort("file-in", input), source.toString(), true);
+        connector.execute();
+        splitter.execute();
+
+        List<Message> fragments = new ArrayList<>();
+        while (output.hasMessage()) {
+            fragments.add(output.getMessage());
+        }
+
+        assertEquals(2, fragments.size());
+        Message first = fragments.get(0);
+        Message last = fragments.get(1);
+        assertEquals("0", first.getHeader(Message.NUM_FRAG));
+        assertTrue(first.hasHeader(Message.FRAG_STREAM));
+        assertFalse(first.hasHeader(Message.TOTAL_FRAG), "Only the last fragment knows the total");
+        assertFalse(first.hasHeader(Message.SOURCE_PATH));
+        assertEquals("1", last.getHeader(Message.NUM_FRAG));
+        assertEquals("2", last.getHeader(Message.TOTAL_FRAG));
+
+        Document fragDoc = first.getDocument();
+        assertEquals("item", fragDoc.getDocumentElement().getNodeName());
+        assertEquals("P001", fragDoc.getElementsByTagName("productId").item(0).getTextContent());
+
+        Document skeleton = Storage.getInstance().retrieveDocument(first.getId());
+        Storage.getInstance().storeDocument(first.getId(), skeleton);
+        assertNotNull(skeleton, "Skeleton should be stored before the last fragment");
+        assertEquals(0, skeleton.getElementsByTagName("item").getLength());
+        assertEquals("John Doe", skeleton.getElementsByTagName("customer").item(0).getTextContent());
+
+        // Reconstrucción con el Aggregator
+        Slot aggIn = new Slot("agg-in");
+        Slot aggOut = new Slot("agg-out");
+        var aggregator = new Aggregator("stream-aggregator", aggIn, aggOut, "/order/items");
+        aggIn.setMessage(first);
+        aggregator.execute();
+        assertFalse(aggOut.hasMessage(), "Group must wait for the fragment carrying TOTAL_FRAG");
+
+        aggIn.setMessage(last);
+        aggregator.execute();
+        Message rebuilt = aggOut.getMessage();
+        assertNotNull(rebuilt);
+        var items = rebuilt.getDocument().getElementsByTagName("item");
+        assertEquals(2, items.getLength());
+        assertEquals("Mouse", ((org.w3c.dom.Element) items.item(1)).getElementsByTagName("name").item(0)
+                .getTextContent());
+    }
+
+    @Test
+    public void testRejectsUnsupportedPaths() {
+        Slot input = new Slot("in");
+        Slot output = new Slot("out");
+        assertThrows(IllegalArgumentException.class,
+                () -> new StreamingSplitter("bad", input, output, "//item[@id='1']"));
+    }
+
+    @Test
+    public void testFailsWithoutSourcePath() {
+        Slot input = new Slot("in");
+        Slot output = new Slot("out");
+        new StreamingSplitter("no-source", input, output, "/order/items/item");
+
+        // En modo secuencial el mensaje dispara la tarea; el error queda registrado
+        input.setMessage(new Message("msg", TestUtils.createXMLDocument(TestUtils.SAMPLE_XML)));
+
+        assertEquals(1, MetricsRegistry.getInstance().counter("task.no-source.errors").get());
+        assertFalse(output.hasMessage());
+    }
+}
@@ -2,6 +2,7 @@ package iia.dsl.framework.tasks.transformers;
 
 import iia.dsl.framework.core.Message;
 import iia.dsl.framework.core.Slot;
+import iia.dsl.framework.metrics.MetricsRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
@@ -315,4 +316,36 @@ class TranslatorTest {
         assertNotNull(result.getDocument());
         assertEquals("data", result.getDocument().getDocumentElement().getNodeName());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Debe detectar un XSLT inválido al preparar, antes del primer mensaje")
+    void testPrepareFailsOnInvalidXslt() {
+        // Arrange
+        var translator = new Translator("translator-invalid", inputSlot, outputSlot, "<xsl:stylesheet");
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, translator::prepare);
+        assertFalse(outputSlot.hasMessage());
+    }
+
+    @Test
+    @DisplayName("Debe reutilizar la hoja de estilos compilada entre mensajes")
+    void testReusesCompiledXslt() throws Exception {
+        // Arrange: un XSLT que ningún otro test haya compilado ya
+        var xslt = simpleXslt.replace("</xsl:stylesheet>", "<!-- " + System.nanoTime() + " --></xsl:stylesheet>");
+        var compilations = MetricsRegistry.getInstance().counter("xslt.compilations");
+        long before = compilations.get();
+        var translator = new Translator("translator-cached", inputSlot, outputSlot, xslt);
+        translator.prepare();
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            inputSlot.setMessage(new Message("msg" + i, testDocument, new HashMap<>()));
+            translator.execute();
+        }
+
+        // Assert
+        assertEquals(3, outputSlot.getMessageCount());
+        assertEquals(1, compilations.get() - before);
+    }
+}
@@ -0,0 +1,61 @@
+package iia.dsl.framework.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+
+/**
+ * Test unitario para XPathCache.
+ * 
+ * Verifica que las expresiones cacheadas se evalúan correctamente desde varios
+ * hilos y que las expresiones inválidas siguen fallando.
+ */
+public class XPathCacheTest {
+
+    @Test
+    public void testEvaluatesCachedExpression() throws Exception {
+        Document doc = TestUtils.createXMLDocument(TestUtils.SAMPLE_XML);
+
+        Double first = (Double) XPathCache.evaluate("count(/order/items/item)", doc, XPathConstants.NUMBER);
+        Double second = (Double) XPathCache.evaluate("count(/order/items/item)", doc, XPathConstants.NUMBER);
+
+        assertEquals(2.0, first);
+        assertEquals(2.0, second);
+    }
+
+    @Test
+    public void testConcurrentEvaluation() throws Exception {
+        Document doc = TestUtils.createXMLDocument(TestUtils.SAMPLE_XML);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                // Cada hilo trabaja sobre su propia copia del documento (DOM no es thread-safe)
+                Document copy = (Document) doc.cloneNode(true);
+                results.add(pool.submit(() -> XPathCache.evaluate("count(//item)", copy, XPathConstants.NUMBER)));
+            }
+            for (Future<Object> result : results) {
+                assertEquals(2.0, result.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testInvalidExpressionThrows() {
+        assertThrows(XPathExpressionException.class, () -> XPathCache.compile("//item[@"));
+        assertThrows(XPathExpressionException.class,
+                () -> XPathCache.evaluate("//item[@", TestUtils.createXMLDocument("<a/>"), XPathConstants.NODE));
+    }
+}